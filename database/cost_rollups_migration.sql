@@ -0,0 +1,48 @@
+-- Create cost_rollups table: running planned/actual cost totals per
+-- phase, forage, puit and type d'opération, maintained by OperationService
+CREATE TABLE cost_rollups (
+    id NUMBER(19) PRIMARY KEY,
+    scope VARCHAR2(20) NOT NULL,
+    scope_key VARCHAR2(50) NOT NULL,
+    cout_prevu NUMBER(19,2) DEFAULT 0 NOT NULL,
+    cout_reel NUMBER(19,2) DEFAULT 0 NOT NULL,
+    operation_count NUMBER(19) DEFAULT 0 NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create sequence for primary key
+CREATE SEQUENCE cost_rollups_seq START WITH 1 INCREMENT BY 1;
+
+-- One row per scope/key; also serves the dashboard lookups
+ALTER TABLE cost_rollups 
+ADD CONSTRAINT uk_cost_rollups_scope_key 
+    UNIQUE (scope, scope_key);
+
+-- Seed the rollups from the existing operations
+INSERT INTO cost_rollups (id, scope, scope_key, cout_prevu, cout_reel, operation_count)
+SELECT cost_rollups_seq.NEXTVAL, 'PHASE', TO_CHAR(t.phase_id), t.prevu, t.reel, t.cnt
+FROM (SELECT phase_id, NVL(SUM(cout_prevu), 0) prevu, NVL(SUM(cout_reel), 0) reel, COUNT(*) cnt
+      FROM operations WHERE phase_id IS NOT NULL GROUP BY phase_id) t;
+
+INSERT INTO cost_rollups (id, scope, scope_key, cout_prevu, cout_reel, operation_count)
+SELECT cost_rollups_seq.NEXTVAL, 'FORAGE', TO_CHAR(t.forage_id), t.prevu, t.reel, t.cnt
+FROM (SELECT p.forage_id, NVL(SUM(o.cout_prevu), 0) prevu, NVL(SUM(o.cout_reel), 0) reel, COUNT(*) cnt
+      FROM operations o JOIN phases p ON p.id = o.phase_id
+      WHERE p.forage_id IS NOT NULL GROUP BY p.forage_id) t;
+
+INSERT INTO cost_rollups (id, scope, scope_key, cout_prevu, cout_reel, operation_count)
+SELECT cost_rollups_seq.NEXTVAL, 'PUIT', TO_CHAR(t.puit_id), t.prevu, t.reel, t.cnt
+FROM (SELECT f.puit_id, NVL(SUM(o.cout_prevu), 0) prevu, NVL(SUM(o.cout_reel), 0) reel, COUNT(*) cnt
+      FROM operations o JOIN phases p ON p.id = o.phase_id JOIN forages f ON f.id = p.forage_id
+      WHERE f.puit_id IS NOT NULL GROUP BY f.puit_id) t;
+
+INSERT INTO cost_rollups (id, scope, scope_key, cout_prevu, cout_reel, operation_count)
+SELECT cost_rollups_seq.NEXTVAL, 'TYPE_OPERATION', t.type_operation_code, t.prevu, t.reel, t.cnt
+FROM (SELECT type_operation_code, NVL(SUM(cout_prevu), 0) prevu, NVL(SUM(cout_reel), 0) reel, COUNT(*) cnt
+      FROM operations WHERE type_operation_code IS NOT NULL GROUP BY type_operation_code) t;
+
+COMMENT ON TABLE cost_rollups IS 'Running cost totals per phase, forage, puit and operation type';
+COMMENT ON COLUMN cost_rollups.scope IS 'PHASE, FORAGE, PUIT or TYPE_OPERATION';
+COMMENT ON COLUMN cost_rollups.scope_key IS 'Id of the phase/forage/puit, or type operation code';
+
+COMMIT;
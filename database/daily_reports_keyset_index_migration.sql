@@ -0,0 +1,8 @@
+-- Keyset pagination of daily reports walks (report_date DESC, id DESC);
+-- this index serves both the ordering and the "after cursor" predicate.
+-- It supersedes the single-column report_date index.
+CREATE INDEX idx_daily_reports_date_id ON daily_reports(report_date DESC, id DESC);
+
+DROP INDEX idx_daily_reports_date;
+
+COMMIT;
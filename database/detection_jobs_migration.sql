@@ -0,0 +1,39 @@
+-- Create detection_jobs table: one durable problem detection job per daily report,
+-- run in the background by DetectionJobService
+CREATE TABLE detection_jobs (
+    id NUMBER(19) PRIMARY KEY,
+    daily_report_id NUMBER(19) NOT NULL,
+    operation_ids CLOB,
+    status VARCHAR2(20) NOT NULL,
+    attempts NUMBER(10) DEFAULT 0 NOT NULL,
+    revision NUMBER(19) DEFAULT 0 NOT NULL,
+    problem_count NUMBER(10),
+    last_error VARCHAR2(1000),
+    next_attempt_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    started_at TIMESTAMP,
+    finished_at TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create sequence for primary key
+CREATE SEQUENCE detection_jobs_seq START WITH 1 INCREMENT BY 1;
+
+-- One job per daily report: re-submissions reuse it
+ALTER TABLE detection_jobs 
+ADD CONSTRAINT uk_detection_jobs_report 
+    UNIQUE (daily_report_id);
+
+ALTER TABLE detection_jobs 
+ADD CONSTRAINT fk_detection_jobs_report 
+    FOREIGN KEY (daily_report_id) REFERENCES daily_reports(id) ON DELETE CASCADE;
+
+-- Startup recovery and the retry sweep look jobs up by status
+CREATE INDEX idx_detection_jobs_status ON detection_jobs(status, next_attempt_at);
+
+COMMENT ON TABLE detection_jobs IS 'Background problem detection job per daily report';
+COMMENT ON COLUMN detection_jobs.operation_ids IS 'Comma separated ids of the operations to check';
+COMMENT ON COLUMN detection_jobs.status IS 'PENDING, RUNNING, DONE or FAILED';
+COMMENT ON COLUMN detection_jobs.revision IS 'Incremented by each submission; a run that sees a newer revision is re-queued';
+
+COMMIT;
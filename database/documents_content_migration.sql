@@ -0,0 +1,8 @@
+-- Document content stored by ContentStore, addressed by the SHA-256 of its bytes
+ALTER TABLE documents ADD content_sha256 VARCHAR2(64);
+ALTER TABLE documents ADD content_type VARCHAR2(255);
+
+-- Garbage collection of unreferenced blobs looks documents up by hash
+CREATE INDEX idx_documents_content_sha256 ON documents(content_sha256);
+
+COMMIT;
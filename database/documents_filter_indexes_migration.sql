@@ -0,0 +1,9 @@
+-- Indexes for the combined GET /documents and /documents/search filters
+-- (DocumentSpecifications), which match parents on their foreign keys
+CREATE INDEX idx_documents_puit_id ON documents(puit_id);
+CREATE INDEX idx_documents_phase_id ON documents(phase_id);
+CREATE INDEX idx_documents_operation_id ON documents(operation_id);
+CREATE INDEX idx_documents_uploade_par ON documents(uploade_par);
+CREATE INDEX idx_documents_type_public ON documents(type, est_public);
+
+COMMIT;
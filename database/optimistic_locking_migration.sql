@@ -0,0 +1,20 @@
+-- Version column of the entities updated concurrently by field engineers and
+-- by problem detection: operations, phases, problemes and daily_reports.
+-- Hibernate increments it on every update and adds "AND version = ?" to the
+-- UPDATE, so a write made from a stale read fails instead of silently
+-- overwriting the other one; the API answers it with 409 (or 412 when the
+-- client sent If-Match) and the current state.
+--
+-- Existing rows start at version 0. With a DEFAULT, ADD ... NOT NULL only
+-- changes the dictionary and does not rewrite the tables.
+ALTER TABLE operations ADD version NUMBER(19) DEFAULT 0 NOT NULL;
+ALTER TABLE phases ADD version NUMBER(19) DEFAULT 0 NOT NULL;
+ALTER TABLE problemes ADD version NUMBER(19) DEFAULT 0 NOT NULL;
+ALTER TABLE daily_reports ADD version NUMBER(19) DEFAULT 0 NOT NULL;
+
+COMMENT ON COLUMN operations.version IS 'Optimistic lock, incremented on every update';
+COMMENT ON COLUMN phases.version IS 'Optimistic lock, incremented on every update';
+COMMENT ON COLUMN problemes.version IS 'Optimistic lock, incremented on every update';
+COMMENT ON COLUMN daily_reports.version IS 'Optimistic lock, incremented on every update';
+
+COMMIT;
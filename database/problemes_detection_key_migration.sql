@@ -0,0 +1,80 @@
+-- Add detection_key to problemes: fingerprint of auto-detected problems
+-- (rule id + operation/phase/indicateur id), replacing the LIKE '%...%'
+-- lookups on description used to find the open problem to update
+ALTER TABLE problemes ADD detection_key VARCHAR2(200);
+
+-- Backfill the open auto-detected problems, keeping one per key (the oldest)
+-- so the unique index below can be created:
+--   * cost problems take the id of their operation;
+--   * depth and schedule problems take the phase of their operation;
+--   * indicateur problems take the indicateur id from their description
+--     ("Indicateur <id> - Écart ..."), with or without an operation.
+-- Indicateur keys use the id of the default rule, indicateur-deviation. If
+-- detection-rules.json has rules for specific types d'indicateur, re-key
+-- the problems of those types after this script, e.g.:
+--   UPDATE problemes SET detection_key = REPLACE(detection_key, 'indicateur-deviation:', '<rule id>:')
+--   WHERE detection_key LIKE 'indicateur-deviation:indicateur:%'
+--     AND TO_NUMBER(SUBSTR(detection_key, 33)) IN (SELECT id FROM indicateurs WHERE type_indicateur_id = <type id>);
+MERGE INTO problemes p
+USING (
+    SELECT id, detection_key
+    FROM (
+        SELECT id, detection_key,
+               ROW_NUMBER() OVER (PARTITION BY detection_key ORDER BY id) rn
+        FROM (
+            SELECT pr.id,
+                   CASE
+                       WHEN pr.type = 'COUT' AND pr.description LIKE 'Dépassement de coût détecté%'
+                            AND pr.operation_id IS NOT NULL
+                           THEN 'operation-cost-overrun:operation:' || pr.operation_id
+                       WHEN pr.type = 'TECHNIQUE' AND pr.description LIKE 'Phase % - Dépassement de profondeur%'
+                            AND o.phase_id IS NOT NULL
+                           THEN 'phase-depth-overrun:phase:' || o.phase_id
+                       WHEN pr.type = 'DELAI' AND pr.description LIKE 'Phase % - Retard de début%'
+                            AND o.phase_id IS NOT NULL
+                           THEN 'phase-schedule-delay:phase:' || o.phase_id || ':debut'
+                       WHEN pr.type = 'DELAI' AND pr.description LIKE 'Phase % - Retard de fin%'
+                            AND o.phase_id IS NOT NULL
+                           THEN 'phase-schedule-delay:phase:' || o.phase_id || ':fin'
+                       WHEN pr.type = 'TECHNIQUE' AND REGEXP_LIKE(pr.description, '^Indicateur [0-9]+ - Écart')
+                           THEN 'indicateur-deviation:indicateur:'
+                                || REGEXP_SUBSTR(pr.description, '^Indicateur ([0-9]+) - Écart', 1, 1, NULL, 1)
+                   END detection_key
+            FROM problemes pr
+            LEFT JOIN operations o ON o.id = pr.operation_id
+            WHERE pr.statut <> 'FERME'
+        )
+        WHERE detection_key IS NOT NULL
+    )
+    WHERE rn = 1
+) k
+ON (p.id = k.id)
+WHEN MATCHED THEN UPDATE SET p.detection_key = k.detection_key;
+
+-- Depth and schedule problems without an operation cannot be keyed: their
+-- description only has the phase number, which the phases of every forage
+-- share. Left open without a key they would be duplicated by the next
+-- detection run, so they are closed here, with a note; that run opens a
+-- keyed problem with the current measures if the phase is still off.
+UPDATE problemes
+SET statut = 'FERME',
+    solution_implemente = SUBSTR(NVL2(solution_implemente, solution_implemente || ' ', '')
+        || '[Fermé par la migration detection_key : phase non identifiable, remplacé par la prochaine détection]', 1, 1000)
+WHERE statut <> 'FERME'
+  AND detection_key IS NULL
+  AND operation_id IS NULL
+  AND ((type = 'TECHNIQUE' AND description LIKE 'Phase % - Dépassement de profondeur%')
+       OR (type = 'DELAI' AND description LIKE 'Phase % - Retard de%'));
+
+-- At most one open problem per key; FERME problems and problems entered by
+-- hand (NULL key) are left out of the index
+CREATE UNIQUE INDEX uk_problemes_open_detection_key ON problemes (
+    CASE WHEN statut <> 'FERME' THEN detection_key END
+);
+
+-- Lookups by key during detection
+CREATE INDEX idx_problemes_detection_key ON problemes(detection_key);
+
+COMMENT ON COLUMN problemes.detection_key IS 'Rule id + operation/phase/indicateur id of auto-detected problems, unique among open problems';
+
+COMMIT;
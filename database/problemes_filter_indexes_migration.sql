@@ -0,0 +1,12 @@
+-- Indexes for the combined GET /problemes filter (ProblemeSpecifications).
+-- Triage screens filter on status/severity/type over a detection date range;
+-- the foreign key columns back the operation/reporter/resolver criteria.
+CREATE INDEX idx_problemes_statut_date ON problemes(statut, date_detection);
+CREATE INDEX idx_problemes_gravite_date ON problemes(gravite, date_detection);
+CREATE INDEX idx_problemes_type_date ON problemes(type, date_detection);
+CREATE INDEX idx_problemes_date_resolution ON problemes(date_resolution);
+CREATE INDEX idx_problemes_operation_id ON problemes(operation_id);
+CREATE INDEX idx_problemes_signale_par_id ON problemes(signale_par_id);
+CREATE INDEX idx_problemes_resolu_par_id ON problemes(resolu_par_id);
+
+COMMIT;
@@ -0,0 +1,77 @@
+-- Ids of every entity now come from a <table>_seq sequence read by Hibernate
+-- with the pooled-lo optimizer (allocationSize 50, see JpaConfig): one NEXTVAL
+-- covers 50 inserts and the inserts can be sent in JDBC batches. Until now
+-- most entities were IDENTITY mapped, so Hibernate inserted each row alone
+-- and read back the id set by the BEFORE INSERT trigger.
+--
+-- For each table this:
+--   * turns an identity id column into a plain one;
+--   * creates <table>_seq if missing, or makes it step by 50, restarting it
+--     above the highest id in use;
+--   * replaces the BEFORE INSERT row triggers by <table>_bi, which only sets
+--     an id when the insert gives none (inserts made outside the application).
+--
+-- Run it before deploying: Hibernate checks at startup that the increment
+-- of each sequence matches its allocationSize.
+DECLARE
+    PROCEDURE use_pooled_sequence(p_table IN VARCHAR2) IS
+        v_table    VARCHAR2(128) := UPPER(p_table);
+        v_sequence VARCHAR2(128) := UPPER(p_table) || '_SEQ';
+        v_count    NUMBER;
+        v_start    NUMBER;
+    BEGIN
+        SELECT COUNT(*) INTO v_count FROM user_tables WHERE table_name = v_table;
+        IF v_count = 0 THEN
+            RETURN;
+        END IF;
+
+        SELECT COUNT(*) INTO v_count FROM user_tab_identity_cols
+        WHERE table_name = v_table AND column_name = 'ID';
+        IF v_count > 0 THEN
+            EXECUTE IMMEDIATE 'ALTER TABLE ' || v_table || ' MODIFY id DROP IDENTITY';
+        END IF;
+
+        EXECUTE IMMEDIATE 'SELECT NVL(MAX(id), 0) + 1 FROM ' || v_table INTO v_start;
+
+        SELECT COUNT(*) INTO v_count FROM user_sequences WHERE sequence_name = v_sequence;
+        IF v_count = 0 THEN
+            EXECUTE IMMEDIATE 'CREATE SEQUENCE ' || v_sequence || ' START WITH ' || v_start || ' INCREMENT BY 50';
+        ELSE
+            SELECT GREATEST(v_start, last_number) INTO v_start
+            FROM user_sequences WHERE sequence_name = v_sequence;
+            EXECUTE IMMEDIATE 'ALTER SEQUENCE ' || v_sequence || ' INCREMENT BY 50';
+            EXECUTE IMMEDIATE 'ALTER SEQUENCE ' || v_sequence || ' RESTART START WITH ' || v_start;
+        END IF;
+
+        FOR t IN (SELECT trigger_name FROM user_triggers
+                  WHERE table_name = v_table
+                    AND trigger_type = 'BEFORE EACH ROW'
+                    AND triggering_event = 'INSERT') LOOP
+            EXECUTE IMMEDIATE 'DROP TRIGGER ' || t.trigger_name;
+        END LOOP;
+        EXECUTE IMMEDIATE
+            'CREATE OR REPLACE TRIGGER ' || v_table || '_BI ' ||
+            'BEFORE INSERT ON ' || v_table || ' FOR EACH ROW ' ||
+            'WHEN (new.id IS NULL) ' ||
+            'BEGIN :new.id := ' || v_sequence || '.NEXTVAL; END;';
+    END;
+BEGIN
+    use_pooled_sequence('utilisateurs');
+    use_pooled_sequence('regions');
+    use_pooled_sequence('puits');
+    use_pooled_sequence('reservoirs');
+    use_pooled_sequence('forages');
+    use_pooled_sequence('phases');
+    use_pooled_sequence('type_indicateurs');
+    use_pooled_sequence('daily_reports');
+    use_pooled_sequence('operations');
+    use_pooled_sequence('indicateurs');
+    use_pooled_sequence('problemes');
+    use_pooled_sequence('documents');
+    use_pooled_sequence('detection_jobs');
+    use_pooled_sequence('cost_rollups');
+    use_pooled_sequence('books');
+END;
+/
+
+COMMIT;
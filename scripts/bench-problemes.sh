@@ -0,0 +1,129 @@
+#!/usr/bin/env bash
+# Throughput of GET /api/problemes under concurrent clients.
+#
+# Against a running application, started with the bench profile (it
+# refuses to start with SQL or trace diagnostics on):
+#
+#   SPRING_PROFILES_ACTIVE=bench mvn spring-boot:run
+#
+#   ./scripts/bench-problemes.sh                  # 64 clients, 30 s
+#   CLIENTS=128 DURATION=60s ./scripts/bench-problemes.sh
+#
+# Or baseline against change: each revision is built in a temporary git
+# worktree, started on its own, measured and stopped, and one row per
+# revision is appended to scripts/bench-problemes.md. The database settings
+# come from the environment (SPRING_DATASOURCE_URL, ..._USERNAME,
+# ..._PASSWORD), the same for both runs.
+#
+#   ./scripts/bench-problemes.sh --compare 0e1085c^ 0e1085c
+#
+# Uses wrk if it is installed, otherwise hey.
+
+set -euo pipefail
+
+BASE_URL="${BASE_URL:-http://localhost:8080/api}"
+CLIENTS="${CLIENTS:-64}"
+DURATION="${DURATION:-30s}"
+WARMUP="${WARMUP:-10s}"
+URL="${BASE_URL}/problemes"
+RESULTS="$(cd "$(dirname "$0")" && pwd)/bench-problemes.md"
+
+# Runs the load and prints the raw report of the tool
+load() {
+    if command -v wrk >/dev/null 2>&1; then
+        echo "Warming up for $WARMUP..." >&2
+        wrk -t4 -c"$CLIENTS" -d"$WARMUP" "$URL" >/dev/null
+        echo "GET $URL, $CLIENTS clients, $DURATION" >&2
+        wrk -t4 -c"$CLIENTS" -d"$DURATION" --latency "$URL"
+    elif command -v hey >/dev/null 2>&1; then
+        echo "Warming up for $WARMUP..." >&2
+        hey -c "$CLIENTS" -z "$WARMUP" "$URL" >/dev/null
+        echo "GET $URL, $CLIENTS clients, $DURATION" >&2
+        hey -c "$CLIENTS" -z "$DURATION" "$URL"
+    else
+        echo "Install wrk or hey to run this benchmark" >&2
+        exit 1
+    fi
+}
+
+# "requests/s p50 p99" from a wrk or hey report
+summary() {
+    awk '
+        /^Requests\/sec:/            { rps = $2 }
+        /^ *Requests\/sec:/          { rps = $2 }
+        /^ +50%  /                   { p50 = $2 }
+        /^ +99%  /                   { p99 = $2 }
+        /^ +50% in /                 { p50 = ($3 * 1000) "ms" }
+        /^ +99% in /                 { p99 = ($3 * 1000) "ms" }
+        END                          { print rps, p50, p99 }
+    '
+}
+
+wait_until_up() {
+    for _ in $(seq 1 120); do
+        if curl -fsS -o /dev/null "$URL"; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "GET $URL did not answer within 120 s" >&2
+    return 1
+}
+
+APP_PID=""
+WORKTREE=""
+
+cleanup() {
+    if [[ -n "$APP_PID" ]]; then
+        kill "$APP_PID" 2>/dev/null || true
+        wait "$APP_PID" 2>/dev/null || true
+        APP_PID=""
+    fi
+    if [[ -n "$WORKTREE" ]]; then
+        git worktree remove --force "$WORKTREE"
+        WORKTREE=""
+    fi
+}
+
+measure_revision() {
+    local rev="$1" jar report rps p50 p99
+    WORKTREE="$(mktemp -d)"
+    git worktree add --detach "$WORKTREE" "$rev" >/dev/null
+
+    echo "Building $rev..." >&2
+    (cd "$WORKTREE" && mvn -B -q -DskipTests package)
+    jar="$(ls "$WORKTREE"/target/*.jar | head -n 1)"
+
+    # Revisions before the bench profile existed ignore it
+    SPRING_PROFILES_ACTIVE=bench java -jar "$jar" >"$WORKTREE/application.log" 2>&1 &
+    APP_PID=$!
+    wait_until_up
+
+    report="$(load)"
+    echo "$report" >&2
+    read -r rps p50 p99 <<<"$(echo "$report" | summary)"
+    echo "| $(date +%F) | $(git rev-parse --short "$rev") | $CLIENTS | $DURATION | $rps | $p50 | $p99 |" >>"$RESULTS"
+    cleanup
+}
+
+if [[ "${1:-}" == "--compare" ]]; then
+    if [[ $# -lt 2 ]]; then
+        echo "Usage: $0 --compare <baseline-rev> [<rev>]" >&2
+        exit 1
+    fi
+    if curl -fsS -o /dev/null "$URL" 2>/dev/null; then
+        echo "Something already answers on $URL, stop it first" >&2
+        exit 1
+    fi
+    trap cleanup EXIT
+    measure_revision "$2"
+    measure_revision "${3:-HEAD}"
+    tail -n 2 "$RESULTS"
+    exit 0
+fi
+
+if ! curl -fsS -o /dev/null "$URL"; then
+    echo "GET $URL failed, is the application running?" >&2
+    exit 1
+fi
+load
@@ -0,0 +1,83 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+
+import com.example.backend.service.StreamingExportService;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Serves CBOR or Smile (see BinaryJsonFormat) to clients that prefer it to
+ * JSON in their Accept header. As for the normalized format, the request is
+ * matched as a JSON one and the JSON response is re-encoded on the way out,
+ * so resources need not declare the binary media types. The normalized
+ * format, when also accepted, wins: it is only written as JSON.
+ */
+@Component
+@Provider
+@PreMatching
+@Priority(Priorities.HEADER_DECORATOR + 1)
+public class BinaryJsonFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String PROPERTY = BinaryJsonFilter.class.getName();
+
+    private final BinaryJsonWriter writer;
+
+    /**
+     * The binary format negotiated for the request, or null for JSON.
+     */
+    public static BinaryJsonFormat formatOf(ContainerRequestContext requestContext) {
+        return (BinaryJsonFormat) requestContext.getProperty(PROPERTY);
+    }
+
+    public BinaryJsonFilter(BinaryJsonWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        // Most preferred first; a JSON type ahead of the binary ones keeps JSON
+        for (MediaType accepted : requestContext.getAcceptableMediaTypes()) {
+            if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)
+                    && !accepted.isWildcardType() && !accepted.isWildcardSubtype()) {
+                return;
+            }
+            BinaryJsonFormat format = BinaryJsonFormat.of(accepted);
+            if (format != null) {
+                requestContext.setProperty(PROPERTY, format);
+                requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) throws IOException {
+        BinaryJsonFormat format = formatOf(requestContext);
+        if (format == null) {
+            return;
+        }
+        responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        MediaType mediaType = responseContext.getMediaType();
+        Object entity = responseContext.getEntity();
+        if (entity == null || mediaType == null || !mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+            return;
+        }
+        if (entity instanceof StreamingExportService.Export export) {
+            entity = export.encodedWith(writer.mapperFor(format));
+        }
+        responseContext.setEntity(entity, responseContext.getEntityAnnotations(), format.mediaType());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.config;
+
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Binary encodings of the JSON responses, written with the same Jackson
+ * configuration as JSON so the content is identical, only smaller and
+ * quicker to parse.
+ */
+public enum BinaryJsonFormat {
+
+    CBOR("application/cbor", CBORFactory::new),
+    SMILE("application/x-jackson-smile", SmileFactory::new);
+
+    private final MediaType mediaType;
+    private final Supplier<JsonFactory> factory;
+
+    BinaryJsonFormat(String mediaType, Supplier<JsonFactory> factory) {
+        this.mediaType = MediaType.valueOf(mediaType);
+        this.factory = factory;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    JsonFactory newFactory() {
+        return factory.get();
+    }
+
+    /**
+     * The format of a media type, or null if it is not a binary JSON one.
+     */
+    public static BinaryJsonFormat of(MediaType mediaType) {
+        if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            return null;
+        }
+        for (BinaryJsonFormat format : values()) {
+            if (format.mediaType.isCompatible(mediaType)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
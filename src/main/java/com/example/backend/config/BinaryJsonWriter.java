@@ -0,0 +1,64 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes response entities as CBOR or Smile, see BinaryJsonFormat. The
+ * mappers are copies of the application ObjectMapper with a binary
+ * factory, so they keep its modules and settings.
+ */
+@Component
+@Provider
+@Produces({ "application/cbor", "application/x-jackson-smile" })
+public class BinaryJsonWriter implements MessageBodyWriter<Object> {
+
+    private final Map<BinaryJsonFormat, ObjectMapper> mappers = new EnumMap<>(BinaryJsonFormat.class);
+
+    public BinaryJsonWriter(ObjectMapper objectMapper) {
+        for (BinaryJsonFormat format : BinaryJsonFormat.values()) {
+            mappers.put(format, objectMapper.copyWith(format.newFactory()));
+        }
+    }
+
+    public ObjectMapper mapperFor(BinaryJsonFormat format) {
+        return mappers.get(format);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        // Bodies that write themselves keep their own providers
+        return BinaryJsonFormat.of(mediaType) != null
+            && !StreamingOutput.class.isAssignableFrom(type)
+            && !InputStream.class.isAssignableFrom(type)
+            && type != byte[].class;
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapperFor(BinaryJsonFormat.of(mediaType));
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(entityStream)) {
+            // The container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper.writeValue(generator, entity);
+        }
+    }
+}
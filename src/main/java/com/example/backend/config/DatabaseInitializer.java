@@ -38,8 +38,8 @@ public class DatabaseInitializer {
             if (tableCount == 0) {
                 logger.info("Creating MYAPP.UTILISATEURS table and sequence");
 
-                // Create sequence
-                jdbc.execute("CREATE SEQUENCE MYAPP.utilisateurs_seq START WITH 1 INCREMENT BY 1");
+                // Create sequence; steps by Utilisateur's allocationSize, see JpaConfig
+                jdbc.execute("CREATE SEQUENCE MYAPP.utilisateurs_seq START WITH 1 INCREMENT BY 50");
 
                 // Create table
                 jdbc.execute("CREATE TABLE MYAPP.UTILISATEURS (" +
@@ -54,11 +54,12 @@ public class DatabaseInitializer {
                         "status NUMBER(1) DEFAULT 0 NOT NULL, " +
                         "CONSTRAINT uk_utilisateurs_email UNIQUE (email))");
 
-                // Create trigger
+                // Create trigger, for inserts outside Hibernate, which sets the id itself
                 jdbc.execute(
                         "CREATE OR REPLACE TRIGGER MYAPP.utilisateurs_bi " +
                                 "BEFORE INSERT ON MYAPP.UTILISATEURS " +
                                 "FOR EACH ROW " +
+                                "WHEN (new.id IS NULL) " +
                                 "BEGIN " +
                                 "  SELECT MYAPP.utilisateurs_seq.NEXTVAL " +
                                 "  INTO :new.id " +
@@ -0,0 +1,94 @@
+package com.example.backend.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports at startup which costly diagnostics are switched on: SQL echo,
+ * SQL and bind-parameter logging, Jersey tracing, Hibernate statistics and
+ * application debug logging.
+ *
+ * With diagnostics.fail-on-active=true (the bench profile) startup fails
+ * instead, so a load test can never run with them on.
+ */
+@Component
+public class DiagnosticsReport {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsReport.class);
+
+    private final Environment env;
+    private final LoggingSystem loggingSystem;
+    private final String tracingType;
+    private final boolean failOnActive;
+
+    public DiagnosticsReport(Environment env,
+                             LoggingSystem loggingSystem,
+                             @Value("${jersey.tracing.type:OFF}") String tracingType,
+                             @Value("${diagnostics.fail-on-active:false}") boolean failOnActive) {
+        this.env = env;
+        this.loggingSystem = loggingSystem;
+        this.tracingType = tracingType;
+        this.failOnActive = failOnActive;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        List<String> active = findActiveDiagnostics();
+        String profiles = Arrays.toString(env.getActiveProfiles().length > 0 ?
+            env.getActiveProfiles() : env.getDefaultProfiles());
+
+        if (active.isEmpty()) {
+            logger.info("Profiles {}: no SQL or trace diagnostics active", profiles);
+            return;
+        }
+        if (failOnActive) {
+            throw new IllegalStateException("Diagnostics must be off with diagnostics.fail-on-active=true, but "
+                + String.join(", ", active) + " are active (profiles " + profiles + ")");
+        }
+        logger.warn("Profiles {}: diagnostics active: {}. Do not measure performance with these on.",
+            profiles, String.join(", ", active));
+    }
+
+    private List<String> findActiveDiagnostics() {
+        List<String> active = new ArrayList<>();
+        if (env.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            active.add("hibernate.show_sql");
+        }
+        if (env.getProperty("spring.jpa.properties.hibernate.format_sql", Boolean.class, false)) {
+            active.add("hibernate.format_sql");
+        }
+        if (env.getProperty("spring.jpa.properties.hibernate.generate_statistics", Boolean.class, false)) {
+            active.add("hibernate.generate_statistics");
+        }
+        if (!"OFF".equalsIgnoreCase(tracingType)) {
+            active.add("Jersey tracing " + tracingType);
+        }
+        addIfEnabled(active, "org.hibernate.SQL", LogLevel.DEBUG);
+        addIfEnabled(active, "org.hibernate.orm.jdbc.bind", LogLevel.TRACE);
+        addIfEnabled(active, "org.hibernate.type.descriptor.sql.BasicBinder", LogLevel.TRACE);
+        addIfEnabled(active, "org.glassfish.jersey", LogLevel.DEBUG);
+        addIfEnabled(active, "com.example.backend", LogLevel.DEBUG);
+        return active;
+    }
+
+    private void addIfEnabled(List<String> active, String loggerName, LogLevel level) {
+        LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(loggerName);
+        LogLevel effective = configuration != null ? configuration.getEffectiveLevel() : null;
+        // LogLevel is declared from TRACE to OFF, so a lower ordinal is more verbose
+        if (effective != null && effective.ordinal() <= level.ordinal()) {
+            active.add(loggerName + "=" + effective);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.context.annotation.Primary;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 @Configuration
@@ -16,6 +17,12 @@ public class JacksonConfig {
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
+        // A relation that is still an unloaded proxy is written as its id
+        // ({"id": 12}) instead of being loaded, or failing once the session is closed
+        mapper.registerModule(new Hibernate6Module()
+            .enable(Hibernate6Module.Feature.SERIALIZE_IDENTIFIER_FOR_LAZY_NOT_LOADED_OBJECTS));
+        // Relations as id references when writing the normalized format, see NormalizedJson
+        mapper.registerModule(NormalizedJson.module());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
         mapper.findAndRegisterModules();
         return mapper;
@@ -1,11 +1,18 @@
 package com.example.backend.config;
 
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.backend.rest.CacheResource;
+import com.example.backend.rest.ConditionalGetFeature;
 import com.example.backend.rest.DailyReportResource;
 import com.example.backend.rest.DashboardResource;
+import com.example.backend.rest.DocumentResource;
 import com.example.backend.rest.ForageResource;
+import com.example.backend.rest.IndicateurResource;
 import com.example.backend.rest.OperationResource;
 import com.example.backend.rest.PhaseResource;
 import com.example.backend.rest.ProblemeResource;
@@ -18,7 +25,8 @@ import com.example.backend.rest.UtilisateurResource;
 @Component
 public class JerseyConfig extends ResourceConfig {
 
-    public JerseyConfig() {
+    public JerseyConfig(@Value("${jersey.tracing.type:OFF}") String tracingType,
+                        @Value("${jersey.tracing.threshold:SUMMARY}") String tracingThreshold) {
         // Register all REST resources
         register(PuitResource.class);
         register(RegionResource.class);
@@ -31,13 +39,33 @@ public class JerseyConfig extends ResourceConfig {
         register(DailyReportResource.class);
         register(ProblemeResource.class);
         register(DashboardResource.class); // Add dashboard resource
+        register(DocumentResource.class);
+        register(IndicateurResource.class);
+        register(CacheResource.class);
         
         // Enable CORS
         register(CorsFilter.class);
         
-        // Enable logging
-        property("jersey.config.server.tracing.type", "ALL");
-        property("jersey.config.server.tracing.threshold", "VERBOSE");
+        // multipart/form-data document uploads
+        register(MultiPartFeature.class);
+        
+        // Correlation id for log lines
+        register(RequestIdFilter.class);
+        
+        // application/vnd.synflow.normalized+json responses
+        register(NormalizedJsonFilter.class);
+        register(NormalizedResponseWriter.class);
+        
+        // application/cbor and application/x-jackson-smile responses
+        register(BinaryJsonFilter.class);
+        register(BinaryJsonWriter.class);
+        
+        // ETag / Last-Modified / 304 on the methods annotated @ConditionalGet
+        register(ConditionalGetFeature.class);
+        
+        // Request tracing, per profile (ALL/VERBOSE in dev, OFF otherwise)
+        property(ServerProperties.TRACING, tracingType);
+        property(ServerProperties.TRACING_THRESHOLD, tracingThreshold);
     }
     
     // CORS Filter
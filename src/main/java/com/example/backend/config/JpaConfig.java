@@ -6,6 +6,7 @@ import javax.sql.DataSource;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -19,7 +20,7 @@ import jakarta.persistence.EntityManagerFactory;
 public class JpaConfig {
 
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, Environment env) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
         em.setPackagesToScan("com.example.backend.model");
@@ -32,6 +33,19 @@ public class JpaConfig {
         properties.setProperty("hibernate.hbm2ddl.auto", "none");
         properties.setProperty("hibernate.validator.apply_to_ddl", "false");
         properties.setProperty("jakarta.persistence.schema-generation.database.action", "none");
+        // Group inserts/updates of the same entity into JDBC batches
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        // Ids come from <table>_seq sequences that step by the allocationSize (50): one
+        // NEXTVAL hands out the block [value, value + 49], so inserts need no round trip
+        properties.setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        // spring.jpa.* is not applied to a hand-built factory, pass the per-profile diagnostics through
+        properties.setProperty("hibernate.show_sql", env.getProperty("spring.jpa.show-sql", "false"));
+        properties.setProperty("hibernate.format_sql",
+            env.getProperty("spring.jpa.properties.hibernate.format_sql", "false"));
+        properties.setProperty("hibernate.generate_statistics",
+            env.getProperty("spring.jpa.properties.hibernate.generate_statistics", "false"));
         em.setJpaProperties(properties);
         
         return em;
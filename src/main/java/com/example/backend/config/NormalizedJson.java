@@ -0,0 +1,203 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * The normalized JSON response format, asked for with
+ * "Accept: application/vnd.synflow.normalized+json".
+ *
+ * The data is written as usual except that every property holding another
+ * entity (a many-to-one or one-to-one relation) is written as a reference
+ * carrying only its id, e.g. "phase": {"id": 12}. Each distinct referenced
+ * entity is written once, in an "included" object keyed by entity name and
+ * id, where its own relations are references too:
+ *
+ * {"success": true, "data": [...], "message": "...",
+ *  "included": {"Phase": {"12": {...}}, "Forage": {"3": {...}}}}
+ *
+ * Relations that are unloaded proxies stay references without an entry in
+ * "included", as in the plain format.
+ */
+public final class NormalizedJson {
+
+    public static final String MEDIA_TYPE = "application/vnd.synflow.normalized+json";
+    public static final MediaType MEDIA_TYPE_TYPE = MediaType.valueOf(MEDIA_TYPE);
+
+    private NormalizedJson() {
+    }
+
+    /**
+     * The Jackson module that writes relations as references while an
+     * Included is attached to the writer; without one it changes nothing.
+     */
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("NormalizedJson");
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                for (int i = 0; i < beanProperties.size(); i++) {
+                    BeanPropertyWriter property = beanProperties.get(i);
+                    if (property.getType().getRawClass().isAnnotationPresent(Entity.class)) {
+                        beanProperties.set(i, new ReferenceWriter(property));
+                    }
+                }
+                return beanProperties;
+            }
+        });
+        return module;
+    }
+
+    /**
+     * A writer of the mapper that collects referenced entities into included.
+     * It does not flush after each value; callers flush when they need to.
+     */
+    public static ObjectWriter writer(ObjectMapper objectMapper, Included included) {
+        return objectMapper.writer()
+            .withAttribute(Included.class, included)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private static final class ReferenceWriter extends BeanPropertyWriter {
+
+        ReferenceWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            Included included = (Included) prov.getAttribute(Included.class);
+            Object value = included != null ? get(bean) : null;
+            Reference reference = value != null ? included.add(value) : null;
+            if (reference == null) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            gen.writeFieldName(_name);
+            gen.writeStartObject();
+            gen.writeObjectField(reference.idName(), reference.id());
+            gen.writeEndObject();
+        }
+    }
+
+    private record Reference(String idName, Object id) {}
+
+    /**
+     * The entities referenced by one response, each kept once. The entities
+     * are written to buffers by serializePending(), which should be called
+     * while they can still be read (inside the transaction for exports),
+     * and the buffers are copied out by writeTo() at the end.
+     */
+    public static final class Included {
+
+        private static final ClassValue<Field> ID_FIELDS = new ClassValue<>() {
+            @Override
+            protected Field computeValue(Class<?> type) {
+                for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (field.isAnnotationPresent(Id.class)) {
+                            field.setAccessible(true);
+                            return field;
+                        }
+                    }
+                }
+                return null;
+            }
+        };
+
+        private final Map<String, Map<String, TokenBuffer>> written = new LinkedHashMap<>();
+        private final Deque<Pending> pending = new ArrayDeque<>();
+
+        private record Pending(String type, String id, Object entity) {}
+
+        /**
+         * The reference to write for an entity, recording the entity if it is
+         * loaded and new. Null if its id cannot be read, in which case it is
+         * written in full.
+         */
+        Reference add(Object value) throws IllegalAccessException {
+            Object entity = value;
+            Class<?> type = value.getClass();
+            if (value instanceof HibernateProxy proxy) {
+                LazyInitializer initializer = proxy.getHibernateLazyInitializer();
+                type = initializer.getPersistentClass();
+                entity = initializer.isUninitialized() ? null : initializer.getImplementation();
+            }
+            Field idField = ID_FIELDS.get(type);
+            if (idField == null) {
+                return null;
+            }
+            Object id = value instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getIdentifier()
+                : idField.get(entity);
+            if (id == null) {
+                return null;
+            }
+            if (entity != null) {
+                String typeName = type.getSimpleName();
+                String key = String.valueOf(id);
+                Map<String, TokenBuffer> ofType = written.computeIfAbsent(typeName, name -> new LinkedHashMap<>());
+                if (!ofType.containsKey(key)) {
+                    // Reserved now so that later references do not queue it again
+                    ofType.put(key, null);
+                    pending.add(new Pending(typeName, key, entity));
+                }
+            }
+            return new Reference(idField.getName(), id);
+        }
+
+        /**
+         * Writes the entities added since the last call, and those they
+         * reference in turn, to buffers.
+         */
+        public void serializePending(ObjectWriter writer) throws IOException {
+            Pending next;
+            while ((next = pending.poll()) != null) {
+                TokenBuffer buffer = new TokenBuffer(null, false);
+                writer.writeValue(buffer, next.entity());
+                written.get(next.type()).put(next.id(), buffer);
+            }
+        }
+
+        /**
+         * Writes the "included" field of the response.
+         */
+        public void writeTo(JsonGenerator generator) throws IOException {
+            generator.writeObjectFieldStart("included");
+            for (Map.Entry<String, Map<String, TokenBuffer>> ofType : written.entrySet()) {
+                generator.writeObjectFieldStart(ofType.getKey());
+                for (Map.Entry<String, TokenBuffer> entry : ofType.getValue().entrySet()) {
+                    generator.writeFieldName(entry.getKey());
+                    entry.getValue().serialize(generator);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+
+import com.example.backend.model.ApiResponse;
+import com.example.backend.service.StreamingExportService;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Serves the normalized format (see NormalizedJson) to clients that accept
+ * it. The request is matched as a plain JSON one, so resources need not
+ * declare the media type; on the way out ApiResponse bodies and streaming
+ * exports are swapped for their normalized writers.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.HEADER_DECORATOR)
+public class NormalizedJsonFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String PROPERTY = NormalizedJsonFilter.class.getName();
+
+    /**
+     * Whether the normalized format was negotiated for the request.
+     */
+    public static boolean isRequested(ContainerRequestContext requestContext) {
+        return requestContext.getProperty(PROPERTY) != null;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        for (MediaType accepted : requestContext.getAcceptableMediaTypes()) {
+            if (!accepted.isWildcardType() && !accepted.isWildcardSubtype()
+                    && accepted.isCompatible(NormalizedJson.MEDIA_TYPE_TYPE)) {
+                requestContext.setProperty(PROPERTY, Boolean.TRUE);
+                requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) throws IOException {
+        if (!isRequested(requestContext)) {
+            return;
+        }
+        responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        MediaType mediaType = responseContext.getMediaType();
+        if (mediaType == null || !mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+            return;
+        }
+        Object entity = responseContext.getEntity();
+        if (entity instanceof ApiResponse<?> apiResponse) {
+            responseContext.setEntity(new NormalizedResponseWriter.Body(apiResponse),
+                responseContext.getEntityAnnotations(), NormalizedJson.MEDIA_TYPE_TYPE);
+        } else if (entity instanceof StreamingExportService.Export export) {
+            responseContext.setEntity(export.normalized(),
+                responseContext.getEntityAnnotations(), NormalizedJson.MEDIA_TYPE_TYPE);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.ApiResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes an ApiResponse in the normalized format, see NormalizedJson.
+ */
+@Component
+@Provider
+@Produces(NormalizedJson.MEDIA_TYPE)
+public class NormalizedResponseWriter implements MessageBodyWriter<NormalizedResponseWriter.Body> {
+
+    /**
+     * An ApiResponse to be written normalized, set by NormalizedJsonFilter.
+     */
+    public record Body(ApiResponse<?> response) {}
+
+    private final ObjectMapper objectMapper;
+
+    public NormalizedResponseWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Body.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(Body body, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        ApiResponse<?> response = body.response();
+        NormalizedJson.Included included = new NormalizedJson.Included();
+        ObjectWriter writer = NormalizedJson.writer(objectMapper, included);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(entityStream)) {
+            // The container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeBooleanField("success", response.isSuccess());
+            generator.writeFieldName("data");
+            writer.writeValue(generator, response.getData());
+            generator.writeStringField("message", response.getMessage());
+            included.serializePending(writer);
+            included.writeTo(generator);
+            generator.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.backend.config;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import org.slf4j.MDC;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Tags every request with a correlation id, taken from the X-Request-Id
+ * header or generated, so its log lines can be grepped together. The id is
+ * put in the MDC under "requestId" for the logging pattern and echoed back
+ * in the response.
+ */
+@Provider
+@PreMatching
+@Priority(Priorities.USER - 1000)
+public class RequestIdFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    // Longer or odd-looking ids from clients are replaced so they cannot pollute the logs
+    private static final int MAX_LENGTH = 64;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        String requestId = requestContext.getHeaderString(HEADER);
+        if (!isValid(requestId)) {
+            requestId = UUID.randomUUID().toString();
+        }
+        requestContext.setProperty(MDC_KEY, requestId);
+        MDC.put(MDC_KEY, requestId);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) throws IOException {
+        Object requestId = requestContext.getProperty(MDC_KEY);
+        if (requestId != null) {
+            responseContext.getHeaders().putSingle(HEADER, requestId);
+        }
+        // Request threads are pooled, do not leak the id into the next request
+        MDC.remove(MDC_KEY);
+    }
+
+    private static boolean isValid(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one item of a batch create, by its position in the request.
+ * A batch is all or nothing: if any item has errors none is saved, and id
+ * is only filled in once the whole batch has been saved.
+ */
+public class BatchItemResult {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final int index;
+    private Long id;
+    private final List<String> errors = new ArrayList<>();
+
+    public BatchItemResult(int index) {
+        this.index = index;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the batch is empty or larger than MAX_BATCH_SIZE
+     */
+    public static void checkSize(List<?> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("The batch is empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_SIZE + " items");
+        }
+    }
+
+    public static boolean anyFailed(List<BatchItemResult> results) {
+        return results.stream().anyMatch(result -> !result.isValid());
+    }
+
+    public void addError(String error) {
+        errors.add(error);
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public int getIndex() { return index; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public List<String> getErrors() { return errors; }
+}
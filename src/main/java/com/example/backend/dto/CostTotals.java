@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+/**
+ * Planned/actual cost sums and operation count for one rollup key, as
+ * recomputed from the operations table.
+ */
+public record CostTotals(String scopeKey, Double coutPrevu, Double coutReel, Long operationCount) {
+
+    public CostTotals {
+        coutPrevu = coutPrevu != null ? coutPrevu : 0.0;
+        coutReel = coutReel != null ? coutReel : 0.0;
+        operationCount = operationCount != null ? operationCount : 0L;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Slice;
+
+/**
+ * One page of a keyset-paginated listing. nextCursor is passed back as
+ * "after" to get the following page and is null on the last one. total is
+ * only filled in when the client asked for it, as it costs a COUNT query.
+ */
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private final List<T> items;
+    private final int limit;
+    private final boolean hasMore;
+    private final String nextCursor;
+    private final Long total;
+
+    public CursorPage(List<T> items, int limit, boolean hasMore, String nextCursor, Long total) {
+        this.items = items;
+        this.limit = limit;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    /**
+     * Builds the page from a Slice, taking the cursor of its last row when
+     * there are more rows after it.
+     */
+    public static <T> CursorPage<T> of(Slice<T> slice, Function<T, KeysetCursor> cursorOf, Long total) {
+        List<T> items = slice.getContent();
+        String nextCursor = slice.hasNext() && !items.isEmpty()
+            ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(items, slice.getSize(), slice.hasNext(), nextCursor, total);
+    }
+
+    /**
+     * @throws IllegalArgumentException if limit is outside 1..MAX_LIMIT
+     */
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    public List<T> getItems() { return items; }
+    public int getLimit() { return limit; }
+    public boolean isHasMore() { return hasMore; }
+    public String getNextCursor() { return nextCursor; }
+    public Long getTotal() { return total; }
+}
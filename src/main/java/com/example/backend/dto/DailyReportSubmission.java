@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+import com.example.backend.model.Indicateur;
+import com.example.backend.model.Operation;
+
+/**
+ * Body of POST /daily-reports/{id}/submission: the operations and
+ * indicators of a report, saved together. Either list may be empty.
+ * Indicators refer to operations that already exist.
+ */
+public record DailyReportSubmission(List<Operation> operations, List<Indicateur> indicateurs) {
+
+    public List<Operation> operations() {
+        return operations != null ? operations : List.of();
+    }
+
+    public List<Indicateur> indicateurs() {
+        return indicateurs != null ? indicateurs : List.of();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+/**
+ * Per-item results of a daily report submission, in request order.
+ */
+public record DailyReportSubmissionResult(List<BatchItemResult> operations, List<BatchItemResult> indicateurs) {
+
+    public boolean isValid() {
+        return !BatchItemResult.anyFailed(operations) && !BatchItemResult.anyFailed(indicateurs);
+    }
+}
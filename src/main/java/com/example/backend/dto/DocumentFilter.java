@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+/**
+ * Criteria of GET /documents and /documents/search. Every non-null
+ * criterion must match.
+ */
+public record DocumentFilter(
+        Long puitId,
+        Long phaseId,
+        Long operationId,
+        Long utilisateurId,
+        Boolean estPublic,
+        String type) {
+
+    public boolean isEmpty() {
+        return puitId == null && phaseId == null && operationId == null && utilisateurId == null
+            && estPublic == null && type == null;
+    }
+}
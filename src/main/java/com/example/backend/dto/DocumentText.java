@@ -0,0 +1,7 @@
+package com.example.backend.dto;
+
+/**
+ * The searchable text of a document, read without loading its relations.
+ */
+public record DocumentText(Long id, String nom, String description) {
+}
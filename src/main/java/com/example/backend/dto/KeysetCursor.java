@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in a keyset-paginated listing: its id,
+ * plus its date for listings ordered by date first.
+ *
+ * Clients get it as an opaque url-safe string and send it back as "after".
+ */
+public record KeysetCursor(LocalDate date, long id) {
+
+    public static KeysetCursor of(long id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public static KeysetCursor of(LocalDate date, long id) {
+        return new KeysetCursor(date, id);
+    }
+
+    public String encode() {
+        String raw = date != null ? date + "|" + id : Long.toString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by encode()
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                return of(Long.parseLong(raw));
+            }
+            return of(LocalDate.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor has no date
+     */
+    public LocalDate requireDate() {
+        if (date == null) {
+            throw new IllegalArgumentException("Invalid cursor for a date-ordered listing");
+        }
+        return date;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+
+import com.example.backend.model.Phase;
+
+/**
+ * One row of the dashboard cost aggregation: a phase with the planned and
+ * actual cost of all its operations already summed by the database.
+ */
+public record PhaseCostSummary(
+        Long phaseId,
+        Integer numeroPhase,
+        Phase.Diametre diametre,
+        String wellName,
+        LocalDate dateFinPrevue,
+        LocalDate dateFinReelle,
+        Double plannedCost,
+        Double actualCost) {
+
+    public PhaseCostSummary {
+        // Phases without operations come back with NULL sums
+        plannedCost = plannedCost != null ? plannedCost : 0.0;
+        actualCost = actualCost != null ? actualCost : 0.0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+
+import com.example.backend.model.Probleme;
+
+/**
+ * Criteria of GET /problemes. Every non-null criterion must match; date
+ * ranges are inclusive and either bound may be left open.
+ */
+public record ProblemeFilter(
+        Long operationId,
+        Probleme.Type type,
+        Long signaleParId,
+        Long resoluParId,
+        Probleme.Gravite gravite,
+        Probleme.Statut statut,
+        LocalDate detectedFrom,
+        LocalDate detectedTo,
+        LocalDate resolvedFrom,
+        LocalDate resolvedTo) {
+
+    public boolean isEmpty() {
+        return operationId == null && type == null && signaleParId == null && resoluParId == null
+            && gravite == null && statut == null && detectedFrom == null && detectedTo == null
+            && resolvedFrom == null && resolvedTo == null;
+    }
+}
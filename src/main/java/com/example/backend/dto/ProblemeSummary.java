@@ -0,0 +1,77 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.example.backend.model.Operation;
+import com.example.backend.model.Probleme;
+import com.example.backend.model.Utilisateur;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One row of GET /problemes: the problem's own columns and the ids of its
+ * operation and users, selected without joining their tables. The related
+ * objects are only filled in when named in the expand query parameter.
+ */
+public record ProblemeSummary(
+        Long id,
+        Probleme.Type type,
+        Probleme.Gravite gravite,
+        Probleme.Statut statut,
+        String description,
+        LocalDate dateDetection,
+        LocalDate dateResolution,
+        Integer impactDelai,
+        Double impactCout,
+        Long operationId,
+        Long signaleParId,
+        Long resoluParId,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Operation operation,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Utilisateur signalePar,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Utilisateur resoluPar) {
+
+    public static final String EXPAND_OPERATION = "operation";
+    public static final String EXPAND_SIGNALE_PAR = "signalePar";
+    public static final String EXPAND_RESOLU_PAR = "resoluPar";
+
+    private static final List<String> EXPANDABLE = List.of(EXPAND_OPERATION, EXPAND_SIGNALE_PAR, EXPAND_RESOLU_PAR);
+
+    // Selected by ProblemeRepository.findSummaries
+    public ProblemeSummary(Long id, Probleme.Type type, Probleme.Gravite gravite, Probleme.Statut statut,
+                           String description, LocalDate dateDetection, LocalDate dateResolution,
+                           Integer impactDelai, Double impactCout,
+                           Long operationId, Long signaleParId, Long resoluParId) {
+        this(id, type, gravite, statut, description, dateDetection, dateResolution, impactDelai, impactCout,
+            operationId, signaleParId, resoluParId, null, null, null);
+    }
+
+    public ProblemeSummary expanded(Operation operation, Utilisateur signalePar, Utilisateur resoluPar) {
+        return new ProblemeSummary(id, type, gravite, statut, description, dateDetection, dateResolution,
+            impactDelai, impactCout, operationId, signaleParId, resoluParId, operation, signalePar, resoluPar);
+    }
+
+    /**
+     * Parses a comma-separated expand parameter; null or empty expands nothing.
+     *
+     * @throws IllegalArgumentException on a name that cannot be expanded
+     */
+    public static Set<String> parseExpand(String expand) {
+        Set<String> names = new LinkedHashSet<>();
+        if (expand == null || expand.isBlank()) {
+            return names;
+        }
+        for (String name : expand.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!EXPANDABLE.contains(trimmed)) {
+                throw new IllegalArgumentException("Cannot expand '" + trimmed + "', expected one of " + EXPANDABLE);
+            }
+            names.add(trimmed);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+/**
+ * Cost totals of one type d'opération, read from its rollup row.
+ */
+public record TypeOperationCost(
+        String code,
+        String nom,
+        Double plannedCost,
+        Double actualCost,
+        Long operationCount) {
+
+    public TypeOperationCost {
+        plannedCost = plannedCost != null ? plannedCost : 0.0;
+        actualCost = actualCost != null ? actualCost : 0.0;
+        operationCount = operationCount != null ? operationCount : 0L;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Running cost totals of the operations belonging to one phase, forage, puit
+ * or type d'opération. Maintained by deltas from OperationService and
+ * recomputed from scratch by CostRollupService.rebuild().
+ */
+@Entity
+@Table(name = "cost_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_cost_rollups_scope_key", columnNames = {"scope", "scope_key"}))
+public class CostRollup {
+
+    public enum Scope {
+        PHASE,
+        FORAGE,
+        PUIT,
+        TYPE_OPERATION
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cost_rollups_seq")
+    @SequenceGenerator(name = "cost_rollups_seq", sequenceName = "cost_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Scope scope;
+
+    // Phase/forage/puit id, or type operation code
+    @Column(name = "scope_key", length = 50, nullable = false)
+    private String scopeKey;
+
+    @Column(name = "cout_prevu", nullable = false)
+    private Double coutPrevu;
+
+    @Column(name = "cout_reel", nullable = false)
+    private Double coutReel;
+
+    @Column(name = "operation_count", nullable = false)
+    private Long operationCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public CostRollup() {}
+
+    public CostRollup(Scope scope, String scopeKey) {
+        this.scope = scope;
+        this.scopeKey = scopeKey;
+        this.coutPrevu = 0.0;
+        this.coutReel = 0.0;
+        this.operationCount = 0L;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public void setScope(Scope scope) {
+        this.scope = scope;
+    }
+
+    public String getScopeKey() {
+        return scopeKey;
+    }
+
+    public void setScopeKey(String scopeKey) {
+        this.scopeKey = scopeKey;
+    }
+
+    public Double getCoutPrevu() {
+        return coutPrevu;
+    }
+
+    public void setCoutPrevu(Double coutPrevu) {
+        this.coutPrevu = coutPrevu;
+    }
+
+    public Double getCoutReel() {
+        return coutReel;
+    }
+
+    public void setCoutReel(Double coutReel) {
+        this.coutReel = coutReel;
+    }
+
+    public Long getOperationCount() {
+        return operationCount;
+    }
+
+    public void setOperationCount(Long operationCount) {
+        this.operationCount = operationCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.backend.model;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.Column;
@@ -13,30 +15,62 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+/**
+ * Both relations and both collections are lazy; each use case loads what it
+ * needs through one of the entity graphs below, selected by the repository
+ * method it calls. Collections not in the graph are loaded 50 reports at a
+ * time when first touched.
+ */
 @Entity
 @Table(name = "daily_reports")
+@NamedEntityGraph(name = DailyReport.LIST_GRAPH, attributeNodes = {
+    @NamedAttributeNode("concernedWell"),
+    @NamedAttributeNode("currentPhase")
+})
+@NamedEntityGraph(name = DailyReport.DETAIL_GRAPH, attributeNodes = {
+    @NamedAttributeNode("concernedWell"),
+    @NamedAttributeNode("currentPhase"),
+    // Only one bag may be fetch joined; indicators follow in one batch
+    @NamedAttributeNode("operationsPerformed")
+})
+@NamedEntityGraph(name = DailyReport.DETECTION_GRAPH, attributeNodes = {
+    @NamedAttributeNode("currentPhase")
+})
 public class DailyReport {
     
+    // List views and exports: the report with its well and phase
+    public static final String LIST_GRAPH = "DailyReport.list";
+    // Single report: also its operations
+    public static final String DETAIL_GRAPH = "DailyReport.detail";
+    // Problem detection: only the current phase
+    public static final String DETECTION_GRAPH = "DailyReport.detection";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_reports_seq")
-    @SequenceGenerator(name = "daily_reports_seq", sequenceName = "daily_reports_seq", allocationSize = 1)
+    @SequenceGenerator(name = "daily_reports_seq", sequenceName = "daily_reports_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @Column(name = "report_name", nullable = false)
     private String reportName;
     
     @Column(name = "report_date", nullable = false)
     private LocalDate reportDate;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "puit_id", nullable = false)
     private Puit concernedWell;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "current_phase_id")
     private Phase currentPhase;
     
@@ -49,10 +83,12 @@ public class DailyReport {
     private Double dailyCost;
     
     @OneToMany(mappedBy = "dailyReport", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference("dailyReport-operations")
     private List<Operation> operationsPerformed;
     
     @OneToMany(mappedBy = "dailyReport", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     @JsonManagedReference("dailyReport-indicators")
     private List<Indicateur> indicators;
     
@@ -65,6 +101,14 @@ public class DailyReport {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getReportName() {
         return reportName;
     }
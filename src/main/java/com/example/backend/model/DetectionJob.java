@@ -0,0 +1,224 @@
+package com.example.backend.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+/**
+ * Durable record of the problem detection run for one daily report. There is
+ * at most one job per report: submitting the report again merges the operation
+ * ids into the pending job, or re-queues a finished one.
+ */
+@Entity
+@Table(name = "detection_jobs",
+       uniqueConstraints = @UniqueConstraint(name = "uk_detection_jobs_report", columnNames = "daily_report_id"))
+public class DetectionJob {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detection_jobs_seq")
+    @SequenceGenerator(name = "detection_jobs_seq", sequenceName = "detection_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "daily_report_id", nullable = false)
+    private Long dailyReportId;
+
+    // Comma separated ids of the operations to check
+    @Lob
+    @Column(name = "operation_ids")
+    @JsonIgnore
+    private String operationIdList;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20, nullable = false)
+    private Status status;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    // Bumped by every submission, so a run can tell it missed a newer one
+    @Column(nullable = false)
+    private Long revision;
+
+    @Column(name = "problem_count")
+    private Integer problemCount;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public DetectionJob() {}
+
+    public DetectionJob(Long dailyReportId) {
+        this.dailyReportId = dailyReportId;
+        this.status = Status.PENDING;
+        this.attempts = 0;
+        this.revision = 0L;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public List<Long> getOperationIds() {
+        List<Long> ids = new ArrayList<>();
+        if (operationIdList != null && !operationIdList.isEmpty()) {
+            for (String id : operationIdList.split(",")) {
+                ids.add(Long.valueOf(id));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Adds operation ids to the ones already queued, keeping each id once.
+     */
+    public void addOperationIds(Collection<Long> operationIds) {
+        Set<Long> ids = new LinkedHashSet<>(getOperationIds());
+        if (operationIds != null) {
+            ids.addAll(operationIds);
+        }
+        setOperationIds(ids);
+    }
+
+    public void setOperationIds(Collection<Long> operationIds) {
+        this.operationIdList = operationIds == null ? null
+            : operationIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDailyReportId() {
+        return dailyReportId;
+    }
+
+    public void setDailyReportId(Long dailyReportId) {
+        this.dailyReportId = dailyReportId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+
+    public Integer getProblemCount() {
+        return problemCount;
+    }
+
+    public void setProblemCount(Integer problemCount) {
+        this.problemCount = problemCount;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
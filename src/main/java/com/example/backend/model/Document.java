@@ -2,6 +2,8 @@ package com.example.backend.model;
 
 import java.time.LocalDateTime;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -9,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 @Entity
@@ -16,7 +19,8 @@ import jakarta.persistence.Table;
 public class Document {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "documents_seq")
+    @SequenceGenerator(name = "documents_seq", sequenceName = "documents_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne
@@ -48,6 +52,15 @@ public class Document {
     @Column(name = "est_public")
     private Boolean estPublic;
     
+    // Set by uploads to /documents/{id}/content, never from request JSON
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "content_sha256", length = 64)
+    private String contentSha256;
+    
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "content_type")
+    private String contentType;
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -144,4 +157,20 @@ public class Document {
     public void setEstPublic(Boolean estPublic) {
         this.estPublic = estPublic;
     }
+    
+    public String getContentSha256() {
+        return contentSha256;
+    }
+    
+    public void setContentSha256(String contentSha256) {
+        this.contentSha256 = contentSha256;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
 }
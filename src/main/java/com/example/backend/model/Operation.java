@@ -13,7 +13,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "operations")
@@ -47,9 +49,13 @@ public class Operation {
     }
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operations_seq")
+    @SequenceGenerator(name = "operations_seq", sequenceName = "operations_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @ManyToOne
     @JoinColumn(name = "phase_id")
     private Phase phase;
@@ -92,6 +98,14 @@ public class Operation {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Phase getPhase() {
         return phase;
     }
@@ -11,7 +11,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "phases")
@@ -35,9 +37,13 @@ public class Phase {
     }
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "phases_seq")
+    @SequenceGenerator(name = "phases_seq", sequenceName = "phases_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @ManyToOne
     @JoinColumn(name = "forage_id")
     private Forage forage;
@@ -78,6 +84,14 @@ public class Phase {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Forage getForage() {
         return forage;
     }
@@ -11,7 +11,9 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
 @Table(name = "problemes")
@@ -95,9 +97,13 @@ public class Probleme {
     }
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "problemes_seq")
+    @SequenceGenerator(name = "problemes_seq", sequenceName = "problemes_seq", allocationSize = 50)
     private Long id;
     
+    @Version
+    private Long version;
+    
     @ManyToOne
     @JoinColumn(name = "operation_id")
     private Operation operation;
@@ -143,6 +149,11 @@ public class Probleme {
     @Column(name = "impact_cout")
     private Double impactCout; // in currency
     
+    // Fingerprint of auto-detected problems (rule id + phase/operation/indicateur id),
+    // unique among problems that are not FERME; null for problems entered by hand
+    @Column(name = "detection_key", length = 200)
+    private String detectionKey;
+    
     // Constructors
     public Probleme() {}
     
@@ -155,6 +166,14 @@ public class Probleme {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Operation getOperation() {
         return operation;
     }
@@ -259,6 +278,14 @@ public class Probleme {
         this.impactCout = impactCout;
     }
     
+    public String getDetectionKey() {
+        return detectionKey;
+    }
+    
+    public void setDetectionKey(String detectionKey) {
+        this.detectionKey = detectionKey;
+    }
+    
     @Override
     public String toString() {
         return "Probleme{" +
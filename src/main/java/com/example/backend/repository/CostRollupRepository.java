@@ -0,0 +1,23 @@
+package com.example.backend.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.dto.TypeOperationCost;
+import com.example.backend.model.CostRollup;
+
+@Repository
+public interface CostRollupRepository extends JpaRepository<CostRollup, Long> {
+    List<CostRollup> findByScope(CostRollup.Scope scope);
+    Optional<CostRollup> findByScopeAndScopeKey(CostRollup.Scope scope, String scopeKey);
+
+    @Query("SELECT new com.example.backend.dto.TypeOperationCost(" +
+           "t.code, t.nom, r.coutPrevu, r.coutReel, r.operationCount) " +
+           "FROM CostRollup r JOIN TypeOperation t ON t.code = r.scopeKey " +
+           "WHERE r.scope = com.example.backend.model.CostRollup.Scope.TYPE_OPERATION")
+    List<TypeOperationCost> findTypeOperationCosts();
+}
@@ -3,35 +3,71 @@ package com.example.backend.repository;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.backend.model.DailyReport;
 import com.example.backend.model.Puit;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface DailyReportRepository extends JpaRepository<DailyReport, Long> {
+    @Override
+    @EntityGraph(DailyReport.LIST_GRAPH)
+    List<DailyReport> findAll();
+    
+    @EntityGraph(DailyReport.LIST_GRAPH)
     List<DailyReport> findByConcernedWell(Puit puit);
+    @EntityGraph(DailyReport.LIST_GRAPH)
     List<DailyReport> findByReportDate(LocalDate reportDate);
+    @EntityGraph(DailyReport.LIST_GRAPH)
     List<DailyReport> findByConcernedWellAndReportDate(Puit puit, LocalDate reportDate);
     
-    @Query("SELECT DISTINCT dr FROM DailyReport dr " +
-           "LEFT JOIN FETCH dr.operationsPerformed " +
-           "LEFT JOIN FETCH dr.indicators " +
-           "WHERE dr.id = :id")
-    Optional<DailyReport> findByIdWithCollections(@Param("id") Long id);
-    
-    @Query("SELECT DISTINCT dr FROM DailyReport dr " +
-           "LEFT JOIN FETCH dr.operationsPerformed " +
-           "LEFT JOIN FETCH dr.indicators")
-    List<DailyReport> findAllWithCollections();
-    
-    @Query("SELECT DISTINCT dr FROM DailyReport dr " +
-           "LEFT JOIN FETCH dr.operationsPerformed " +
-           "LEFT JOIN FETCH dr.indicators " +
-           "WHERE dr.concernedWell = :puit")
-    List<DailyReport> findByConcernedWellWithCollections(@Param("puit") Puit puit);
+    @EntityGraph(DailyReport.DETAIL_GRAPH)
+    Optional<DailyReport> findDetailById(Long id);
+    
+    @EntityGraph(DailyReport.DETECTION_GRAPH)
+    Optional<DailyReport> findForDetectionById(Long id);
+    
+    // Filter of the paginated listing; a null puitId or day matches every report.
+    // Comparing the foreign key id does not join the puits table.
+    String MATCHING = "(:puitId IS NULL OR dr.concernedWell.id = :puitId) " +
+                      "AND (:day IS NULL OR dr.reportDate = :day) ";
+    
+    // Keyset pagination, most recent reports first; (reportDate, id) is unique so the order is stable
+    @EntityGraph(DailyReport.LIST_GRAPH)
+    @Query("SELECT dr FROM DailyReport dr " +
+           "WHERE " + MATCHING +
+           "ORDER BY dr.reportDate DESC, dr.id DESC")
+    Slice<DailyReport> findPageByDate(@Param("puitId") Long puitId, @Param("day") LocalDate day, Pageable pageable);
+    
+    @EntityGraph(DailyReport.LIST_GRAPH)
+    @Query("SELECT dr FROM DailyReport dr " +
+           "WHERE " + MATCHING + "AND (dr.reportDate < :reportDate OR (dr.reportDate = :reportDate AND dr.id < :id)) " +
+           "ORDER BY dr.reportDate DESC, dr.id DESC")
+    Slice<DailyReport> findPageByDateBefore(@Param("puitId") Long puitId, @Param("day") LocalDate day,
+                                            @Param("reportDate") LocalDate reportDate, @Param("id") Long id,
+                                            Pageable pageable);
+    
+    @Query("SELECT COUNT(dr) FROM DailyReport dr WHERE " + MATCHING)
+    long countMatching(@Param("puitId") Long puitId, @Param("day") LocalDate day);
+    
+    // Whole table for streaming exports: rows are fetched from the cursor in batches, read-only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @EntityGraph(DailyReport.LIST_GRAPH)
+    @Query("SELECT dr FROM DailyReport dr ORDER BY dr.id")
+    Stream<DailyReport> streamAll();
 }
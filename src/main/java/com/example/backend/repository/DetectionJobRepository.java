@@ -0,0 +1,56 @@
+package com.example.backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.backend.model.DetectionJob;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface DetectionJobRepository extends JpaRepository<DetectionJob, Long> {
+    Optional<DetectionJob> findByDailyReportId(Long dailyReportId);
+
+    // Row-locked reads, so a submission and the end of a run never overwrite each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM DetectionJob j WHERE j.dailyReportId = :dailyReportId")
+    Optional<DetectionJob> lockByDailyReportId(@Param("dailyReportId") Long dailyReportId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM DetectionJob j WHERE j.id = :id")
+    Optional<DetectionJob> lockById(@Param("id") Long id);
+
+    // Jobs whose next attempt is due
+    @Query("SELECT j.id FROM DetectionJob j WHERE j.status = com.example.backend.model.DetectionJob.Status.PENDING " +
+           "AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now) ORDER BY j.id")
+    List<Long> findDueJobIds(@Param("now") LocalDateTime now);
+
+    // Takes a pending job for this run; 0 if another worker already has it
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DetectionJob j SET j.status = com.example.backend.model.DetectionJob.Status.RUNNING, " +
+           "j.startedAt = :now, j.updatedAt = :now, j.attempts = j.attempts + 1 " +
+           "WHERE j.id = :id AND j.status = com.example.backend.model.DetectionJob.Status.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Heartbeat of the jobs a live worker is running, so they are not taken for stale
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DetectionJob j SET j.updatedAt = :now " +
+           "WHERE j.id IN :ids AND j.status = com.example.backend.model.DetectionJob.Status.RUNNING")
+    int touchRunning(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Jobs left RUNNING by a worker that stopped before finishing them
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE DetectionJob j SET j.status = com.example.backend.model.DetectionJob.Status.PENDING, " +
+           "j.updatedAt = :now WHERE j.status = com.example.backend.model.DetectionJob.Status.RUNNING " +
+           "AND j.updatedAt < :staleBefore")
+    int requeueStale(@Param("staleBefore") LocalDateTime staleBefore, @Param("now") LocalDateTime now);
+}
@@ -2,21 +2,25 @@ package com.example.backend.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.dto.DocumentText;
 import com.example.backend.model.Document;
-import com.example.backend.model.Operation;
-import com.example.backend.model.Phase;
-import com.example.backend.model.Puit;
-import com.example.backend.model.Utilisateur;
 
 @Repository
-public interface DocumentRepository extends JpaRepository<Document, Long> {
-    List<Document> findByPuit(Puit puit);
-    List<Document> findByPhase(Phase phase);
-    List<Document> findByOperation(Operation operation);
-    List<Document> findByUploadePar(Utilisateur utilisateur);
-    List<Document> findByEstPublic(Boolean estPublic);
-    List<Document> findByType(String type);
+public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSpecificationExecutor<Document> {
+    // Text of every document for the search index, without loading relations
+    @Query("SELECT new com.example.backend.dto.DocumentText(d.id, d.nom, d.description) FROM Document d")
+    List<DocumentText> findAllTexts();
+
+    // Whether any document still points at a stored blob
+    boolean existsByContentSha256(String contentSha256);
+
+    // Keyset pagination: rows after the given id, in the order of the Pageable's sort
+    Slice<Document> findByIdGreaterThan(Long id, Pageable pageable);
 }
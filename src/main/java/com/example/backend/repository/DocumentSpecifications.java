@@ -0,0 +1,43 @@
+package com.example.backend.repository;
+
+import java.util.Collection;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.backend.dto.DocumentFilter;
+import com.example.backend.model.Document;
+
+/**
+ * Predicates on Document combined into a single query. Parents are matched
+ * on their foreign key id, so they are neither loaded beforehand nor joined.
+ */
+public final class DocumentSpecifications {
+
+    private DocumentSpecifications() {
+    }
+
+    public static Specification<Document> matching(DocumentFilter filter) {
+        return Specification.where(hasParent("puit", filter.puitId()))
+            .and(hasParent("phase", filter.phaseId()))
+            .and(hasParent("operation", filter.operationId()))
+            .and(hasParent("uploadePar", filter.utilisateurId()))
+            .and(isPublic(filter.estPublic()))
+            .and(hasType(filter.type()));
+    }
+
+    public static Specification<Document> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    private static Specification<Document> hasParent(String attribute, Long id) {
+        return id == null ? null : (root, query, cb) -> cb.equal(root.get(attribute).get("id"), id);
+    }
+
+    private static Specification<Document> isPublic(Boolean estPublic) {
+        return estPublic == null ? null : (root, query, cb) -> cb.equal(root.get("estPublic"), estPublic);
+    }
+
+    private static Specification<Document> hasType(String type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+}
@@ -1,17 +1,38 @@
 package com.example.backend.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.model.DailyReport;
 import com.example.backend.model.Indicateur;
 import com.example.backend.model.Operation;
 import com.example.backend.model.TypeIndicateur;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface IndicateurRepository extends JpaRepository<Indicateur, Long> {
     List<Indicateur> findByOperation(Operation operation);
     List<Indicateur> findByTypeIndicateur(TypeIndicateur typeIndicateur);
     List<Indicateur> findByOperationAndTypeIndicateur(Operation operation, TypeIndicateur typeIndicateur);
+    List<Indicateur> findByDailyReport(DailyReport dailyReport);
+
+    // Keyset pagination: rows after the given id, in the order of the Pageable's sort
+    Slice<Indicateur> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Whole table for streaming exports: rows are fetched from the cursor in batches, read-only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Indicateur i ORDER BY i.id")
+    Stream<Indicateur> streamAll();
 }
@@ -1,16 +1,25 @@
 package com.example.backend.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.dto.CostTotals;
 import com.example.backend.model.DailyReport;
 import com.example.backend.model.Operation;
 import com.example.backend.model.Phase;
 import com.example.backend.model.TypeOperation;
 import com.example.backend.model.Utilisateur;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface OperationRepository extends JpaRepository<Operation, Long> {
     List<Operation> findByPhase(Phase phase);
@@ -18,4 +27,36 @@ public interface OperationRepository extends JpaRepository<Operation, Long> {
     List<Operation> findByCreatedBy(Utilisateur createdBy);
     List<Operation> findByStatut(Operation.Statut statut);
     List<Operation> findByDailyReport(DailyReport dailyReport);
+
+    // Keyset pagination: rows after the given id, in the order of the Pageable's sort
+    Slice<Operation> findByIdGreaterThan(Long id, Pageable pageable);
+
+    // Whole table for streaming exports: rows are fetched from the cursor in batches, read-only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Operation o ORDER BY o.id")
+    Stream<Operation> streamAll();
+
+    // Cost totals recomputed from scratch, used to rebuild the cost rollups
+    @Query("SELECT new com.example.backend.dto.CostTotals(" +
+           "CAST(p.id AS String), SUM(o.coutPrevu), SUM(o.coutReel), COUNT(o)) " +
+           "FROM Operation o JOIN o.phase p GROUP BY p.id")
+    List<CostTotals> sumCostsByPhase();
+
+    @Query("SELECT new com.example.backend.dto.CostTotals(" +
+           "CAST(f.id AS String), SUM(o.coutPrevu), SUM(o.coutReel), COUNT(o)) " +
+           "FROM Operation o JOIN o.phase p JOIN p.forage f GROUP BY f.id")
+    List<CostTotals> sumCostsByForage();
+
+    @Query("SELECT new com.example.backend.dto.CostTotals(" +
+           "CAST(pu.id AS String), SUM(o.coutPrevu), SUM(o.coutReel), COUNT(o)) " +
+           "FROM Operation o JOIN o.phase p JOIN p.forage f JOIN f.puit pu GROUP BY pu.id")
+    List<CostTotals> sumCostsByPuit();
+
+    @Query("SELECT new com.example.backend.dto.CostTotals(" +
+           "t.code, SUM(o.coutPrevu), SUM(o.coutReel), COUNT(o)) " +
+           "FROM Operation o JOIN o.typeOperation t GROUP BY t.code")
+    List<CostTotals> sumCostsByTypeOperation();
 }
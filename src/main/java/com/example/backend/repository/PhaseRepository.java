@@ -3,8 +3,10 @@ package com.example.backend.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.backend.dto.PhaseCostSummary;
 import com.example.backend.model.Forage;
 import com.example.backend.model.Phase;
 
@@ -13,4 +15,16 @@ public interface PhaseRepository extends JpaRepository<Phase, Long> {
     List<Phase> findByForage(Forage forage);
     List<Phase> findByForageOrderByNumeroPhase(Forage forage);
     List<Phase> findByForageAndNumeroPhase(Forage forage, Integer numeroPhase);
+
+    // Planned/actual cost per phase, read from the PHASE cost rollups
+    @Query("SELECT new com.example.backend.dto.PhaseCostSummary(" +
+           "p.id, p.numeroPhase, p.diametre, pu.nom, p.dateFinPrevue, p.dateFinReelle, " +
+           "r.coutPrevu, r.coutReel) " +
+           "FROM Phase p " +
+           "LEFT JOIN p.forage f " +
+           "LEFT JOIN f.puit pu " +
+           "LEFT JOIN CostRollup r ON r.scope = com.example.backend.model.CostRollup.Scope.PHASE " +
+           "AND r.scopeKey = CAST(p.id AS String) " +
+           "ORDER BY p.id")
+    List<PhaseCostSummary> findPhaseCostSummaries();
 }
@@ -1,24 +1,31 @@
 package com.example.backend.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import com.example.backend.model.Operation;
 import com.example.backend.model.Probleme;
-import com.example.backend.model.Utilisateur;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface ProblemeRepository extends JpaRepository<Probleme, Long> {
-    List<Probleme> findByOperation(Operation operation);
-    List<Probleme> findByType(Probleme.Type type);
-    List<Probleme> findBySignalePar(Utilisateur signalePar);
-    List<Probleme> findByResoluPar(Utilisateur resoluPar);
-    List<Probleme> findByGravite(Probleme.Gravite gravite);
-    List<Probleme> findByStatut(Probleme.Statut statut);
-    
-    // Find existing problems to avoid duplicates
-    List<Probleme> findByOperationAndTypeAndStatutNot(Operation operation, Probleme.Type type, Probleme.Statut statut);
-    List<Probleme> findByDescriptionContainingAndStatutNot(String description, Probleme.Statut statut);
+public interface ProblemeRepository extends JpaRepository<Probleme, Long>, JpaSpecificationExecutor<Probleme>,
+        ProblemeRepositoryCustom {
+    // Open auto-detected problems by detection key (see Probleme.detectionKey)
+    List<Probleme> findByDetectionKeyInAndStatutNot(Collection<String> detectionKeys, Probleme.Statut statut);
+
+    // Whole table for streaming exports: rows are fetched from the cursor in batches, read-only
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Probleme p ORDER BY p.id")
+    Stream<Probleme> streamAll();
 }
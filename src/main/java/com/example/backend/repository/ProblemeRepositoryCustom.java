@@ -0,0 +1,22 @@
+package com.example.backend.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.backend.dto.ProblemeSummary;
+import com.example.backend.model.Probleme;
+
+/**
+ * Queries of ProblemeRepository written with the Criteria API, see
+ * ProblemeRepositoryCustomImpl.
+ */
+public interface ProblemeRepositoryCustom {
+
+    /**
+     * Summaries of the problems matching the specification (all of them if
+     * null), in id order. The pageable's sort is ignored; an unpaged
+     * pageable returns every match.
+     */
+    Slice<ProblemeSummary> findSummaries(Specification<Probleme> specification, Pageable pageable);
+}
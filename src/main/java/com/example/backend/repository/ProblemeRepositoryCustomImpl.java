@@ -0,0 +1,67 @@
+package com.example.backend.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.backend.dto.ProblemeSummary;
+import com.example.backend.model.Probleme;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+class ProblemeRepositoryCustomImpl implements ProblemeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ProblemeSummary> findSummaries(Specification<Probleme> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProblemeSummary> query = cb.createQuery(ProblemeSummary.class);
+        Root<Probleme> root = query.from(Probleme.class);
+
+        // The related ids are read from the foreign key columns, so the operation
+        // and user tables are not joined
+        query.select(cb.construct(ProblemeSummary.class,
+            root.get("id"),
+            root.get("type"),
+            root.get("gravite"),
+            root.get("statut"),
+            root.get("description"),
+            root.get("dateDetection"),
+            root.get("dateResolution"),
+            root.get("impactDelai"),
+            root.get("impactCout"),
+            root.get("operation").get("id"),
+            root.get("signalePar").get("id"),
+            root.get("resoluPar").get("id")));
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<ProblemeSummary> typedQuery = entityManager.createQuery(query);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList());
+        }
+        // One row more than the page tells whether another page follows
+        List<ProblemeSummary> rows = typedQuery
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize() + 1)
+            .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.repository;
+
+import java.time.LocalDate;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.backend.dto.ProblemeFilter;
+import com.example.backend.model.Probleme;
+
+/**
+ * Predicates on Probleme for the GET /problemes filters, combined by
+ * matching() into the where clause of the single summary query,
+ * ProblemeRepositoryCustom.findSummaries(). Each returns null when its
+ * criterion is absent, which Specification.and() skips.
+ */
+public final class ProblemeSpecifications {
+
+    private ProblemeSpecifications() {
+    }
+
+    public static Specification<Probleme> matching(ProblemeFilter filter) {
+        return Specification.where(hasOperation(filter.operationId()))
+            .and(hasType(filter.type()))
+            .and(signaledBy(filter.signaleParId()))
+            .and(resolvedBy(filter.resoluParId()))
+            .and(hasGravite(filter.gravite()))
+            .and(hasStatut(filter.statut()))
+            .and(between("dateDetection", filter.detectedFrom(), filter.detectedTo()))
+            .and(between("dateResolution", filter.resolvedFrom(), filter.resolvedTo()));
+    }
+
+    // Keyset pagination: rows after the given id
+    public static Specification<Probleme> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    // Comparing the foreign key id does not join the referenced table
+    public static Specification<Probleme> hasOperation(Long operationId) {
+        return operationId == null ? null : (root, query, cb) -> cb.equal(root.get("operation").get("id"), operationId);
+    }
+
+    public static Specification<Probleme> signaledBy(Long utilisateurId) {
+        return utilisateurId == null ? null : (root, query, cb) -> cb.equal(root.get("signalePar").get("id"), utilisateurId);
+    }
+
+    public static Specification<Probleme> resolvedBy(Long utilisateurId) {
+        return utilisateurId == null ? null : (root, query, cb) -> cb.equal(root.get("resoluPar").get("id"), utilisateurId);
+    }
+
+    public static Specification<Probleme> hasType(Probleme.Type type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Probleme> hasGravite(Probleme.Gravite gravite) {
+        return gravite == null ? null : (root, query, cb) -> cb.equal(root.get("gravite"), gravite);
+    }
+
+    public static Specification<Probleme> hasStatut(Probleme.Statut statut) {
+        return statut == null ? null : (root, query, cb) -> cb.equal(root.get("statut"), statut);
+    }
+
+    private static Specification<Probleme> between(String attribute, LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.<LocalDate>get(attribute), to);
+            }
+            if (to == null) {
+                return cb.greaterThanOrEqualTo(root.<LocalDate>get(attribute), from);
+            }
+            return cb.between(root.<LocalDate>get(attribute), from, to);
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.backend.rest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.example.backend.dto.BatchItemResult;
+import com.example.backend.model.ApiResponse;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Shared responses of the batch create endpoints: 201 with the per-item
+ * ids when the whole batch was saved, 400 with the per-item errors when
+ * any item was invalid and nothing was saved.
+ */
+final class Batches {
+
+    private Batches() {
+    }
+
+    static Response create(Supplier<List<BatchItemResult>> batch, String itemsName) {
+        List<BatchItemResult> results;
+        try {
+            results = batch.get();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage())).build();
+        }
+
+        long invalid = results.stream().filter(result -> !result.isValid()).count();
+        if (invalid > 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, results, 
+                        String.format("%d of %d %s are invalid, none were created", invalid, results.size(), itemsName)))
+                    .build();
+        }
+        return Response.status(Response.Status.CREATED)
+                .entity(new ApiResponse<>(true, results, 
+                    String.format("%d %s created successfully", results.size(), itemsName)))
+                .build();
+    }
+}
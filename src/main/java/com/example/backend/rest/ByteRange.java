@@ -0,0 +1,58 @@
+package com.example.backend.rest;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single byte range of a Range request header, resolved against the size
+ * of the content; start and end are inclusive.
+ */
+record ByteRange(long start, long end) {
+
+    private static final Pattern SINGLE_RANGE = Pattern.compile("(?i)bytes\\s*=\\s*(\\d{0,18})\\s*-\\s*(\\d{0,18})\\s*");
+
+    long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Parses "bytes=first-last", "bytes=first-" or "bytes=-suffixLength".
+     * Returns null when the whole content should be sent instead: no header,
+     * a malformed one, or several ranges, which are not supported.
+     *
+     * @throws IllegalArgumentException if the range lies outside the content
+     */
+    static ByteRange parse(String header, long size) {
+        if (header == null) {
+            return null;
+        }
+        Matcher matcher = SINGLE_RANGE.matcher(header);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String first = matcher.group(1);
+        String last = matcher.group(2);
+
+        if (first.isEmpty()) {
+            if (last.isEmpty()) {
+                return null;
+            }
+            // Suffix range: the last n bytes
+            long suffixLength = Long.parseLong(last);
+            if (suffixLength == 0 || size == 0) {
+                throw new IllegalArgumentException("Range not satisfiable: " + header);
+            }
+            return new ByteRange(Math.max(0, size - suffixLength), size - 1);
+        }
+
+        long start = Long.parseLong(first);
+        long end = last.isEmpty() ? size - 1 : Long.parseLong(last);
+        if (end < start) {
+            return null;
+        }
+        if (start >= size) {
+            throw new IllegalArgumentException("Range not satisfiable: " + header);
+        }
+        return new ByteRange(start, Math.min(end, size - 1));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.rest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.example.backend.model.ApiResponse;
+import com.example.backend.service.DashboardCache;
+import com.example.backend.service.ReferenceDataCache;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Component
+@Path("/cache")
+@Produces(MediaType.APPLICATION_JSON)
+public class CacheResource {
+
+    private final DashboardCache dashboardCache;
+    private final ReferenceDataCache referenceDataCache;
+
+    public CacheResource(DashboardCache dashboardCache, ReferenceDataCache referenceDataCache) {
+        this.dashboardCache = dashboardCache;
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @GET
+    @Path("/stats")
+    public Response getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dashboard", dashboardCache.getStats());
+        stats.put("referenceData", referenceDataCache.getStats());
+        return Response.ok(new ApiResponse<>(true, stats, "Cache statistics fetched successfully")).build();
+    }
+}
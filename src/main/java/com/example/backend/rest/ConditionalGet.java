@@ -0,0 +1,30 @@
+package com.example.backend.rest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET method whose response only changes when one of the named
+ * collections of CollectionVersions does. ConditionalGetFeature then sends
+ * ETag, Last-Modified and Cache-Control, and answers 304 Not Modified to
+ * If-None-Match / If-Modified-Since requests still up to date, without
+ * running the method.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface ConditionalGet {
+
+    /**
+     * Collections the response is built from, including those of embedded
+     * relations.
+     */
+    String[] value();
+
+    /**
+     * Seconds a client may reuse the response without asking; 0 makes it
+     * revalidate every time.
+     */
+    int maxAge() default 0;
+}
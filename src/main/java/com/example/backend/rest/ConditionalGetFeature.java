@@ -0,0 +1,155 @@
+package com.example.backend.rest;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.example.backend.config.BinaryJsonFilter;
+import com.example.backend.config.BinaryJsonFormat;
+import com.example.backend.config.NormalizedJsonFilter;
+import com.example.backend.service.CollectionVersions;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Conditional GET for the methods annotated with ConditionalGet.
+ *
+ * The validators are built before the method runs, from the versions of its
+ * collections: the ETag joins their tags and Last-Modified is the latest of
+ * their times. Reading them first means the data served is never older
+ * than the validators sent with it. When any version is unknown the
+ * response has no validators, and the next one will.
+ *
+ * The ETag also names the representation (JSON, normalized, CBOR or Smile)
+ * negotiated for the request, as the same data gives a different body in
+ * each. It is weak: Tomcat does not compress a response with a strong ETag,
+ * and If-None-Match is compared weakly anyway.
+ */
+@Component
+public class ConditionalGetFeature implements DynamicFeature {
+
+    private final CollectionVersions collectionVersions;
+
+    public ConditionalGetFeature(CollectionVersions collectionVersions) {
+        this.collectionVersions = collectionVersions;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        ConditionalGet conditionalGet = resourceInfo.getResourceMethod().getAnnotation(ConditionalGet.class);
+        if (conditionalGet != null) {
+            context.register(new Filter(conditionalGet.value(), cacheControl(conditionalGet.maxAge())));
+        }
+    }
+
+    private static CacheControl cacheControl(int maxAge) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        // Jersey's default adds no-transform, which only binds proxies; these responses do not need it
+        cacheControl.setNoTransform(false);
+        if (maxAge > 0) {
+            cacheControl.setMaxAge(maxAge);
+        } else {
+            cacheControl.setNoCache(true);
+        }
+        return cacheControl;
+    }
+
+    private record Validators(EntityTag entityTag, Date lastModified) {}
+
+    @Priority(Priorities.HEADER_DECORATOR)
+    private final class Filter implements ContainerRequestFilter, ContainerResponseFilter {
+
+        private static final String PROPERTY = Filter.class.getName();
+
+        private final String[] collections;
+        private final CacheControl cacheControl;
+
+        Filter(String[] collections, CacheControl cacheControl) {
+            this.collections = collections;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) throws IOException {
+            String method = requestContext.getMethod();
+            if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+                return;
+            }
+            Validators validators = validators(requestContext);
+            if (validators == null) {
+                return;
+            }
+            requestContext.setProperty(PROPERTY, validators);
+
+            Response.ResponseBuilder notModified = requestContext.getRequest()
+                .evaluatePreconditions(validators.lastModified(), validators.entityTag());
+            if (notModified != null) {
+                requestContext.abortWith(notModified
+                    .tag(validators.entityTag())
+                    .lastModified(validators.lastModified())
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                    .build());
+            }
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext,
+                ContainerResponseContext responseContext) throws IOException {
+            Validators validators = (Validators) requestContext.getProperty(PROPERTY);
+            if (validators == null || responseContext.getStatus() != Response.Status.OK.getStatusCode()) {
+                return;
+            }
+            responseContext.getHeaders().putSingle(HttpHeaders.ETAG, validators.entityTag());
+            responseContext.getHeaders().putSingle(HttpHeaders.LAST_MODIFIED, validators.lastModified());
+            responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, cacheControl);
+            // As on the 304: the ETag depends on the representation negotiated from Accept
+            if (!responseContext.getStringHeaders().getOrDefault(HttpHeaders.VARY, List.of()).stream()
+                    .anyMatch(HttpHeaders.ACCEPT::equalsIgnoreCase)) {
+                responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+        }
+
+        private Validators validators(ContainerRequestContext requestContext) {
+            StringBuilder tag = new StringBuilder();
+            long lastModified = 0;
+            for (String collection : collections) {
+                CollectionVersions.Version version = collectionVersions.current(collection);
+                if (version == null) {
+                    return null;
+                }
+                if (tag.length() > 0) {
+                    tag.append('-');
+                }
+                tag.append(version.tag());
+                lastModified = Math.max(lastModified, version.lastModified());
+            }
+            tag.append('-').append(representation(requestContext));
+            return new Validators(new EntityTag(tag.toString(), true), new Date(lastModified));
+        }
+
+        private String representation(ContainerRequestContext requestContext) {
+            if (NormalizedJsonFilter.isRequested(requestContext)) {
+                return "normalized";
+            }
+            BinaryJsonFormat format = BinaryJsonFilter.formatOf(requestContext);
+            return format != null ? format.name().toLowerCase() : "json";
+        }
+    }
+}
@@ -6,19 +6,24 @@ import java.time.format.DateTimeParseException;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.dto.DailyReportSubmission;
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.DailyReport;
 import com.example.backend.service.DailyReportService;
+import com.example.backend.service.StreamingExportService;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -30,16 +35,29 @@ import jakarta.ws.rs.core.Response;
 public class DailyReportResource {
 
     private final DailyReportService dailyReportService;
+    private final StreamingExportService streamingExportService;
 
-    public DailyReportResource(DailyReportService dailyReportService) {
+    public DailyReportResource(DailyReportService dailyReportService,
+                               StreamingExportService streamingExportService) {
         this.dailyReportService = dailyReportService;
+        this.streamingExportService = streamingExportService;
     }
 
     @GET
     @Transactional(readOnly = true)
     public Response getAllDailyReports(@QueryParam("puitId") Long puitId, 
-                                     @QueryParam("reportDate") String reportDateStr) {
+                                     @QueryParam("reportDate") String reportDateStr,
+                                     @QueryParam("limit") Integer limit,
+                                     @QueryParam("after") String after,
+                                     @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal) {
         try {
+            if (Pagination.requested(limit, after)) {
+                LocalDate reportDate = reportDateStr != null ? LocalDate.parse(reportDateStr) : null;
+                return Pagination.page(limit,
+                        pageLimit -> dailyReportService.findPage(puitId, reportDate, Pagination.emptyToNull(after),
+                            pageLimit, includeTotal),
+                        "Daily reports fetched successfully");
+            }
             if (puitId != null && reportDateStr != null) {
                 LocalDate reportDate = LocalDate.parse(reportDateStr);
                 return Response.ok(new ApiResponse<>(true, 
@@ -65,13 +83,22 @@ public class DailyReportResource {
         }
     }
 
+    // Whole collection, written chunk by chunk as it is read; memory use does not grow with the table.
+    // The operations and indicators of each chunk are batch loaded, as in the list endpoints.
+    @GET
+    @Path("/export")
+    public Response exportDailyReports() {
+        return Response.ok(streamingExportService.export("daily reports", dailyReportService::streamAll,
+                dailyReportService::initializeCollections, "Daily reports fetched successfully")).build();
+    }
+
     @GET
     @Path("/{id}")
     @Transactional(readOnly = true)
     public Response getDailyReport(@PathParam("id") Long id) {
         return dailyReportService.findById(id)
-                .map(report -> Response.ok(new ApiResponse<>(true, report, 
-                    String.format("Daily report with ID %d fetched successfully", id))).build())
+                .map(report -> Versioning.ok(report, report.getVersion(), 
+                    String.format("Daily report with ID %d fetched successfully", id)))
                 .orElse(Response.status(Response.Status.NOT_FOUND)
                         .entity(new ApiResponse<>(false, null, 
                             String.format("Daily report with ID %d not found", id))).build());
@@ -93,13 +120,40 @@ public class DailyReportResource {
 
     @PUT
     @Path("/{id}")
-    public Response updateDailyReport(@PathParam("id") Long id, DailyReport dailyReport) {
-        return dailyReportService.update(id, dailyReport)
-                .map(updated -> Response.ok(new ApiResponse<>(true, updated, 
-                    String.format("Daily report with ID %d updated successfully", id))).build())
-                .orElse(Response.status(Response.Status.NOT_FOUND)
-                        .entity(new ApiResponse<>(false, null, 
-                            String.format("Daily report with ID %d not found", id))).build());
+    public Response updateDailyReport(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                      DailyReport dailyReport) {
+        return Versioning.update(ifMatch, dailyReport.getVersion(), String.format("Daily report with ID %d", id),
+                expectedVersion -> dailyReportService.update(id, expectedVersion, dailyReport),
+                () -> dailyReportService.findById(id), DailyReport::getVersion);
+    }
+
+    // The report's operations and indicators in one transaction, all or nothing
+    @POST
+    @Path("/{id}/submission")
+    public Response submitDailyReport(@PathParam("id") Long id, DailyReportSubmission submission) {
+        if (submission == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, "The submission has no operations or indicateurs")).build();
+        }
+        try {
+            return dailyReportService.submit(id, submission)
+                    .map(result -> result.isValid()
+                        ? Response.status(Response.Status.CREATED)
+                            .entity(new ApiResponse<>(true, result, 
+                                String.format("Submission of daily report with ID %d saved: %d operations, %d indicateurs", 
+                                    id, result.operations().size(), result.indicateurs().size())))
+                            .build()
+                        : Response.status(Response.Status.BAD_REQUEST)
+                            .entity(new ApiResponse<>(false, result, 
+                                String.format("Submission of daily report with ID %d has invalid items, nothing was saved", id)))
+                            .build())
+                    .orElse(Response.status(Response.Status.NOT_FOUND)
+                            .entity(new ApiResponse<>(false, null, 
+                                String.format("Daily report with ID %d not found", id))).build());
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage())).build();
+        }
     }
 
     @DELETE
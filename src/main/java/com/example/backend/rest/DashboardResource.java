@@ -2,15 +2,21 @@ package com.example.backend.rest;
 
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
-import com.example.backend.service.DashboardService;
+import com.example.backend.service.CostRollupService;
+import com.example.backend.service.DashboardCache;
 
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -20,25 +26,50 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class DashboardResource {
 
-    private final DashboardService dashboardService;
+    private static final Logger logger = LoggerFactory.getLogger(DashboardResource.class);
 
-    public DashboardResource(DashboardService dashboardService) {
-        this.dashboardService = dashboardService;
+    private final DashboardCache dashboardCache;
+    private final CostRollupService costRollupService;
+
+    public DashboardResource(DashboardCache dashboardCache, CostRollupService costRollupService) {
+        this.dashboardCache = dashboardCache;
+        this.costRollupService = costRollupService;
     }
 
     @GET
     @Path("/data")
-    public Response getDashboardData() {
+    @ConditionalGet(DashboardCache.VERSION_NAME)
+    public Response getDashboardData(@QueryParam("topN") @DefaultValue("10") int topN) {
+        if (topN < 1 || topN > dashboardCache.getMaxTopOperations()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, 
+                        String.format("topN must be between 1 and %d", dashboardCache.getMaxTopOperations())))
+                    .build();
+        }
         try {
-            Map<String, Object> dashboardData = dashboardService.getDashboardData();
+            Map<String, Object> dashboardData = dashboardCache.get(topN);
             return Response.ok(new ApiResponse<>(true, dashboardData, 
                 "Dashboard data fetched successfully")).build();
         } catch (Exception e) {
-            System.err.println("Error fetching dashboard data: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching dashboard data", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching dashboard data"))
                     .build();
         }
     }
+
+    @POST
+    @Path("/rollups/rebuild")
+    public Response rebuildCostRollups() {
+        try {
+            Map<String, Object> report = costRollupService.rebuild();
+            return Response.ok(new ApiResponse<>(true, report, 
+                "Cost rollups rebuilt successfully")).build();
+        } catch (Exception e) {
+            logger.error("Error rebuilding cost rollups", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ApiResponse<>(false, null, "Error rebuilding cost rollups"))
+                    .build();
+        }
+    }
 }
@@ -1,22 +1,39 @@
 package com.example.backend.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import org.glassfish.jersey.media.multipart.FormDataBodyPart;
+import org.glassfish.jersey.media.multipart.FormDataParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.example.backend.dto.DocumentFilter;
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.Document;
+import com.example.backend.service.ContentStore;
 import com.example.backend.service.DocumentService;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 @Component
 @Path("/documents")
@@ -24,10 +41,14 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class DocumentResource {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentResource.class);
+    
     private final DocumentService documentService;
-
-    public DocumentResource(DocumentService documentService) {
+    private final ContentStore contentStore;
+    
+    public DocumentResource(DocumentService documentService, ContentStore contentStore) {
         this.documentService = documentService;
+        this.contentStore = contentStore;
     }
 
     @GET
@@ -37,47 +58,55 @@ public class DocumentResource {
             @QueryParam("operationId") Long operationId,
             @QueryParam("utilisateurId") Long utilisateurId,
             @QueryParam("estPublic") Boolean estPublic,
-            @QueryParam("type") String type) {
-        
-        // Filter by puit
-        if (puitId != null) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByPuit(puitId), 
-                    String.format("Documents for puit ID %d fetched successfully", puitId))).build();
-        }
+            @QueryParam("type") String type,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal) {
         
-        // Filter by phase
-        if (phaseId != null) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByPhase(phaseId), 
-                    String.format("Documents for phase ID %d fetched successfully", phaseId))).build();
-        }
+        // All given criteria are combined (AND) into one query
+        DocumentFilter filter = new DocumentFilter(puitId, phaseId, operationId, utilisateurId, estPublic,
+                type != null && !type.isEmpty() ? type : null);
         
-        // Filter by operation
-        if (operationId != null) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByOperation(operationId), 
-                    String.format("Documents for operation ID %d fetched successfully", operationId))).build();
+        if (Pagination.requested(limit, after)) {
+            if (!filter.isEmpty()) {
+                return Pagination.rejectFilters();
+            }
+            return Pagination.page(limit,
+                    pageLimit -> documentService.findPage(Pagination.emptyToNull(after), pageLimit, includeTotal),
+                    "Documents fetched successfully");
         }
         
-        // Filter by uploader
-        if (utilisateurId != null) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByUploadePar(utilisateurId), 
-                    String.format("Documents uploaded by user ID %d fetched successfully", utilisateurId))).build();
-        }
+        return Response.ok(new ApiResponse<>(true, 
+                filter.isEmpty() ? documentService.findAll() : documentService.search(filter), 
+                "Documents fetched successfully")).build();
+    }
+
+    // Keyword/prefix search on nom and description, best match first; takes the same filters
+    @GET
+    @Path("/search")
+    public Response searchDocuments(
+            @QueryParam("q") String query,
+            @QueryParam("puitId") Long puitId,
+            @QueryParam("phaseId") Long phaseId,
+            @QueryParam("operationId") Long operationId,
+            @QueryParam("utilisateurId") Long utilisateurId,
+            @QueryParam("estPublic") Boolean estPublic,
+            @QueryParam("type") String type,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
         
-        // Filter by public status
-        if (estPublic != null) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByEstPublic(estPublic), 
-                    String.format("Documents with public status %b fetched successfully", estPublic))).build();
+        if (query == null || query.isBlank()) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, "Query parameter q is required")).build();
         }
-        
-        // Filter by document type
-        if (type != null && !type.isEmpty()) {
-            return Response.ok(new ApiResponse<>(true, documentService.findByType(type), 
-                    String.format("Documents of type '%s' fetched successfully", type))).build();
+        DocumentFilter filter = new DocumentFilter(puitId, phaseId, operationId, utilisateurId, estPublic,
+                type != null && !type.isEmpty() ? type : null);
+        try {
+            return Response.ok(new ApiResponse<>(true, documentService.search(query, filter, limit), 
+                    String.format("Documents matching '%s' fetched successfully", query))).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage())).build();
         }
-        
-        // No filters, get all
-        return Response.ok(new ApiResponse<>(true, documentService.findAll(), 
-                "Documents fetched successfully")).build();
     }
 
     @GET
@@ -121,4 +150,114 @@ public class DocumentResource {
                         .entity(new ApiResponse<>(false, null, 
                             String.format("Document with ID %d not found", id))).build();
     }
+
+    // Raw upload: the request body is the content, streamed to disk as it arrives
+    @PUT
+    @Path("/{id}/content")
+    @Consumes(MediaType.WILDCARD)
+    public Response uploadContent(@PathParam("id") Long id, @Context HttpHeaders headers, InputStream content) {
+        return storeContent(id, content, headers.getMediaType());
+    }
+
+    // Browser form upload: the content is the "file" part of a multipart/form-data body
+    @POST
+    @Path("/{id}/content")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    public Response uploadContentForm(@PathParam("id") Long id,
+            @FormDataParam("file") InputStream content,
+            @FormDataParam("file") FormDataBodyPart part) {
+        if (content == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, "Multipart field 'file' is required")).build();
+        }
+        return storeContent(id, content, part.getMediaType());
+    }
+
+    private Response storeContent(Long id, InputStream content, MediaType mediaType) {
+        String contentType = mediaType != null ? mediaType.toString() : MediaType.APPLICATION_OCTET_STREAM;
+        try {
+            return documentService.storeContent(id, content, contentType)
+                    .map(document -> Response.ok(new ApiResponse<>(true, document, 
+                        String.format("Content of document with ID %d stored (%d bytes)", id, document.getTaille()))).build())
+                    .orElse(Response.status(Response.Status.NOT_FOUND)
+                            .entity(new ApiResponse<>(false, null, 
+                                String.format("Document with ID %d not found", id))).build());
+        } catch (IOException e) {
+            logger.error("Error storing content of document {}", id, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ApiResponse<>(false, null, "Error storing document content: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    /**
+     * The stored bytes, whole or a single Range ("bytes=0-1023", "bytes=1024-",
+     * "bytes=-512") for resuming large downloads. The ETag is the content's
+     * SHA-256; If-Range with any other value gets the whole content.
+     */
+    @GET
+    @Path("/{id}/content")
+    @Produces(MediaType.WILDCARD)
+    public Response downloadContent(@PathParam("id") Long id,
+            @HeaderParam(HttpHeaders.RANGE) String range,
+            @HeaderParam(HttpHeaders.IF_RANGE) String ifRange) {
+        Document document = documentService.findById(id).orElse(null);
+        if (document == null || document.getContentSha256() == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ApiResponse<>(false, null, 
+                        String.format(document == null ? "Document with ID %d not found" : "Document with ID %d has no content", id)))
+                    .type(MediaType.APPLICATION_JSON).build();
+        }
+        String sha256 = document.getContentSha256();
+        EntityTag etag = new EntityTag(sha256);
+        
+        long size;
+        try {
+            size = contentStore.size(sha256);
+        } catch (IOException e) {
+            // Includes NoSuchFileException: the blob is missing from the store
+            logger.error("Error reading content {} of document {}", sha256, id, e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ApiResponse<>(false, null, "Error reading document content"))
+                    .type(MediaType.APPLICATION_JSON).build();
+        }
+        
+        ByteRange byteRange = null;
+        if (range != null && (ifRange == null || ifRange.equals(etag.toString()))) {
+            try {
+                byteRange = ByteRange.parse(range, size);
+            } catch (IllegalArgumentException e) {
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header("Content-Range", "bytes */" + size)
+                        .header("Accept-Ranges", "bytes")
+                        .build();
+            }
+        }
+        
+        long start = byteRange != null ? byteRange.start() : 0;
+        long length = byteRange != null ? byteRange.length() : size;
+        StreamingOutput body = output -> contentStore.transferTo(sha256, start, length, output);
+        Response.ResponseBuilder response = byteRange != null
+                ? Response.status(Response.Status.PARTIAL_CONTENT)
+                        .header("Content-Range", "bytes " + start + "-" + byteRange.end() + "/" + size)
+                : Response.ok();
+        return response
+                .entity(body)
+                .type(document.getContentType() != null ? document.getContentType() : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_LENGTH, length)
+                .header("Accept-Ranges", "bytes")
+                .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(document.getNom()))
+                .tag(etag)
+                .build();
+    }
+
+    // attachment; filename="ascii fallback"; filename*=UTF-8''percent-encoded
+    private static String contentDisposition(String nom) {
+        if (nom == null || nom.isBlank()) {
+            return "attachment";
+        }
+        String fallback = nom.replaceAll("[^\\x20-\\x7E]|[\"\\\\]", "_");
+        String encoded = URLEncoder.encode(nom, StandardCharsets.UTF_8).replace("+", "%20");
+        return "attachment; filename=\"" + fallback + "\"; filename*=UTF-8''" + encoded;
+    }
 }
@@ -1,13 +1,17 @@
 package com.example.backend.rest;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.Indicateur;
 import com.example.backend.service.IndicateurService;
+import com.example.backend.service.StreamingExportService;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -25,15 +29,30 @@ import jakarta.ws.rs.core.Response;
 public class IndicateurResource {
 
     private final IndicateurService indicateurService;
+    private final StreamingExportService streamingExportService;
 
-    public IndicateurResource(IndicateurService indicateurService) {
+    public IndicateurResource(IndicateurService indicateurService,
+                              StreamingExportService streamingExportService) {
         this.indicateurService = indicateurService;
+        this.streamingExportService = streamingExportService;
     }
 
     @GET
     public Response getAllIndicateurs(
             @QueryParam("operationId") Long operationId,
-            @QueryParam("typeId") Long typeIndicateurId) {
+            @QueryParam("typeId") Long typeIndicateurId,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal) {
+        
+        if (Pagination.requested(limit, after)) {
+            if (operationId != null || typeIndicateurId != null) {
+                return Pagination.rejectFilters();
+            }
+            return Pagination.page(limit,
+                    pageLimit -> indicateurService.findPage(Pagination.emptyToNull(after), pageLimit, includeTotal),
+                    "Indicateurs fetched successfully");
+        }
         
         // Filter by both operation and type indicateur
         if (operationId != null && typeIndicateurId != null) {
@@ -61,6 +80,14 @@ public class IndicateurResource {
                 "Indicateurs fetched successfully")).build();
     }
 
+    // Whole collection, written row by row as it is read; memory use does not grow with the table
+    @GET
+    @Path("/export")
+    public Response exportIndicateurs() {
+        return Response.ok(streamingExportService.export("indicateurs", indicateurService::streamAll,
+                "Indicateurs fetched successfully")).build();
+    }
+
     @GET
     @Path("/{id}")
     public Response getIndicateur(@PathParam("id") Long id) {
@@ -81,6 +108,13 @@ public class IndicateurResource {
                 .build();
     }
 
+    // All or nothing, in one transaction; the results are in request order
+    @POST
+    @Path("/batch")
+    public Response createIndicateurs(List<Indicateur> indicateurs) {
+        return Batches.create(() -> indicateurService.createAll(indicateurs), "indicateurs");
+    }
+
     @PUT
     @Path("/{id}")  
     public Response updateIndicateur(@PathParam("id") Long id, Indicateur indicateur) {
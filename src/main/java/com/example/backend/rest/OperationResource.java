@@ -1,20 +1,26 @@
 package com.example.backend.rest;
 
+import java.util.List;
+
 import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.Operation;
 import com.example.backend.service.OperationService;
+import com.example.backend.service.StreamingExportService;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -25,13 +31,27 @@ import jakarta.ws.rs.core.Response;
 public class OperationResource {
 
     private final OperationService operationService;
+    private final StreamingExportService streamingExportService;
 
-    public OperationResource(OperationService operationService) {
+    public OperationResource(OperationService operationService,
+                             StreamingExportService streamingExportService) {
         this.operationService = operationService;
+        this.streamingExportService = streamingExportService;
     }
 
     @GET
-    public Response getAllOperations(@QueryParam("statut") String statut) {
+    public Response getAllOperations(@QueryParam("statut") String statut,
+                                     @QueryParam("limit") Integer limit,
+                                     @QueryParam("after") String after,
+                                     @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal) {
+        if (Pagination.requested(limit, after)) {
+            if (statut != null) {
+                return Pagination.rejectFilters();
+            }
+            return Pagination.page(limit,
+                    pageLimit -> operationService.findPage(Pagination.emptyToNull(after), pageLimit, includeTotal),
+                    "Operations fetched successfully");
+        }
         if (statut != null && !statut.isEmpty()) {
             return Response.ok(new ApiResponse<>(true, operationService.findByStatut(statut), 
                     String.format("Operations with statut '%s' fetched successfully", statut))).build();
@@ -40,12 +60,20 @@ public class OperationResource {
                 "Operations fetched successfully")).build();
     }
 
+    // Whole collection, written row by row as it is read; memory use does not grow with the table
+    @GET
+    @Path("/export")
+    public Response exportOperations() {
+        return Response.ok(streamingExportService.export("operations", operationService::streamAll,
+                "Operations fetched successfully")).build();
+    }
+
     @GET
     @Path("/{id}")
     public Response getOperation(@PathParam("id") Long id) {
         return operationService.findById(id)
-                .map(operation -> Response.ok(new ApiResponse<>(true, operation, 
-                    String.format("Operation with ID %d fetched successfully", id))).build())
+                .map(operation -> Versioning.ok(operation, operation.getVersion(), 
+                    String.format("Operation with ID %d fetched successfully", id)))
                 .orElse(Response.status(Response.Status.NOT_FOUND)
                         .entity(new ApiResponse<>(false, null, 
                             String.format("Operation with ID %d not found", id))).build());
@@ -75,9 +103,7 @@ public class OperationResource {
     @POST
     public Response createOperation(Operation operation) {
         try {
-            System.out.println("Creating operation with cost: " + operation.getCoutPrev());
             Operation created = operationService.create(operation);
-            System.out.println("Created operation with cost: " + created.getCoutPrev());
             return Response.status(Response.Status.CREATED)
                     .entity(new ApiResponse<>(true, created, 
                         String.format("Operation created successfully with ID %d", created.getId())))
@@ -93,15 +119,21 @@ public class OperationResource {
         }
     }
 
+    // All or nothing, in one transaction; the results are in request order
+    @POST
+    @Path("/batch")
+    public Response createOperations(List<Operation> operations) {
+        return Batches.create(() -> operationService.createAll(operations), "operations");
+    }
+
+    // 409, or 412 with If-Match, when the operation changed since the version it was read at
     @PUT
     @Path("/{id}")  
-    public Response updateOperation(@PathParam("id") Long id, Operation operation) {
-        return operationService.update(id, operation)
-                .map(updated -> Response.ok(new ApiResponse<>(true, updated, 
-                    String.format("Operation with ID %d updated successfully", id))).build())
-                .orElse(Response.status(Response.Status.NOT_FOUND)
-                        .entity(new ApiResponse<>(false, null, 
-                            String.format("Operation with ID %d not found", id))).build());
+    public Response updateOperation(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                    Operation operation) {
+        return Versioning.update(ifMatch, operation.getVersion(), String.format("Operation with ID %d", id),
+                expectedVersion -> operationService.update(id, expectedVersion, operation),
+                () -> operationService.findById(id), Operation::getVersion);
     }
 
     @DELETE
@@ -0,0 +1,48 @@
+package com.example.backend.rest;
+
+import java.util.function.IntFunction;
+
+import com.example.backend.dto.CursorPage;
+import com.example.backend.model.ApiResponse;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Shared handling of the limit/after/includeTotal query parameters of the
+ * list endpoints. Without limit or after they return the full list as
+ * before; with either they return a CursorPage.
+ */
+final class Pagination {
+
+    private Pagination() {
+    }
+
+    static boolean requested(Integer limit, String after) {
+        return limit != null || (after != null && !after.isEmpty());
+    }
+
+    static Response rejectFilters() {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(new ApiResponse<>(false, null, "limit/after cannot be combined with filters"))
+                .build();
+    }
+
+    /**
+     * Runs the page query with the requested limit (DEFAULT_LIMIT if absent),
+     * answering 400 for an invalid cursor or limit.
+     */
+    static Response page(Integer limit, IntFunction<CursorPage<?>> query, String message) {
+        try {
+            CursorPage<?> page = query.apply(limit != null ? limit : CursorPage.DEFAULT_LIMIT);
+            return Response.ok(new ApiResponse<>(true, page, message)).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage()))
+                    .build();
+        }
+    }
+
+    static String emptyToNull(String after) {
+        return after != null && !after.isEmpty() ? after : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.backend.rest;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
@@ -9,11 +11,13 @@ import com.example.backend.service.PhaseService;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -23,6 +27,8 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class PhaseResource {
 
+    private static final Logger logger = LoggerFactory.getLogger(PhaseResource.class);
+
     private final PhaseService phaseService;
 
     public PhaseResource(PhaseService phaseService) {
@@ -35,8 +41,7 @@ public class PhaseResource {
             return Response.ok(new ApiResponse<>(true, phaseService.findAll(), 
                     "Phases fetched successfully")).build();
         } catch (Exception e) {
-            System.err.println("Error fetching all phases: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching all phases", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching phases: " + e.getMessage()))
                     .build();
@@ -48,14 +53,13 @@ public class PhaseResource {
     public Response getPhase(@PathParam("id") Long id) {
         try {
             return phaseService.findById(id)
-                    .map(phase -> Response.ok(new ApiResponse<>(true, phase, 
-                        String.format("Phase with ID %d fetched successfully", id))).build())
+                    .map(phase -> Versioning.ok(phase, phase.getVersion(), 
+                        String.format("Phase with ID %d fetched successfully", id)))
                     .orElse(Response.status(Response.Status.NOT_FOUND)
                             .entity(new ApiResponse<>(false, null, 
                                 String.format("Phase with ID %d not found", id))).build());
         } catch (Exception e) {
-            System.err.println("Error fetching phase " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching phase {}", id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching phase: " + e.getMessage()))
                     .build();
@@ -69,8 +73,7 @@ public class PhaseResource {
             return Response.ok(new ApiResponse<>(true, phaseService.findByForage(forageId), 
                     String.format("Phases for forage with ID %d fetched successfully", forageId))).build();
         } catch (Exception e) {
-            System.err.println("Error fetching phases for forage " + forageId + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching phases for forage {}", forageId, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching phases for forage: " + e.getMessage()))
                     .build();
@@ -80,57 +83,36 @@ public class PhaseResource {
     @POST
     public Response createPhase(Phase phase) {
         try {
-            System.out.println("=== PHASE CREATION REQUEST ===");
-            System.out.println("Received phase object: " + phase);
-            System.out.println("Phase number: " + phase.getNumeroPhase());
-            System.out.println("Phase diametre: " + phase.getDiametre());
-            System.out.println("Phase description: " + phase.getDescription());
-            System.out.println("Phase forage: " + (phase.getForage() != null ? phase.getForage().getId() : "null"));
-            System.out.println("Phase start date: " + phase.getDateDebutPrevue());
-            System.out.println("Phase end date: " + phase.getDateFinPrevue());
-            
             if (phase.getForage() == null || phase.getForage().getId() == null) {
-                System.err.println("ERROR: Forage is null or has null ID");
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(new ApiResponse<>(false, null, "Forage ID is required"))
                         .build();
             }
 
             if (phase.getNumeroPhase() == null) {
-                System.err.println("ERROR: Phase number is null");
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(new ApiResponse<>(false, null, "Phase number is required"))
                         .build();
             }
 
             if (phase.getDiametre() == null) {
-                System.err.println("ERROR: Phase diametre is null");
                 return Response.status(Response.Status.BAD_REQUEST)
                         .entity(new ApiResponse<>(false, null, "Phase diametre is required"))
                         .build();
             }
             
-            System.out.println("Calling phaseService.create()...");
             Phase created = phaseService.create(phase);
-            System.out.println("Successfully created phase with ID: " + created.getId());
-            System.out.println("=== PHASE CREATION SUCCESS ===");
             
             return Response.status(Response.Status.CREATED)
                     .entity(new ApiResponse<>(true, created, 
                         String.format("Phase created successfully with ID %d", created.getId())))
                     .build();
         } catch (IllegalArgumentException e) {
-            System.err.println("=== PHASE CREATION VALIDATION ERROR ===");
-            System.err.println("Validation error: " + e.getMessage());
-            e.printStackTrace();
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(new ApiResponse<>(false, null, e.getMessage()))
                     .build();
         } catch (Exception e) {
-            System.err.println("=== PHASE CREATION UNEXPECTED ERROR ===");
-            System.err.println("Unexpected error creating phase: " + e.getMessage());
-            System.err.println("Error class: " + e.getClass().getName());
-            e.printStackTrace();
+            logger.error("Error creating phase", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error creating phase: " + e.getMessage()))
                     .build();
@@ -139,13 +121,11 @@ public class PhaseResource {
 
     @PUT
     @Path("/{id}")  
-    public Response updatePhase(@PathParam("id") Long id, Phase phase) {
-        return phaseService.update(id, phase)
-                .map(updated -> Response.ok(new ApiResponse<>(true, updated, 
-                    String.format("Phase with ID %d updated successfully", id))).build())
-                .orElse(Response.status(Response.Status.NOT_FOUND)
-                        .entity(new ApiResponse<>(false, null, 
-                            String.format("Phase with ID %d not found", id))).build());
+    public Response updatePhase(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                Phase phase) {
+        return Versioning.update(ifMatch, phase.getVersion(), String.format("Phase with ID %d", id),
+                expectedVersion -> phaseService.update(id, expectedVersion, phase),
+                () -> phaseService.findById(id), Phase::getVersion);
     }
 
     @DELETE
@@ -159,8 +139,7 @@ public class PhaseResource {
                             .entity(new ApiResponse<>(false, null, 
                                 String.format("Phase with ID %d not found", id))).build();
         } catch (Exception e) {
-            System.err.println("Error deleting phase " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error deleting phase {}", id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error deleting phase: " + e.getMessage()))
                     .build();
@@ -1,22 +1,36 @@
 package com.example.backend.rest;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Set;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import com.example.backend.dto.ProblemeFilter;
+import com.example.backend.dto.ProblemeSummary;
 import com.example.backend.model.ApiResponse;
+import com.example.backend.model.DetectionJob;
 import com.example.backend.model.Probleme;
+import com.example.backend.service.DetectionJobService;
 import com.example.backend.service.ProblemeService;
+import com.example.backend.service.StreamingExportService;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -26,10 +40,17 @@ import jakarta.ws.rs.core.Response;
 @Consumes(MediaType.APPLICATION_JSON)
 public class ProblemeResource {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProblemeResource.class);
+
     private final ProblemeService problemeService;
+    private final DetectionJobService detectionJobService;
+    private final StreamingExportService streamingExportService;
 
-    public ProblemeResource(ProblemeService problemeService) {
+    public ProblemeResource(ProblemeService problemeService, DetectionJobService detectionJobService,
+                            StreamingExportService streamingExportService) {
         this.problemeService = problemeService;
+        this.detectionJobService = detectionJobService;
+        this.streamingExportService = streamingExportService;
     }
 
     @GET
@@ -39,96 +60,86 @@ public class ProblemeResource {
             @QueryParam("signaleParId") Long signaleParId,
             @QueryParam("resoluParId") Long resoluParId,
             @QueryParam("gravite") String gravite,
-            @QueryParam("statut") String statut) {
+            @QueryParam("statut") String statut,
+            @QueryParam("detectedFrom") String detectedFrom,
+            @QueryParam("detectedTo") String detectedTo,
+            @QueryParam("resolvedFrom") String resolvedFrom,
+            @QueryParam("resolvedTo") String resolvedTo,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("after") String after,
+            @QueryParam("includeTotal") @DefaultValue("false") boolean includeTotal,
+            @QueryParam("expand") String expand) {
         
+        // All given criteria are combined (AND) into one query
+        ProblemeFilter filter;
+        Set<String> expanded;
         try {
-            System.out.println("=== GET PROBLEMES REQUEST ===");
-            System.out.println("operationId: " + operationId);
-            System.out.println("type: " + type);
-            System.out.println("gravite: " + gravite);
-            System.out.println("statut: " + statut);
-            
-            // Filter by operation
-            if (operationId != null) {
-                List<Probleme> problems = problemeService.findByOperation(operationId);
-                System.out.println("Found " + problems.size() + " problems for operation " + operationId);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes for operation ID %d fetched successfully", operationId))).build();
-            }
-            
-            // Filter by type
-            if (type != null && !type.isEmpty()) {
-                List<Probleme> problems = problemeService.findByType(type);
-                System.out.println("Found " + problems.size() + " problems of type " + type);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes of type '%s' fetched successfully", type))).build();
-            }
-            
-            // Filter by signaler
-            if (signaleParId != null) {
-                List<Probleme> problems = problemeService.findBySignalePar(signaleParId);
-                System.out.println("Found " + problems.size() + " problems reported by user " + signaleParId);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes reported by user ID %d fetched successfully", signaleParId))).build();
-            }
-            
-            // Filter by resolver
-            if (resoluParId != null) {
-                List<Probleme> problems = problemeService.findByResoluPar(resoluParId);
-                System.out.println("Found " + problems.size() + " problems resolved by user " + resoluParId);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes resolved by user ID %d fetched successfully", resoluParId))).build();
-            }
-            
-            // Filter by severity
-            if (gravite != null && !gravite.isEmpty()) {
-                List<Probleme> problems = problemeService.findByGravite(gravite);
-                System.out.println("Found " + problems.size() + " problems with severity " + gravite);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes with severity '%s' fetched successfully", gravite))).build();
-            }
-            
-            // Filter by status
-            if (statut != null && !statut.isEmpty()) {
-                List<Probleme> problems = problemeService.findByStatut(statut);
-                System.out.println("Found " + problems.size() + " problems with status " + statut);
-                return Response.ok(new ApiResponse<>(true, problems, 
-                        String.format("Problèmes with status '%s' fetched successfully", statut))).build();
-            }
-            
-            // No filters, get all
-            List<Probleme> allProblems = problemeService.findAll();
-            System.out.println("Found " + allProblems.size() + " total problems");
-            return Response.ok(new ApiResponse<>(true, allProblems, 
+            filter = new ProblemeFilter(
+                    operationId,
+                    isBlank(type) ? null : Probleme.Type.fromLabel(type),
+                    signaleParId,
+                    resoluParId,
+                    isBlank(gravite) ? null : Probleme.Gravite.fromLabel(gravite),
+                    isBlank(statut) ? null : Probleme.Statut.fromLabel(statut),
+                    parseDate(detectedFrom),
+                    parseDate(detectedTo),
+                    parseDate(resolvedFrom),
+                    parseDate(resolvedTo));
+            // Rows carry only the ids of their operation and users unless expanded
+            expanded = ProblemeSummary.parseExpand(expand);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, "Invalid filter: " + e.getMessage())).build();
+        }
+        
+        if (Pagination.requested(limit, after)) {
+            return Pagination.page(limit,
+                    pageLimit -> problemeService.findSummaryPage(filter, Pagination.emptyToNull(after), pageLimit,
+                        includeTotal, expanded),
+                    "Problèmes fetched successfully");
+        }
+        
+        try {
+            List<ProblemeSummary> problems = problemeService.findSummaries(filter, expanded);
+            logger.debug("Found {} problems matching {}", problems.size(), filter);
+            return Response.ok(new ApiResponse<>(true, problems, 
                     "Problèmes fetched successfully")).build();
         } catch (Exception e) {
-            System.err.println("Error in getAllProblemes: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in getAllProblemes", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching problems: " + e.getMessage()))
                     .build();
         }
     }
 
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static LocalDate parseDate(String value) {
+        return isBlank(value) ? null : LocalDate.parse(value);
+    }
+
+    // Whole collection, written row by row as it is read; memory use does not grow with the table
+    @GET
+    @Path("/export")
+    public Response exportProblemes() {
+        return Response.ok(streamingExportService.export("problemes", problemeService::streamAll,
+                "Problèmes fetched successfully")).build();
+    }
+
     @GET
     @Path("/{id}")
     public Response getProbleme(@PathParam("id") Long id) {
         try {
-            System.out.println("=== GET PROBLEME BY ID ===");
-            System.out.println("Fetching problem with ID: " + id);
-            
             return problemeService.findById(id)
-                    .map(probleme -> {
-                        System.out.println("Found problem: " + probleme.getDescription());
-                        return Response.ok(new ApiResponse<>(true, probleme, 
-                            String.format("Problème with ID %d fetched successfully", id))).build();
-                    })
+                    .map(probleme -> Versioning.ok(probleme, probleme.getVersion(), 
+                            String.format("Problème with ID %d fetched successfully", id)))
                     .orElse(Response.status(Response.Status.NOT_FOUND)
                             .entity(new ApiResponse<>(false, null, 
                                 String.format("Problème with ID %d not found", id))).build());
         } catch (Exception e) {
-            System.err.println("Error fetching problem " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error fetching problem {}", id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error fetching problem: " + e.getMessage()))
                     .build();
@@ -138,21 +149,14 @@ public class ProblemeResource {
     @POST
     public Response createProbleme(Probleme probleme) {
         try {
-            System.out.println("=== CREATE PROBLEME ===");
-            System.out.println("Creating problem: " + probleme.getDescription());
-            System.out.println("Type: " + probleme.getType());
-            System.out.println("Gravité: " + probleme.getGravite());
-            
             Probleme created = problemeService.create(probleme);
-            System.out.println("Successfully created problem with ID: " + created.getId());
             
             return Response.status(Response.Status.CREATED)
                     .entity(new ApiResponse<>(true, created, 
                         String.format("Problème created successfully with ID %d", created.getId())))
                     .build();
         } catch (Exception e) {
-            System.err.println("Error creating problem: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error creating problem", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error creating problem: " + e.getMessage()))
                     .build();
@@ -161,24 +165,16 @@ public class ProblemeResource {
 
     @PUT
     @Path("/{id}")  
-    public Response updateProbleme(@PathParam("id") Long id, Probleme probleme) {
+    public Response updateProbleme(@PathParam("id") Long id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+                                   Probleme probleme) {
         try {
-            System.out.println("=== UPDATE PROBLEME ===");
-            System.out.println("Updating problem with ID: " + id);
-            System.out.println("New status: " + probleme.getStatut());
+            logger.debug("Updating problem {} with status {}", id, probleme.getStatut());
             
-            return problemeService.update(id, probleme)
-                    .map(updated -> {
-                        System.out.println("Successfully updated problem: " + updated.getId());
-                        return Response.ok(new ApiResponse<>(true, updated, 
-                            String.format("Problème with ID %d updated successfully", id))).build();
-                    })
-                    .orElse(Response.status(Response.Status.NOT_FOUND)
-                            .entity(new ApiResponse<>(false, null, 
-                                String.format("Problème with ID %d not found", id))).build());
+            return Versioning.update(ifMatch, probleme.getVersion(), String.format("Problème with ID %d", id),
+                    expectedVersion -> problemeService.update(id, expectedVersion, probleme),
+                    () -> problemeService.findById(id), Probleme::getVersion);
         } catch (Exception e) {
-            System.err.println("Error updating problem " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error updating problem {}", id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error updating problem: " + e.getMessage()))
                     .build();
@@ -189,63 +185,104 @@ public class ProblemeResource {
     @Path("/{id}")
     public Response deleteProbleme(@PathParam("id") Long id) {
         try {
-            System.out.println("=== DELETE PROBLEME ===");
-            System.out.println("Deleting problem with ID: " + id);
+            logger.debug("Deleting problem with ID: {}", id);
             
             boolean deleted = problemeService.delete(id);
             if (deleted) {
-                System.out.println("Successfully deleted problem: " + id);
+                logger.debug("Successfully deleted problem: {}", id);
                 return Response.ok(new ApiResponse<>(true, null, 
                     String.format("Problème with ID %d deleted successfully", id))).build();
             } else {
-                System.out.println("Problem not found for deletion: " + id);
+                logger.debug("Problem not found for deletion: {}", id);
                 return Response.status(Response.Status.NOT_FOUND)
                         .entity(new ApiResponse<>(false, null, 
                             String.format("Problème with ID %d not found", id))).build();
             }
         } catch (Exception e) {
-            System.err.println("Error deleting problem " + id + ": " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error deleting problem {}", id, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error deleting problem: " + e.getMessage()))
                     .build();
         }
     }
 
+    /**
+     * Queues problem detection for a daily report and answers 202 with the
+     * detection job; poll GET /problemes/detect/{dailyReportId} for its status.
+     * With sync=true detection runs inside the request and the detected
+     * problems are returned, as before.
+     */
     @POST
     @Path("/detect")
-    public Response detectProblems(ProblemDetectionRequest request) {
+    public Response detectProblems(ProblemDetectionRequest request, @QueryParam("sync") @DefaultValue("false") boolean sync) {
+        if (request == null || request.getDailyReportId() == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, "Daily report ID is required"))
+                    .build();
+        }
+        if (!sync) {
+            return queueDetection(request);
+        }
         try {
-            System.out.println("=== PROBLEM DETECTION REQUEST ===");
-            System.out.println("Daily Report ID: " + request.getDailyReportId());
-            System.out.println("Updated Operation IDs: " + request.getUpdatedOperationIds());
-            
-            if (request.getDailyReportId() == null) {
-                System.err.println("Daily report ID is null");
-                return Response.status(Response.Status.BAD_REQUEST)
-                        .entity(new ApiResponse<>(false, null, "Daily report ID is required"))
-                        .build();
-            }
+            logger.debug("Synchronous problem detection for daily report {}, operations {}",
+                request.getDailyReportId(), request.getUpdatedOperationIds());
             
-            List<Probleme> detectedProblems = problemeService.detectProblemsFromDailyReport(
+            List<Probleme> detectedProblems = problemeService.runDetection(
                 request.getDailyReportId(), request.getUpdatedOperationIds());
             
-            System.out.println("Detected " + detectedProblems.size() + " problems");
-            for (Probleme problem : detectedProblems) {
-                System.out.println("- " + problem.getType() + ": " + problem.getDescription());
-            }
+            logger.debug("Detected {} problems", detectedProblems.size());
             
             return Response.ok(new ApiResponse<>(true, detectedProblems, 
                 String.format("Problem detection completed. %d problems detected.", detectedProblems.size()))).build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ApiResponse<>(false, null, e.getMessage()))
+                    .build();
         } catch (Exception e) {
-            System.err.println("Error in problem detection: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error in problem detection", e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity(new ApiResponse<>(false, null, "Error during problem detection: " + e.getMessage()))
                     .build();
         }
     }
 
+    private Response queueDetection(ProblemDetectionRequest request) {
+        try {
+            DetectionJob job = detectionJobService.submit(request.getDailyReportId(), request.getUpdatedOperationIds());
+            return Response.status(Response.Status.ACCEPTED)
+                    .location(URI.create("problemes/detect/" + job.getDailyReportId()))
+                    .entity(new ApiResponse<>(true, job, "Problem detection queued"))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity(new ApiResponse<>(false, null, e.getMessage()))
+                    .build();
+        } catch (Exception e) {
+            logger.error("Error queuing problem detection", e);
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ApiResponse<>(false, null, "Error queuing problem detection: " + e.getMessage()))
+                    .build();
+        }
+    }
+
+    @GET
+    @Path("/detect/{dailyReportId}")
+    public Response getDetectionStatus(@PathParam("dailyReportId") Long dailyReportId) {
+        try {
+            return detectionJobService.findByDailyReport(dailyReportId)
+                    .map(job -> Response.ok(new ApiResponse<>(true, job, 
+                        "Problem detection " + job.getStatus())).build())
+                    .orElse(Response.status(Response.Status.NOT_FOUND)
+                        .entity(new ApiResponse<>(false, null, 
+                            String.format("No problem detection for daily report %d", dailyReportId)))
+                        .build());
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity(new ApiResponse<>(false, null, "Error fetching detection status: " + e.getMessage()))
+                    .build();
+        }
+    }
+
     // Inner class for request body
     public static class ProblemDetectionRequest {
         private Long dailyReportId;
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.Puit;
 import com.example.backend.service.PuitService;
+import com.example.backend.service.ReferenceDataCache;
 
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
@@ -30,12 +31,14 @@ public class PuitResource {
     }
 
     @GET
+    @ConditionalGet({ PuitService.VERSION_NAME, ReferenceDataCache.REGIONS })
     public Response getAllPuits() {
         return Response.ok(new ApiResponse<>(true, puitService.findAll(), "Puits fetched successfully")).build();
     }
 
     @GET
     @Path("/{id}")
+    @ConditionalGet({ PuitService.VERSION_NAME, ReferenceDataCache.REGIONS })
     public Response getPuit(@PathParam("id") Long id) {
         return puitService.findById(id)
                 .map(puit -> Response.ok(new ApiResponse<>(true, puit, 
@@ -47,6 +50,7 @@ public class PuitResource {
     
     @GET
     @Path("/region/{regionId}")
+    @ConditionalGet({ PuitService.VERSION_NAME, ReferenceDataCache.REGIONS })
     public Response getPuitsByRegion(@PathParam("regionId") Long regionId) {
         return Response.ok(new ApiResponse<>(true, puitService.findByRegion(regionId), 
                 String.format("Puits for region with ID %d fetched successfully", regionId))).build();
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.Region;
+import com.example.backend.service.ReferenceDataCache;
 import com.example.backend.service.RegionService;
 
 import jakarta.ws.rs.Consumes;
@@ -30,12 +31,14 @@ public class RegionResource {
     }
 
     @GET
+    @ConditionalGet(value = ReferenceDataCache.REGIONS, maxAge = 60)
     public Response getAllRegions() {
         return Response.ok(new ApiResponse<>(true, regionService.findAll(), "Regions fetched successfully")).build();
     }
 
     @GET
     @Path("/{id}")
+    @ConditionalGet(value = ReferenceDataCache.REGIONS, maxAge = 60)
     public Response getRegion(@PathParam("id") Long id) {
         return regionService.findById(id)
                 .map(region -> Response.ok(new ApiResponse<>(true, region, 
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.TypeIndicateur;
+import com.example.backend.service.ReferenceDataCache;
 import com.example.backend.service.TypeIndicateurService;
 
 import jakarta.ws.rs.Consumes;
@@ -31,6 +32,7 @@ public class TypeIndicateurResource {
     }
 
     @GET
+    @ConditionalGet(value = ReferenceDataCache.TYPE_INDICATEURS, maxAge = 60)
     public Response getAllTypeIndicateurs(@QueryParam("obligatoire") Boolean estObligatoire) {
         if (estObligatoire != null) {
             return Response.ok(new ApiResponse<>(true, typeIndicateurService.findByEstObligatoire(estObligatoire), 
@@ -42,6 +44,7 @@ public class TypeIndicateurResource {
 
     @GET
     @Path("/{id}")
+    @ConditionalGet(value = ReferenceDataCache.TYPE_INDICATEURS, maxAge = 60)
     public Response getTypeIndicateur(@PathParam("id") Long id) {
         return typeIndicateurService.findById(id)
                 .map(typeIndicateur -> Response.ok(new ApiResponse<>(true, typeIndicateur, 
@@ -53,6 +56,7 @@ public class TypeIndicateurResource {
     
     @GET
     @Path("/type-operation/{typeOperationCode}")
+    @ConditionalGet(value = ReferenceDataCache.TYPE_INDICATEURS, maxAge = 60)
     public Response getTypeIndicateursByTypeOperation(@PathParam("typeOperationCode") String typeOperationCode) {
         return Response.ok(new ApiResponse<>(true, typeIndicateurService.findByTypeOperation(typeOperationCode), 
                 String.format("Type indicateurs for type operation with code '%s' fetched successfully", typeOperationCode))).build();
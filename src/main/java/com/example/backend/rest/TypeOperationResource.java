@@ -4,6 +4,7 @@ import org.springframework.stereotype.Component;
 
 import com.example.backend.model.ApiResponse;
 import com.example.backend.model.TypeOperation;
+import com.example.backend.service.ReferenceDataCache;
 import com.example.backend.service.TypeOperationService;
 
 import jakarta.ws.rs.Consumes;
@@ -30,6 +31,7 @@ public class TypeOperationResource {
     }
 
     @GET
+    @ConditionalGet(value = ReferenceDataCache.TYPE_OPERATIONS, maxAge = 60)
     public Response getAllTypeOperations() {
         return Response.ok(new ApiResponse<>(true, typeOperationService.findAll(), 
                 "Type operations fetched successfully")).build();
@@ -37,6 +39,7 @@ public class TypeOperationResource {
 
     @GET
     @Path("/{code}")
+    @ConditionalGet(value = ReferenceDataCache.TYPE_OPERATIONS, maxAge = 60)
     public Response getTypeOperation(@PathParam("code") String code) {
         return typeOperationService.findById(code)
                 .map(typeOperation -> Response.ok(new ApiResponse<>(true, typeOperation, 
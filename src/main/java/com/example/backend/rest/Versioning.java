@@ -0,0 +1,120 @@
+package com.example.backend.rest;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.example.backend.model.ApiResponse;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Shared responses of the endpoints of entities with a @Version column
+ * (operations, phases, problèmes, daily reports).
+ *
+ * GET by id sends the version as the ETag. PUT takes the version the
+ * change was made from in If-Match, or else in the "version" field of the
+ * body, and is rejected if the entity has moved on since: 412 when it came
+ * from If-Match, 409 otherwise. Both carry the current state and its ETag
+ * so the client can merge and retry. A PUT with neither, or with
+ * "If-Match: *", is applied as before, with only concurrent transactions
+ * rejected.
+ *
+ * The ETag is strong, as If-Match compares tags strongly. Tomcat does not
+ * compress a response with a strong ETag, which costs little here: a
+ * single entity is mostly under the 2KB compression threshold anyway.
+ */
+final class Versioning {
+
+    private Versioning() {
+    }
+
+    static EntityTag tag(Long version) {
+        return version != null ? new EntityTag(version.toString()) : null;
+    }
+
+    static Response ok(Object entity, Long version, String message) {
+        return Response.ok(new ApiResponse<>(true, entity, message)).tag(tag(version)).build();
+    }
+
+    /**
+     * The version named by an If-Match header, falling back to bodyVersion
+     * when there is none. A weak tag is rejected like any other tag this
+     * resource never sends.
+     *
+     * @throws IllegalArgumentException if If-Match is not a single strong version tag
+     */
+    static Long expectedVersion(String ifMatch, Long bodyVersion) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return bodyVersion;
+        }
+        if (ifMatch.trim().equals("*")) {
+            return null;
+        }
+        try {
+            EntityTag tag = EntityTag.valueOf(ifMatch.trim());
+            if (!tag.isWeak()) {
+                return Long.valueOf(tag.getValue());
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a version tag, rejected below
+        }
+        throw new IllegalArgumentException("If-Match must be a single ETag of this resource: " + ifMatch);
+    }
+
+    /**
+     * Runs an update with the expected version, answering 200 with the new
+     * ETag, 404 if the entity does not exist, 400 on invalid input, and
+     * 412 or 409 with the current state if the version check failed.
+     *
+     * @param name    what to call the entity in messages, e.g. "Operation with ID 3"
+     * @param update  the update, given the expected version (null for none)
+     * @param current reads the entity again after a failed version check
+     */
+    static <T> Response update(String ifMatch, Long bodyVersion, String name, Function<Long, Optional<T>> update,
+                               Supplier<Optional<T>> current, Function<T, Long> versionOf) {
+        Long expectedVersion;
+        try {
+            expectedVersion = expectedVersion(ifMatch, bodyVersion);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage())).build();
+        }
+
+        Optional<T> updated;
+        try {
+            updated = update.apply(expectedVersion);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new ApiResponse<>(false, null, e.getMessage())).build();
+        } catch (OptimisticLockingFailureException e) {
+            return conflict(ifMatch != null && expectedVersion != null, name, current.get(), versionOf);
+        }
+        return updated
+                .map(entity -> ok(entity, versionOf.apply(entity), name + " updated successfully"))
+                .orElseGet(() -> notFound(name));
+    }
+
+    private static <T> Response conflict(boolean preconditionFailed, String name, Optional<T> current,
+                                         Function<T, Long> versionOf) {
+        if (current.isEmpty()) {
+            // Deleted since it was read
+            return notFound(name);
+        }
+        T entity = current.get();
+        Long version = versionOf.apply(entity);
+        return Response.status(preconditionFailed ? Response.Status.PRECONDITION_FAILED : Response.Status.CONFLICT)
+                .tag(tag(version))
+                .entity(new ApiResponse<>(false, entity,
+                    String.format("%s was modified by another request, it is now at version %d", name, version)))
+                .build();
+    }
+
+    private static Response notFound(String name) {
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(new ApiResponse<>(false, null, name + " not found")).build();
+    }
+}
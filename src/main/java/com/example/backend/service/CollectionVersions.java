@@ -0,0 +1,76 @@
+package com.example.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Current version of each named collection served by the read endpoints,
+ * from which ConditionalGetFeature builds ETag and Last-Modified headers
+ * without loading or serializing anything.
+ *
+ * A collection is either counted, its version bumped by the services that
+ * write to it, or backed by a source registered by a cache, whose version
+ * is that of the snapshot it currently serves. A source returns null while
+ * it has no fresh snapshot, and the response then goes out without
+ * validators.
+ *
+ * Counters live in this JVM and restart with it; the boot time in the tag
+ * keeps tags from a previous run from matching.
+ */
+@Component
+public class CollectionVersions {
+
+    public record Version(String tag, long lastModified) {}
+
+    private record Counter(long value, long lastModified) {}
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final long bootTime = System.currentTimeMillis();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Version>> sources = new ConcurrentHashMap<>();
+
+    public void register(String name, Supplier<Version> source) {
+        sources.put(name, source);
+    }
+
+    /**
+     * The version of the collection, or null if it is not known right now.
+     */
+    public Version current(String name) {
+        Supplier<Version> source = sources.get(name);
+        if (source != null) {
+            return source.get();
+        }
+        Counter counter = counters.getOrDefault(name, new Counter(0, bootTime));
+        return new Version(bootId + "." + counter.value(), counter.lastModified());
+    }
+
+    /**
+     * Moves a counted collection to a new version. Inside a transaction this
+     * is deferred until commit, so the new version is never served with the
+     * old data.
+     */
+    public void bump(String name) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpNow(name);
+                }
+            });
+        } else {
+            bumpNow(name);
+        }
+    }
+
+    private void bumpNow(String name) {
+        long now = System.currentTimeMillis();
+        counters.merge(name, new Counter(1, now),
+            (previous, ignored) -> new Counter(previous.value() + 1, now));
+    }
+}
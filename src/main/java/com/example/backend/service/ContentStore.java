@@ -0,0 +1,211 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Content-addressed file store for document bytes.
+ *
+ * A blob lives at {root}/{aa}/{bb}/{sha256}, named by the SHA-256 of its
+ * bytes, so identical uploads are stored once. Uploads are streamed through
+ * a direct buffer into a temporary file while being hashed, then moved into
+ * place; nothing is held in the heap.
+ *
+ * Blobs are never deleted when a document lets go of them, since a
+ * concurrent upload may just have deduplicated against the same blob.
+ * collectGarbage() removes blobs that no document references and that have
+ * not been written or deduplicated against for a grace period.
+ */
+@Component
+public class ContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path root;
+    private final Path tmp;
+
+    public record StoredContent(String sha256, long size) {}
+
+    public ContentStore(@Value("${documents.storage.root:./data/documents}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(tmp);
+        logger.info("Document content store at {}", root);
+    }
+
+    /**
+     * Writes the stream to the store and returns its hash and size. The
+     * stream is read to the end but not closed.
+     */
+    public StoredContent store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = tmp.resolve(UUID.randomUUID() + ".part");
+        long size = 0;
+        try {
+            ReadableByteChannel source = Channels.newChannel(content);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        size += target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                target.force(true);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path blob = pathOf(sha256);
+            if (Files.exists(blob)) {
+                // Same bytes already stored; refresh the blob so garbage collection leaves it alone
+                Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+            } else {
+                Files.createDirectories(blob.getParent());
+                moveIntoPlace(temp, blob);
+            }
+            return new StoredContent(sha256, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path blob) throws IOException {
+        try {
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Stored by a concurrent upload of the same bytes
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(temp, blob);
+            } catch (FileAlreadyExistsException alreadyStored) {
+                // Stored by a concurrent upload of the same bytes
+            }
+        }
+    }
+
+    /**
+     * Path of a stored blob.
+     *
+     * @throws IllegalArgumentException if the hash is malformed
+     */
+    public Path pathOf(String sha256) {
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    /**
+     * Size in bytes of a stored blob.
+     *
+     * @throws NoSuchFileException if no blob has this hash
+     */
+    public long size(String sha256) throws IOException {
+        return Files.size(pathOf(sha256));
+    }
+
+    /**
+     * Copies count bytes of a blob, from position, to the output stream with
+     * FileChannel.transferTo. The stream is not closed.
+     */
+    public void transferTo(String sha256, long position, long count, OutputStream output) throws IOException {
+        try (FileChannel source = FileChannel.open(pathOf(sha256), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(output);
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = source.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    // Nothing left to read before count was reached
+                    throw new IOException("Blob " + sha256 + " is shorter than " + (position + remaining) + " bytes");
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * Deletes the blobs that isReferenced() rejects and that were last
+     * written before the grace period, plus abandoned temporary files.
+     * Returns the number of blobs deleted.
+     */
+    public int collectGarbage(Predicate<String> isReferenced, long graceMillis) throws IOException {
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        int deleted = 0;
+        List<Path> candidates;
+        try (Stream<Path> files = Files.walk(root)) {
+            candidates = files
+                .filter(Files::isRegularFile)
+                .filter(path -> lastModified(path) < cutoff)
+                .toList();
+        }
+        for (Path path : candidates) {
+            String name = path.getFileName().toString();
+            if (path.startsWith(tmp)) {
+                Files.deleteIfExists(path);
+            } else if (SHA256_HEX.matcher(name).matches() && !isReferenced.test(name)
+                    // An upload may have deduplicated against it since the walk
+                    && lastModified(path) < cutoff) {
+                Files.deleteIfExists(path);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // Files removed while walking (finished uploads) count as recent
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.backend.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.backend.dto.CostTotals;
+import com.example.backend.model.CostRollup;
+import com.example.backend.model.Forage;
+import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.Puit;
+import com.example.backend.repository.CostRollupRepository;
+import com.example.backend.repository.OperationRepository;
+
+/**
+ * Maintains the cost_rollups table: per phase, forage, puit and type
+ * d'opération running totals of coutPrevu/coutReel.
+ *
+ * OperationService reports every create/update/delete here and the totals are
+ * adjusted by delta inside the same transaction. rebuild() recomputes all rows
+ * from the operations table and reports how far the running totals drifted.
+ *
+ * Deltas and rebuild both write through the JDBC connection of the current
+ * transaction (JdbcTemplate takes part in the JPA transaction). A failed
+ * statement there only undoes that statement, where a failed JPA query
+ * would mark the whole transaction, and the user's operation write with
+ * it, for rollback.
+ */
+@Service
+@Transactional
+public class CostRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CostRollupService.class);
+
+    // Differences below this are rounding noise, not drift
+    private static final double DRIFT_TOLERANCE = 0.005;
+
+    @Autowired
+    private CostRollupRepository costRollupRepository;
+
+    @Autowired
+    private OperationRepository operationRepository;
+
+    @Autowired
+    private DashboardCache dashboardCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Adds the delta to the row of the scope key, creating the row if it is the first
+    private static final String MERGE_DELTA =
+        "MERGE INTO cost_rollups r " +
+        "USING (SELECT ? scope, ? scope_key FROM dual) k " +
+        "ON (r.scope = k.scope AND r.scope_key = k.scope_key) " +
+        "WHEN MATCHED THEN UPDATE SET " +
+        "r.cout_prevu = r.cout_prevu + ?, r.cout_reel = r.cout_reel + ?, " +
+        "r.operation_count = r.operation_count + ?, r.updated_at = ? " +
+        "WHEN NOT MATCHED THEN INSERT (id, scope, scope_key, cout_prevu, cout_reel, operation_count, updated_at) " +
+        "VALUES (cost_rollups_seq.NEXTVAL, k.scope, k.scope_key, ?, ?, ?, ?)";
+
+    /**
+     * What a single operation contributes to the rollups. Taken before an
+     * update so the old contribution can be withdrawn.
+     */
+    public record Contribution(Long phaseId, Long forageId, Long puitId, String typeOperationCode,
+                               double coutPrevu, double coutReel) {
+
+        public static Contribution of(Operation operation) {
+            Phase phase = operation.getPhase();
+            Forage forage = phase != null ? phase.getForage() : null;
+            Puit puit = forage != null ? forage.getPuit() : null;
+            return new Contribution(
+                phase != null ? phase.getId() : null,
+                forage != null ? forage.getId() : null,
+                puit != null ? puit.getId() : null,
+                operation.getTypeOperation() != null ? operation.getTypeOperation().getCode() : null,
+                operation.getCoutPrev() != null ? operation.getCoutPrev() : 0.0,
+                operation.getCoutReel() != null ? operation.getCoutReel() : 0.0);
+        }
+    }
+
+    private record RollupKey(CostRollup.Scope scope, String scopeKey) {}
+
+    // Accumulated change for one rollup row: planned, actual, operation count
+    private static final class Delta {
+        double coutPrevu;
+        double coutReel;
+        long operationCount;
+
+        boolean isZero() {
+            return coutPrevu == 0.0 && coutReel == 0.0 && operationCount == 0;
+        }
+    }
+
+    public void recordCreated(Operation operation) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        accumulate(deltas, Contribution.of(operation), 1);
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Adds a batch of new operations with one update per affected rollup row,
+     * rather than one per operation and row.
+     */
+    public void recordAllCreated(Collection<Operation> operations) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        for (Operation operation : operations) {
+            accumulate(deltas, Contribution.of(operation), 1);
+        }
+        applyDeltas(deltas);
+    }
+
+    public void recordUpdated(Contribution before, Operation after) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        accumulate(deltas, before, -1);
+        accumulate(deltas, Contribution.of(after), 1);
+        applyDeltas(deltas);
+    }
+
+    public void recordDeleted(Operation operation) {
+        Map<RollupKey, Delta> deltas = new HashMap<>();
+        accumulate(deltas, Contribution.of(operation), -1);
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Moves a phase's totals from one forage/puit to another when the phase is
+     * reassigned; its own PHASE row and the type rows are unaffected.
+     */
+    public void recordPhaseMoved(Long phaseId, Forage oldForage, Forage newForage) {
+        costRollupRepository.findByScopeAndScopeKey(CostRollup.Scope.PHASE, String.valueOf(phaseId))
+            .ifPresent(phaseRollup -> {
+                Map<RollupKey, Delta> deltas = new HashMap<>();
+                accumulateForage(deltas, oldForage, phaseRollup, -1);
+                accumulateForage(deltas, newForage, phaseRollup, 1);
+                applyDeltas(deltas);
+            });
+    }
+
+    private void accumulateForage(Map<RollupKey, Delta> deltas, Forage forage, CostRollup totals, int sign) {
+        if (forage == null) {
+            return;
+        }
+        add(deltas, CostRollup.Scope.FORAGE, forage.getId(), totals.getCoutPrevu(), totals.getCoutReel(),
+            totals.getOperationCount(), sign);
+        if (forage.getPuit() != null) {
+            add(deltas, CostRollup.Scope.PUIT, forage.getPuit().getId(), totals.getCoutPrevu(), totals.getCoutReel(),
+                totals.getOperationCount(), sign);
+        }
+    }
+
+    private void accumulate(Map<RollupKey, Delta> deltas, Contribution contribution, int sign) {
+        add(deltas, CostRollup.Scope.PHASE, contribution.phaseId(), contribution.coutPrevu(), contribution.coutReel(), 1, sign);
+        add(deltas, CostRollup.Scope.FORAGE, contribution.forageId(), contribution.coutPrevu(), contribution.coutReel(), 1, sign);
+        add(deltas, CostRollup.Scope.PUIT, contribution.puitId(), contribution.coutPrevu(), contribution.coutReel(), 1, sign);
+        add(deltas, CostRollup.Scope.TYPE_OPERATION, contribution.typeOperationCode(), contribution.coutPrevu(),
+            contribution.coutReel(), 1, sign);
+    }
+
+    private void add(Map<RollupKey, Delta> deltas, CostRollup.Scope scope, Object key,
+                     double coutPrevu, double coutReel, long operationCount, int sign) {
+        if (key == null) {
+            return;
+        }
+        Delta delta = deltas.computeIfAbsent(new RollupKey(scope, String.valueOf(key)), k -> new Delta());
+        delta.coutPrevu += sign * coutPrevu;
+        delta.coutReel += sign * coutReel;
+        delta.operationCount += sign * operationCount;
+    }
+
+    private void applyDeltas(Map<RollupKey, Delta> deltas) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<RollupKey, Delta> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            Delta delta = entry.getValue();
+            if (delta.isZero()) {
+                continue;
+            }
+            try {
+                mergeDelta(key, delta, now);
+            } catch (DuplicateKeyException e) {
+                // Another transaction inserted the row after our MERGE looked for it; it matches now
+                mergeDelta(key, delta, now);
+            }
+        }
+    }
+
+    private void mergeDelta(RollupKey key, Delta delta, LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        jdbcTemplate.update(MERGE_DELTA, key.scope().name(), key.scopeKey(),
+            delta.coutPrevu, delta.coutReel, delta.operationCount, updatedAt,
+            delta.coutPrevu, delta.coutReel, delta.operationCount, updatedAt);
+    }
+
+    /**
+     * Recomputes every rollup row from the operations table, overwriting the
+     * running totals, and reports the rows that had drifted.
+     *
+     * The table is locked first, until commit: deltas of operation writes
+     * wait for the rebuild, so none is overwritten by totals computed
+     * without it. Dashboard reads are not blocked.
+     */
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("LOCK TABLE cost_rollups IN EXCLUSIVE MODE");
+
+        Map<RollupKey, CostTotals> expected = new HashMap<>();
+        collect(expected, CostRollup.Scope.PHASE, operationRepository.sumCostsByPhase());
+        collect(expected, CostRollup.Scope.FORAGE, operationRepository.sumCostsByForage());
+        collect(expected, CostRollup.Scope.PUIT, operationRepository.sumCostsByPuit());
+        collect(expected, CostRollup.Scope.TYPE_OPERATION, operationRepository.sumCostsByTypeOperation());
+
+        LocalDateTime now = LocalDateTime.now();
+        int checked = 0;
+        int drifted = 0;
+        int created = 0;
+        int removed = 0;
+        double maxDrift = 0.0;
+
+        for (CostRollup rollup : costRollupRepository.findAll()) {
+            checked++;
+            CostTotals totals = expected.remove(new RollupKey(rollup.getScope(), rollup.getScopeKey()));
+            if (totals == null) {
+                // No operations left under this key
+                if (rollup.getOperationCount() != 0 || Math.abs(rollup.getCoutPrevu()) > DRIFT_TOLERANCE
+                        || Math.abs(rollup.getCoutReel()) > DRIFT_TOLERANCE) {
+                    drifted++;
+                    maxDrift = Math.max(maxDrift, Math.max(Math.abs(rollup.getCoutPrevu()), Math.abs(rollup.getCoutReel())));
+                }
+                costRollupRepository.delete(rollup);
+                removed++;
+                continue;
+            }
+
+            double drift = Math.max(Math.abs(rollup.getCoutPrevu() - totals.coutPrevu()),
+                                    Math.abs(rollup.getCoutReel() - totals.coutReel()));
+            if (drift > DRIFT_TOLERANCE || !rollup.getOperationCount().equals(totals.operationCount())) {
+                drifted++;
+                maxDrift = Math.max(maxDrift, drift);
+                rollup.setCoutPrevu(totals.coutPrevu());
+                rollup.setCoutReel(totals.coutReel());
+                rollup.setOperationCount(totals.operationCount());
+                rollup.setUpdatedAt(now);
+            }
+        }
+
+        // Keys that have operations but no rollup row yet
+        for (Map.Entry<RollupKey, CostTotals> entry : expected.entrySet()) {
+            CostTotals totals = entry.getValue();
+            CostRollup rollup = new CostRollup(entry.getKey().scope(), entry.getKey().scopeKey());
+            rollup.setCoutPrevu(totals.coutPrevu());
+            rollup.setCoutReel(totals.coutReel());
+            rollup.setOperationCount(totals.operationCount());
+            rollup.setUpdatedAt(now);
+            costRollupRepository.save(rollup);
+            created++;
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        if (drifted > 0 || created > 0 || removed > 0) {
+            dashboardCache.invalidate();
+        }
+        if (drifted > 0) {
+            logger.warn("Cost rollup rebuild corrected {} drifted rows (max drift {}), created {}, removed {} in {} ms",
+                drifted, maxDrift, created, removed, elapsed);
+        } else {
+            logger.info("Cost rollup rebuild checked {} rows, created {}, removed {}, no drift, in {} ms",
+                checked, created, removed, elapsed);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("checkedRows", checked);
+        report.put("driftedRows", drifted);
+        report.put("createdRows", created);
+        report.put("removedRows", removed);
+        report.put("maxDrift", maxDrift);
+        report.put("durationMs", elapsed);
+        return report;
+    }
+
+    private void collect(Map<RollupKey, CostTotals> expected, CostRollup.Scope scope, List<CostTotals> totals) {
+        for (CostTotals row : totals) {
+            expected.put(new RollupKey(scope, row.scopeKey()), row);
+        }
+    }
+
+    @Scheduled(cron = "${dashboard.rollup.rebuild-cron:0 30 2 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    // Populate the table the first time the application runs against it
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeIfEmpty() {
+        if (costRollupRepository.count() == 0 && operationRepository.count() > 0) {
+            logger.info("Cost rollup table is empty, building it from the operations table");
+            rebuild();
+        }
+    }
+}
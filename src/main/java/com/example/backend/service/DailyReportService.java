@@ -3,12 +3,26 @@ package com.example.backend.service;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.dto.BatchItemResult;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.DailyReportSubmission;
+import com.example.backend.dto.DailyReportSubmissionResult;
+import com.example.backend.dto.KeysetCursor;
 import com.example.backend.model.DailyReport;
+import com.example.backend.model.Indicateur;
+import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.Puit;
 import com.example.backend.repository.DailyReportRepository;
 import com.example.backend.repository.PhaseRepository;
 import com.example.backend.repository.PuitRepository;
@@ -25,55 +39,101 @@ public class DailyReportService {
     
     @Autowired
     private PhaseRepository phaseRepository;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
+    @Autowired
+    private OperationService operationService;
+    
+    @Autowired
+    private IndicateurService indicateurService;
 
     @Transactional(readOnly = true)
     public List<DailyReport> findAll() {
-        List<DailyReport> reports = dailyReportRepository.findAll();
-        // Initialize collections to avoid lazy loading issues
-        reports.forEach(this::initializeCollections);
-        return reports;
+        return initializeCollections(dailyReportRepository.findAll());
+    }
+
+    /**
+     * Keyset-paginated listing, most recent report date first, of the
+     * reports of the given well and date (either may be null for all).
+     *
+     * @throws IllegalArgumentException on an invalid cursor or limit
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<DailyReport> findPage(Long puitId, LocalDate reportDate, String after, int limit,
+                                            boolean includeTotal) {
+        PageRequest pageRequest = PageRequest.of(0, CursorPage.checkLimit(limit));
+        Slice<DailyReport> slice;
+        if (after == null) {
+            slice = dailyReportRepository.findPageByDate(puitId, reportDate, pageRequest);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            slice = dailyReportRepository.findPageByDateBefore(puitId, reportDate, cursor.requireDate(), cursor.id(),
+                pageRequest);
+        }
+        initializeCollections(slice.getContent());
+        return CursorPage.of(slice, report -> KeysetCursor.of(report.getReportDate(), report.getId()),
+            includeTotal ? dailyReportRepository.countMatching(puitId, reportDate) : null);
+    }
+
+    /**
+     * All rows in id order, read through a database cursor. Must be consumed
+     * and closed inside the caller's transaction. The collections are not
+     * loaded; pass chunks of rows to initializeCollections() to load them.
+     */
+    @Transactional(readOnly = true)
+    public Stream<DailyReport> streamAll() {
+        return dailyReportRepository.streamAll();
     }
 
     @Transactional(readOnly = true)
     public Optional<DailyReport> findById(Long id) {
-        Optional<DailyReport> report = dailyReportRepository.findById(id);
-        report.ifPresent(this::initializeCollections);
+        Optional<DailyReport> report = dailyReportRepository.findDetailById(id);
+        report.ifPresent(dailyReport -> Hibernate.initialize(dailyReport.getIndicators()));
         return report;
     }
     
+    /**
+     * The report with only what problem detection reads: its current phase.
+     */
+    @Transactional(readOnly = true)
+    public Optional<DailyReport> findForDetection(Long id) {
+        return dailyReportRepository.findForDetectionById(id);
+    }
+    
     @Transactional(readOnly = true)
     public List<DailyReport> findByPuit(Long puitId) {
-        List<DailyReport> reports = puitRepository.findById(puitId)
+        return initializeCollections(puitRepository.findById(puitId)
                 .map(puit -> dailyReportRepository.findByConcernedWell(puit))
-                .orElse(List.of());
-        reports.forEach(this::initializeCollections);
-        return reports;
+                .orElse(List.of()));
     }
     
     @Transactional(readOnly = true)
     public List<DailyReport> findByReportDate(LocalDate reportDate) {
-        List<DailyReport> reports = dailyReportRepository.findByReportDate(reportDate);
-        reports.forEach(this::initializeCollections);
-        return reports;
+        return initializeCollections(dailyReportRepository.findByReportDate(reportDate));
     }
     
     @Transactional(readOnly = true)
     public List<DailyReport> findByPuitAndDate(Long puitId, LocalDate reportDate) {
-        List<DailyReport> reports = puitRepository.findById(puitId)
+        return initializeCollections(puitRepository.findById(puitId)
                 .map(puit -> dailyReportRepository.findByConcernedWellAndReportDate(puit, reportDate))
-                .orElse(List.of());
-        reports.forEach(this::initializeCollections);
-        return reports;
+                .orElse(List.of()));
     }
 
-    private void initializeCollections(DailyReport dailyReport) {
-        // Force initialization of lazy collections
-        if (dailyReport.getOperationsPerformed() != null) {
-            dailyReport.getOperationsPerformed().size();
-        }
-        if (dailyReport.getIndicators() != null) {
-            dailyReport.getIndicators().size();
+    /**
+     * Loads the operations and indicators of the reports before they leave
+     * the transaction to be serialized. Both collections are batch fetched,
+     * so this takes two queries per 50 reports rather than two per report.
+     * Must be called inside the transaction that loaded the reports.
+     */
+    @Transactional(readOnly = true)
+    public List<DailyReport> initializeCollections(List<DailyReport> reports) {
+        for (DailyReport dailyReport : reports) {
+            Hibernate.initialize(dailyReport.getOperationsPerformed());
+            Hibernate.initialize(dailyReport.getIndicators());
         }
+        return reports;
     }
 
     public DailyReport create(DailyReport dailyReport) {
@@ -107,13 +167,25 @@ public class DailyReportService {
         if (dailyReport.getDailyCost() == null) {
             dailyReport.setDailyCost(0.0);
         }
+        dailyReport.setVersion(null);
 
         return dailyReportRepository.save(dailyReport);
     }
 
-    public Optional<DailyReport> update(Long id, DailyReport dailyReportData) {
+    /**
+     * Applies the non-null fields of dailyReportData, flushing so the
+     * returned report carries its new version. Operations and indicateurs
+     * added to the report do not change its version.
+     *
+     * @param expectedVersion the version the change was made from, or null to skip the check
+     * @throws ObjectOptimisticLockingFailureException if the report is no
+     *         longer at expectedVersion or was updated concurrently
+     */
+    public Optional<DailyReport> update(Long id, Long expectedVersion, DailyReport dailyReportData) {
         return dailyReportRepository.findById(id)
                 .map(dailyReport -> {
+                    OptimisticLocking.checkVersion(DailyReport.class, id, dailyReport.getVersion(), expectedVersion);
+                    
                     if (dailyReportData.getReportName() != null) {
                         dailyReport.setReportName(dailyReportData.getReportName());
                     }
@@ -122,15 +194,11 @@ public class DailyReportService {
                         dailyReport.setReportDate(dailyReportData.getReportDate());
                     }
                     
-                    if (dailyReportData.getConcernedWell() != null && dailyReportData.getConcernedWell().getId() != null) {
-                        puitRepository.findById(dailyReportData.getConcernedWell().getId())
-                                .ifPresent(dailyReport::setConcernedWell);
-                    }
-                    
-                    if (dailyReportData.getCurrentPhase() != null && dailyReportData.getCurrentPhase().getId() != null) {
-                        phaseRepository.findById(dailyReportData.getCurrentPhase().getId())
-                                .ifPresent(dailyReport::setCurrentPhase);
-                    }
+                    // Relationships, as references checked in one query per type
+                    referenceResolver.batch()
+                            .set(Puit.class, dailyReportData.getConcernedWell(), dailyReport.getConcernedWell(), dailyReport::setConcernedWell)
+                            .set(Phase.class, dailyReportData.getCurrentPhase(), dailyReport.getCurrentPhase(), dailyReport::setCurrentPhase)
+                            .resolve();
                     
                     if (dailyReportData.getCurrentDepth() != null) {
                         dailyReport.setCurrentDepth(dailyReportData.getCurrentDepth());
@@ -144,7 +212,44 @@ public class DailyReportService {
                         dailyReport.setDailyCost(dailyReportData.getDailyCost());
                     }
 
-                    return dailyReportRepository.save(dailyReport);
+                    return dailyReportRepository.saveAndFlush(dailyReport);
+                });
+    }
+
+    /**
+     * Saves the operations and indicators of a report in one transaction,
+     * all or nothing: both lists are validated before anything is written.
+     *
+     * @return the per-item results, or empty if there is no report with this id
+     * @throws IllegalArgumentException if the submission is empty or a list is too large
+     */
+    public Optional<DailyReportSubmissionResult> submit(Long id, DailyReportSubmission submission) {
+        List<Operation> operations = submission.operations();
+        List<Indicateur> indicateurs = submission.indicateurs();
+        if (operations.isEmpty() && indicateurs.isEmpty()) {
+            throw new IllegalArgumentException("The submission has no operations or indicateurs");
+        }
+        if (!operations.isEmpty()) {
+            BatchItemResult.checkSize(operations);
+        }
+        if (!indicateurs.isEmpty()) {
+            BatchItemResult.checkSize(indicateurs);
+        }
+
+        return dailyReportRepository.findById(id)
+                .map(dailyReport -> {
+                    DailyReportSubmissionResult result = new DailyReportSubmissionResult(
+                            operationService.validateAll(operations, dailyReport),
+                            indicateurService.validateAll(indicateurs, dailyReport));
+                    if (result.isValid()) {
+                        if (!operations.isEmpty()) {
+                            operationService.saveAll(operations, result.operations());
+                        }
+                        if (!indicateurs.isEmpty()) {
+                            indicateurService.saveAll(indicateurs, result.indicateurs());
+                        }
+                    }
+                    return result;
                 });
     }
 
@@ -0,0 +1,191 @@
+package com.example.backend.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Time-bounded cache in front of DashboardService.getDashboardData().
+ *
+ * The payload is computed once with the largest allowed number of costly
+ * operation types and trimmed per request, so every topN shares one entry.
+ *
+ * Only one thread recomputes at a time: while it does, other callers get the
+ * previous payload if there is one, or wait for the result on a cold cache.
+ * Writes to operations and phases call invalidate(), which takes effect once
+ * their transaction has committed.
+ */
+@Component
+public class DashboardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCache.class);
+
+    // Name of the dashboard payload in CollectionVersions
+    public static final String VERSION_NAME = "dashboard";
+
+    private final DashboardService dashboardService;
+    private final long ttlMillis;
+    private final int maxTopOperations;
+
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot current;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong recomputeNanosTotal = new AtomicLong();
+    private final AtomicLong recomputeNanosMax = new AtomicLong();
+
+    private record Snapshot(Map<String, Object> data, long computedAt, long generation) {}
+
+    public DashboardCache(DashboardService dashboardService,
+                          CollectionVersions collectionVersions,
+                          @Value("${dashboard.cache.ttl-ms:30000}") long ttlMillis,
+                          @Value("${dashboard.costly-operations.max-top-n:50}") int maxTopOperations) {
+        this.dashboardService = dashboardService;
+        this.ttlMillis = ttlMillis;
+        this.maxTopOperations = maxTopOperations;
+        collectionVersions.register(VERSION_NAME, this::version);
+    }
+
+    public int getMaxTopOperations() {
+        return maxTopOperations;
+    }
+
+    /**
+     * Returns the dashboard payload with the {@code topOperations} most costly
+     * operation types (at most getMaxTopOperations()).
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> get(int topOperations) {
+        Map<String, Object> data = get();
+        List<Map<String, Object>> costlyOperations = (List<Map<String, Object>>) data.get("costlyOperations");
+        if (costlyOperations == null || costlyOperations.size() <= topOperations) {
+            return data;
+        }
+        Map<String, Object> trimmed = new HashMap<>(data);
+        trimmed.put("costlyOperations", costlyOperations.subList(0, topOperations));
+        return trimmed;
+    }
+
+    private Map<String, Object> get() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            hits.incrementAndGet();
+            return snapshot.data();
+        }
+
+        if (snapshot != null && !recomputeLock.tryLock()) {
+            // Someone else is already recomputing, serve the previous payload
+            staleHits.incrementAndGet();
+            return snapshot.data();
+        }
+        if (snapshot == null) {
+            // Cold cache: nothing to serve, wait for the thread computing it
+            recomputeLock.lock();
+        }
+
+        try {
+            snapshot = current;
+            if (isFresh(snapshot)) {
+                hits.incrementAndGet();
+                return snapshot.data();
+            }
+            return recompute().data();
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    /**
+     * Version of the payload get() would serve now, or null if it would be
+     * recomputed. invalidate() moves it on once the write has committed.
+     */
+    private CollectionVersions.Version version() {
+        Snapshot snapshot = current;
+        if (!isFresh(snapshot)) {
+            return null;
+        }
+        return new CollectionVersions.Version(snapshot.generation() + "." + snapshot.computedAt(), snapshot.computedAt());
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null
+            && snapshot.generation() == generation.get()
+            && System.currentTimeMillis() - snapshot.computedAt() < ttlMillis;
+    }
+
+    private Snapshot recompute() {
+        misses.incrementAndGet();
+        // Read the generation first so a write committed meanwhile marks this result stale
+        long startGeneration = generation.get();
+        long start = System.nanoTime();
+
+        Map<String, Object> data = dashboardService.getDashboardData(maxTopOperations);
+
+        long elapsed = System.nanoTime() - start;
+        recomputeNanosTotal.addAndGet(elapsed);
+        recomputeNanosMax.accumulateAndGet(elapsed, Math::max);
+        logger.debug("Dashboard payload recomputed in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        Snapshot snapshot = new Snapshot(Collections.unmodifiableMap(data), System.currentTimeMillis(), startGeneration);
+        current = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Marks the cached payload stale. Inside a transaction this is deferred
+     * until commit so a concurrent recompute cannot cache pre-commit data.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        } else {
+            invalidateNow();
+        }
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long staleCount = staleHits.get();
+        long missCount = misses.get();
+        long requests = hitCount + staleCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlMs", ttlMillis);
+        stats.put("requests", requests);
+        stats.put("hits", hitCount);
+        stats.put("staleHits", staleCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", requests > 0 ? (double) (hitCount + staleCount) / requests : 0.0);
+        stats.put("invalidations", invalidations.get());
+        stats.put("recomputeAvgMs", missCount > 0 ?
+            TimeUnit.NANOSECONDS.toMicros(recomputeNanosTotal.get() / missCount) / 1000.0 : 0.0);
+        stats.put("recomputeMaxMs", TimeUnit.NANOSECONDS.toMicros(recomputeNanosMax.get()) / 1000.0);
+        return stats;
+    }
+}
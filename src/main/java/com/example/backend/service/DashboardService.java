@@ -2,18 +2,20 @@ package com.example.backend.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.PriorityQueue;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.backend.model.Operation;
+import com.example.backend.dto.PhaseCostSummary;
+import com.example.backend.dto.TypeOperationCost;
 import com.example.backend.model.Phase;
-import com.example.backend.repository.OperationRepository;
+import com.example.backend.repository.CostRollupRepository;
 import com.example.backend.repository.PhaseRepository;
 
 @Service
@@ -24,49 +26,44 @@ public class DashboardService {
     private PhaseRepository phaseRepository;
     
     @Autowired
-    private OperationRepository operationRepository;
+    private CostRollupRepository costRollupRepository;
 
-    public Map<String, Object> getDashboardData() {
+    /**
+     * Builds the dashboard payload, with at most {@code topOperations} entries
+     * in the most costly operation types section.
+     */
+    public Map<String, Object> getDashboardData(int topOperations) {
         Map<String, Object> dashboardData = new HashMap<>();
         
+        // Planned/actual cost of every phase, summed by the database in one query
+        List<PhaseCostSummary> phaseSummaries = phaseRepository.findPhaseCostSummaries();
+        
         // 1. Costs in DZD per phase for the Card
-        dashboardData.put("phaseCosts", getPhaseCosts());
+        dashboardData.put("phaseCosts", getPhaseCosts(phaseSummaries));
         
         // 2. Total phases cost for the MapCard
-        dashboardData.put("totalPhasesCost", getTotalPhasesCost());
+        dashboardData.put("totalPhasesCost", getTotalPhasesCost(phaseSummaries));
         
         // 3. Total dépassement de délai ou de coût for FlowChart
-        dashboardData.put("overruns", getOverruns());
+        dashboardData.put("overruns", getOverruns(phaseSummaries));
         
         // 4. Most costly operations by TypeOperation for CostChart
-        dashboardData.put("costlyOperations", getMostCostlyOperations());
+        dashboardData.put("costlyOperations", getMostCostlyOperations(topOperations));
         
         return dashboardData;
     }
 
-    private List<Map<String, Object>> getPhaseCosts() {
-        List<Phase> phases = phaseRepository.findAll();
-        List<Map<String, Object>> phaseCosts = new ArrayList<>();
+    private List<Map<String, Object>> getPhaseCosts(List<PhaseCostSummary> phaseSummaries) {
+        List<Map<String, Object>> phaseCosts = new ArrayList<>(phaseSummaries.size());
         
-        for (Phase phase : phases) {
-            List<Operation> phaseOperations = operationRepository.findByPhase(phase);
-            
-            double plannedCost = phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutPrev() != null ? op.getCoutPrev() : 0.0)
-                .sum();
-                
-            double actualCost = phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutReel() != null ? op.getCoutReel() : 0.0)
-                .sum();
-            
+        for (PhaseCostSummary phase : phaseSummaries) {
             Map<String, Object> phaseData = new HashMap<>();
-            phaseData.put("phaseNumber", phase.getNumeroPhase());
-            phaseData.put("phaseName", "Phase " + phase.getNumeroPhase() + " - " + 
-                getDiametreLabel(phase.getDiametre()));
-            phaseData.put("plannedCost", plannedCost);
-            phaseData.put("actualCost", actualCost);
-            phaseData.put("wellName", phase.getForage() != null && phase.getForage().getPuit() != null ? 
-                phase.getForage().getPuit().getNom() : "Unknown");
+            phaseData.put("phaseNumber", phase.numeroPhase());
+            phaseData.put("phaseName", "Phase " + phase.numeroPhase() + " - " + 
+                getDiametreLabel(phase.diametre()));
+            phaseData.put("plannedCost", phase.plannedCost());
+            phaseData.put("actualCost", phase.actualCost());
+            phaseData.put("wellName", phase.wellName() != null ? phase.wellName() : "Unknown");
             
             phaseCosts.add(phaseData);
         }
@@ -74,28 +71,19 @@ public class DashboardService {
         return phaseCosts;
     }
 
-    private Map<String, Object> getTotalPhasesCost() {
-        List<Phase> phases = phaseRepository.findAll();
+    private Map<String, Object> getTotalPhasesCost(List<PhaseCostSummary> phaseSummaries) {
         double totalPlannedCost = 0.0;
         double totalActualCost = 0.0;
-        int totalPhases = phases.size();
         
-        for (Phase phase : phases) {
-            List<Operation> phaseOperations = operationRepository.findByPhase(phase);
-            
-            totalPlannedCost += phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutPrev() != null ? op.getCoutPrev() : 0.0)
-                .sum();
-                
-            totalActualCost += phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutReel() != null ? op.getCoutReel() : 0.0)
-                .sum();
+        for (PhaseCostSummary phase : phaseSummaries) {
+            totalPlannedCost += phase.plannedCost();
+            totalActualCost += phase.actualCost();
         }
         
         Map<String, Object> totalCosts = new HashMap<>();
         totalCosts.put("totalPlannedCost", totalPlannedCost);
         totalCosts.put("totalActualCost", totalActualCost);
-        totalCosts.put("totalPhases", totalPhases);
+        totalCosts.put("totalPhases", phaseSummaries.size());
         totalCosts.put("costOverrun", totalActualCost - totalPlannedCost);
         totalCosts.put("costOverrunPercentage", totalPlannedCost > 0 ? 
             ((totalActualCost - totalPlannedCost) / totalPlannedCost) * 100 : 0);
@@ -103,8 +91,7 @@ public class DashboardService {
         return totalCosts;
     }
 
-    private Map<String, Object> getOverruns() {
-        List<Phase> phases = phaseRepository.findAll();
+    private Map<String, Object> getOverruns(List<PhaseCostSummary> phaseSummaries) {
         int timeOverruns = 0;
         int costOverruns = 0;
         double totalTimeOverrunDays = 0.0;
@@ -112,12 +99,12 @@ public class DashboardService {
         
         LocalDate today = LocalDate.now();
         
-        for (Phase phase : phases) {
+        for (PhaseCostSummary phase : phaseSummaries) {
             // Check time overruns
-            if (phase.getDateFinPrevue() != null) {
-                LocalDate plannedEnd = phase.getDateFinPrevue();
-                LocalDate actualEnd = phase.getDateFinReelle() != null ? 
-                    phase.getDateFinReelle() : today;
+            if (phase.dateFinPrevue() != null) {
+                LocalDate plannedEnd = phase.dateFinPrevue();
+                LocalDate actualEnd = phase.dateFinReelle() != null ? 
+                    phase.dateFinReelle() : today;
                 
                 if (actualEnd.isAfter(plannedEnd)) {
                     timeOverruns++;
@@ -126,17 +113,9 @@ public class DashboardService {
             }
             
             // Check cost overruns
-            List<Operation> phaseOperations = operationRepository.findByPhase(phase);
-            double plannedCost = phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutPrev() != null ? op.getCoutPrev() : 0.0)
-                .sum();
-            double actualCost = phaseOperations.stream()
-                .mapToDouble(op -> op.getCoutReel() != null ? op.getCoutReel() : 0.0)
-                .sum();
-            
-            if (actualCost > plannedCost) {
+            if (phase.actualCost() > phase.plannedCost()) {
                 costOverruns++;
-                totalCostOverrun += (actualCost - plannedCost);
+                totalCostOverrun += (phase.actualCost() - phase.plannedCost());
             }
         }
         
@@ -145,61 +124,65 @@ public class DashboardService {
         overruns.put("costOverruns", costOverruns);
         overruns.put("totalTimeOverrunDays", totalTimeOverrunDays);
         overruns.put("totalCostOverrun", totalCostOverrun);
-        overruns.put("totalPhases", phases.size());
+        overruns.put("totalPhases", phaseSummaries.size());
         
         return overruns;
     }
 
-    private List<Map<String, Object>> getMostCostlyOperations() {
-        List<Operation> operations = operationRepository.findAll();
-        
-        // Group by TypeOperation and sum costs
-        Map<String, Double> operationTypeCosts = operations.stream()
-            .filter(op -> op.getTypeOperation() != null)
-            .collect(Collectors.groupingBy(
-                op -> op.getTypeOperation().getNom(),
-                Collectors.summingDouble(op -> 
-                    (op.getCoutReel() != null ? op.getCoutReel() : 0.0) +
-                    (op.getCoutPrev() != null ? op.getCoutPrev() : 0.0)
-                )
-            ));
-        
-        // Convert to list and sort by cost (descending)
-        List<Map<String, Object>> costlyOperations = operationTypeCosts.entrySet().stream()
-            .map(entry -> {
-                Map<String, Object> operationData = new HashMap<>();
-                operationData.put("operationType", entry.getKey());
-                operationData.put("totalCost", entry.getValue());
-                
-                // Calculate additional metrics
-                List<Operation> typeOperations = operations.stream()
-                    .filter(op -> op.getTypeOperation() != null && 
-                        op.getTypeOperation().getNom().equals(entry.getKey()))
-                    .collect(Collectors.toList());
-                
-                double totalPlanned = typeOperations.stream()
-                    .mapToDouble(op -> op.getCoutPrev() != null ? op.getCoutPrev() : 0.0)
-                    .sum();
-                
-                double totalActual = typeOperations.stream()
-                    .mapToDouble(op -> op.getCoutReel() != null ? op.getCoutReel() : 0.0)
-                    .sum();
-                
-                operationData.put("plannedCost", totalPlanned);
-                operationData.put("actualCost", totalActual);
-                operationData.put("operationCount", typeOperations.size());
-                operationData.put("overrunPercentage", totalPlanned > 0 ? 
-                    ((totalActual - totalPlanned) / totalPlanned) * 100 : 0);
-                
-                return operationData;
-            })
-            .sorted((a, b) -> Double.compare((Double) b.get("totalCost"), (Double) a.get("totalCost")))
-            .limit(10) // Top 10 most costly
-            .collect(Collectors.toList());
+    private List<Map<String, Object>> getMostCostlyOperations(int limit) {
+        // Single pass over the type rollups, merged by name as types sharing a name are reported together
+        Map<String, TypeTotals> totalsByType = new HashMap<>();
+        for (TypeOperationCost typeCost : costRollupRepository.findTypeOperationCosts()) {
+            TypeTotals totals = totalsByType.computeIfAbsent(typeCost.nom(), TypeTotals::new);
+            totals.plannedCost += typeCost.plannedCost();
+            totals.actualCost += typeCost.actualCost();
+            totals.operationCount += typeCost.operationCount();
+        }
+        
+        // Keep the N most costly in a min-heap bounded to N entries
+        PriorityQueue<TypeTotals> topTypes = new PriorityQueue<>(limit + 1,
+            Comparator.comparingDouble(TypeTotals::totalCost));
+        for (TypeTotals totals : totalsByType.values()) {
+            topTypes.offer(totals);
+            if (topTypes.size() > limit) {
+                topTypes.poll();
+            }
+        }
+        
+        List<TypeTotals> sorted = new ArrayList<>(topTypes);
+        sorted.sort(Comparator.comparingDouble(TypeTotals::totalCost).reversed());
+        
+        List<Map<String, Object>> costlyOperations = new ArrayList<>(sorted.size());
+        for (TypeTotals totals : sorted) {
+            Map<String, Object> operationData = new HashMap<>();
+            operationData.put("operationType", totals.name);
+            operationData.put("totalCost", totals.totalCost());
+            operationData.put("plannedCost", totals.plannedCost);
+            operationData.put("actualCost", totals.actualCost);
+            operationData.put("operationCount", (int) totals.operationCount);
+            operationData.put("overrunPercentage", totals.plannedCost > 0 ? 
+                ((totals.actualCost - totals.plannedCost) / totals.plannedCost) * 100 : 0);
+            costlyOperations.add(operationData);
+        }
         
         return costlyOperations;
     }
 
+    private static final class TypeTotals {
+        private final String name;
+        private double plannedCost;
+        private double actualCost;
+        private long operationCount;
+        
+        TypeTotals(String name) {
+            this.name = name;
+        }
+        
+        double totalCost() {
+            return plannedCost + actualCost;
+        }
+    }
+
     private String getDiametreLabel(Phase.Diametre diametre) {
         if (diametre == null) return "Unknown";
         
@@ -0,0 +1,327 @@
+package com.example.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.config.RequestIdFilter;
+import com.example.backend.model.DetectionJob;
+import com.example.backend.model.Probleme;
+import com.example.backend.repository.DailyReportRepository;
+import com.example.backend.repository.DetectionJobRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs problem detection for daily reports in the background.
+ *
+ * submit() only records a DetectionJob and returns; the job runs after the
+ * submitting transaction commits on a bounded pool of detection threads. A
+ * failed run is retried with exponential backoff up to max-attempts. Jobs
+ * are claimed with a conditional UPDATE so a job never runs twice at once.
+ * PENDING jobs are picked up again at startup and by a periodic sweep, which
+ * also re-queues jobs left RUNNING for longer than stale-after-ms by an
+ * instance that stopped mid-run. Each sweep first touches the jobs this
+ * instance is running, so a run longer than stale-after-ms is not taken for
+ * a stopped one as long as the sweep interval is shorter.
+ */
+@Service
+public class DetectionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectionJobService.class);
+
+    private final DetectionJobRepository detectionJobRepository;
+    private final DailyReportRepository dailyReportRepository;
+    private final ProblemeService problemeService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long staleAfterMillis;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+    // Jobs queued or running on this instance, so the sweep does not queue them twice
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Jobs claimed and running on this instance, kept fresh by the sweep
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public DetectionJobService(DetectionJobRepository detectionJobRepository,
+                               DailyReportRepository dailyReportRepository,
+                               ProblemeService problemeService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${detection.jobs.threads:2}") int threads,
+                               @Value("${detection.jobs.queue-capacity:500}") int queueCapacity,
+                               @Value("${detection.jobs.max-attempts:5}") int maxAttempts,
+                               @Value("${detection.jobs.backoff-initial-ms:2000}") long initialBackoffMillis,
+                               @Value("${detection.jobs.backoff-max-ms:300000}") long maxBackoffMillis,
+                               @Value("${detection.jobs.stale-after-ms:600000}") long staleAfterMillis) {
+        this.detectionJobRepository = detectionJobRepository;
+        this.dailyReportRepository = dailyReportRepository;
+        this.problemeService = problemeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.staleAfterMillis = staleAfterMillis;
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), namedThreads("problem-detection-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("problem-detection-retry-"));
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Queues detection for a daily report and returns its job. A report has a
+     * single job: the operation ids are merged into it if it has not finished,
+     * otherwise it is reset to PENDING with the new ids.
+     *
+     * @throws IllegalArgumentException if the daily report does not exist
+     */
+    public DetectionJob submit(Long dailyReportId, List<Long> operationIds) {
+        if (!dailyReportRepository.existsById(dailyReportId)) {
+            throw new IllegalArgumentException("Daily report not found: " + dailyReportId);
+        }
+        try {
+            return transactionTemplate.execute(status -> enqueue(dailyReportId, operationIds));
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the job for this report first; merge into it
+            return transactionTemplate.execute(status -> enqueue(dailyReportId, operationIds));
+        }
+    }
+
+    private DetectionJob enqueue(Long dailyReportId, List<Long> operationIds) {
+        LocalDateTime now = LocalDateTime.now();
+        DetectionJob job = detectionJobRepository.lockByDailyReportId(dailyReportId)
+            .orElseGet(() -> new DetectionJob(dailyReportId));
+
+        if (job.isFinished()) {
+            job.setOperationIds(operationIds);
+            job.setStatus(DetectionJob.Status.PENDING);
+            job.setAttempts(0);
+            job.setLastError(null);
+            job.setProblemCount(null);
+            job.setStartedAt(null);
+            job.setFinishedAt(null);
+        } else {
+            job.addOperationIds(operationIds);
+        }
+        job.setRevision(job.getRevision() + 1);
+        job.setNextAttemptAt(null);
+        job.setUpdatedAt(now);
+
+        DetectionJob saved = detectionJobRepository.saveAndFlush(job);
+        if (saved.getStatus() == DetectionJob.Status.PENDING) {
+            dispatchAfterCommit(saved.getId());
+        }
+        // A RUNNING job sees the new revision when it completes and runs again
+        return saved;
+    }
+
+    public Optional<DetectionJob> findByDailyReport(Long dailyReportId) {
+        return detectionJobRepository.findByDailyReportId(dailyReportId);
+    }
+
+    private void dispatchAfterCommit(Long jobId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(jobId);
+                }
+            });
+        } else {
+            dispatch(jobId);
+        }
+    }
+
+    private void dispatch(Long jobId) {
+        if (!inFlight.add(jobId)) {
+            return;
+        }
+        // Keep the submitting request's correlation id on the job's log lines
+        String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+        try {
+            executor.execute(() -> {
+                if (requestId != null) {
+                    MDC.put(RequestIdFilter.MDC_KEY, requestId);
+                }
+                try {
+                    while (run(jobId)) {
+                        // Submitted again while running, go through the merged operations
+                    }
+                } finally {
+                    inFlight.remove(jobId);
+                    MDC.remove(RequestIdFilter.MDC_KEY);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full: the job stays PENDING and the next sweep picks it up
+            inFlight.remove(jobId);
+            logger.warn("Detection queue is full, job {} will be picked up by the next sweep", jobId);
+        }
+    }
+
+    /**
+     * Runs the job once if it can be claimed. Returns true when it was
+     * submitted again during the run and has to run once more.
+     */
+    private boolean run(Long jobId) {
+        DetectionJob job = transactionTemplate.execute(status -> {
+            if (detectionJobRepository.claim(jobId, LocalDateTime.now()) == 0) {
+                return null;
+            }
+            return detectionJobRepository.findById(jobId).orElse(null);
+        });
+        if (job == null) {
+            // Finished, or claimed by another instance
+            return false;
+        }
+
+        long startedRevision = job.getRevision();
+        long start = System.currentTimeMillis();
+        List<Probleme> problems;
+        running.add(jobId);
+        try {
+            problems = problemeService.runDetection(job.getDailyReportId(), job.getOperationIds());
+        } catch (RuntimeException e) {
+            fail(jobId, job.getAttempts(), e);
+            return false;
+        } finally {
+            running.remove(jobId);
+        }
+        logger.info("Detection job {} for daily report {} found {} problems in {} ms",
+            jobId, job.getDailyReportId(), problems.size(), System.currentTimeMillis() - start);
+        return complete(jobId, startedRevision, problems.size());
+    }
+
+    private boolean complete(Long jobId, long startedRevision, int problemCount) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            DetectionJob job = detectionJobRepository.lockById(jobId).orElse(null);
+            if (job == null) {
+                return false;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            job.setUpdatedAt(now);
+            job.setProblemCount(problemCount);
+            if (job.getRevision() != startedRevision) {
+                job.setStatus(DetectionJob.Status.PENDING);
+                job.setAttempts(0);
+                return true;
+            }
+            job.setStatus(DetectionJob.Status.DONE);
+            job.setFinishedAt(now);
+            job.setLastError(null);
+            return false;
+        }));
+    }
+
+    private void fail(Long jobId, int attempts, RuntimeException error) {
+        // A missing report or bad input will not get better by retrying
+        boolean retryable = !(error instanceof IllegalArgumentException) && attempts < maxAttempts;
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 20));
+
+        transactionTemplate.executeWithoutResult(status -> detectionJobRepository.lockById(jobId).ifPresent(job -> {
+            LocalDateTime now = LocalDateTime.now();
+            job.setUpdatedAt(now);
+            job.setLastError(truncate(error.getClass().getSimpleName() + ": " + error.getMessage(), 1000));
+            if (retryable) {
+                job.setStatus(DetectionJob.Status.PENDING);
+                job.setNextAttemptAt(now.plusNanos(TimeUnit.MILLISECONDS.toNanos(backoff)));
+            } else {
+                job.setStatus(DetectionJob.Status.FAILED);
+                job.setFinishedAt(now);
+            }
+        }));
+
+        if (retryable) {
+            logger.warn("Detection job {} failed (attempt {}/{}), retrying in {} ms: {}",
+                jobId, attempts, maxAttempts, backoff, error.getMessage());
+            retryScheduler.schedule(() -> dispatch(jobId), backoff, TimeUnit.MILLISECONDS);
+        } else {
+            logger.error("Detection job {} failed after {} attempts", jobId, attempts, error);
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * Queues due PENDING jobs that are not already queued here, after jobs
+     * stuck RUNNING for longer than stale-after-ms are put back to PENDING.
+     */
+    @Scheduled(fixedDelayString = "${detection.jobs.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> runningJobIds = List.copyOf(running);
+        List<Long> dueJobIds = transactionTemplate.execute(status -> {
+            if (!runningJobIds.isEmpty()) {
+                detectionJobRepository.touchRunning(runningJobIds, now);
+            }
+            int requeued = detectionJobRepository.requeueStale(now.minusNanos(TimeUnit.MILLISECONDS.toNanos(staleAfterMillis)), now);
+            if (requeued > 0) {
+                logger.warn("Re-queued {} detection jobs left running by a stopped worker", requeued);
+            }
+            return detectionJobRepository.findDueJobIds(now);
+        });
+        for (Long jobId : dueJobIds) {
+            dispatch(jobId);
+        }
+    }
+
+    // Resume the jobs that were pending when the application stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingJobs() {
+        sweep();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                // Interrupted jobs stay RUNNING and are re-queued on the next start
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
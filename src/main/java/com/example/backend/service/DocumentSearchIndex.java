@@ -0,0 +1,226 @@
+package com.example.backend.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.backend.dto.DocumentText;
+import com.example.backend.model.Document;
+import com.example.backend.repository.DocumentRepository;
+
+/**
+ * In-memory inverted index over document nom and description.
+ *
+ * Terms are lower-cased and accent-folded ("Forage Été" is indexed as
+ * "forage", "ete"). The terms are kept sorted so a query word matches every
+ * term it is a prefix of. A document must match all query words; it scores
+ * higher for matches in nom than in description, for whole-word matches
+ * than prefix matches, and for rarer terms.
+ *
+ * The index is built at startup and kept current by DocumentService, which
+ * calls index()/remove() once its transaction has committed.
+ */
+@Component
+public class DocumentSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSearchIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int NOM_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final DocumentRepository documentRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> document id -> weight of the term in that document
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    // document id -> its terms and weights, to unindex it on update/delete
+    private final Map<Long, Map<String, Integer>> documentTerms = new HashMap<>();
+
+    public DocumentSearchIndex(DocumentRepository documentRepository) {
+        this.documentRepository = documentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        List<DocumentText> texts = documentRepository.findAllTexts();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documentTerms.clear();
+            for (DocumentText text : texts) {
+                add(text.id(), text.nom(), text.description());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Document search index built: {} documents, {} terms in {} ms",
+            texts.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indexes a created or updated document, after commit if inside a transaction.
+     */
+    public void index(Document document) {
+        Long id = document.getId();
+        String nom = document.getNom();
+        String description = document.getDescription();
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTerms(id);
+                add(id, nom, description);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops a deleted document, after commit if inside a transaction.
+     */
+    public void remove(Long id) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                removeTerms(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Ids of the documents matching every word of the query, best match first.
+     */
+    public List<Long> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = null;
+        lock.readLock().lock();
+        try {
+            int documentCount = Math.max(1, documentTerms.size());
+            for (String word : words) {
+                Map<Long, Double> wordScores = new HashMap<>();
+                // Every term that starts with the word
+                for (Map.Entry<String, Map<Long, Integer>> entry
+                        : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                    Map<Long, Integer> documents = entry.getValue();
+                    double idf = Math.log(1.0 + (double) documentCount / documents.size());
+                    double factor = entry.getKey().equals(word) ? 1.0 : PREFIX_MATCH_FACTOR;
+                    for (Map.Entry<Long, Integer> posting : documents.entrySet()) {
+                        wordScores.merge(posting.getKey(), posting.getValue() * factor * idf, Double::sum);
+                    }
+                }
+                scores = scores == null ? wordScores : intersect(scores, wordScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Long, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    private static Map<Long, Double> intersect(Map<Long, Double> scores, Map<Long, Double> wordScores) {
+        Map<Long, Double> result = new HashMap<>();
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            Double wordScore = wordScores.get(entry.getKey());
+            if (wordScore != null) {
+                result.put(entry.getKey(), entry.getValue() + wordScore);
+            }
+        }
+        return result;
+    }
+
+    // Callers hold the write lock
+    private void add(Long id, String nom, String description) {
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for (String term : tokenize(nom)) {
+            terms.merge(term, NOM_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            terms.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        documentTerms.put(id, terms);
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(id, term.getValue());
+        }
+    }
+
+    private void removeTerms(Long id) {
+        Map<String, Integer> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Integer> documents = postings.get(term);
+            if (documents != null) {
+                documents.remove(id);
+                if (documents.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,77 +1,122 @@
 package com.example.backend.service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.DocumentFilter;
+import com.example.backend.dto.KeysetCursor;
 import com.example.backend.model.Document;
+import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.Puit;
 import com.example.backend.repository.DocumentRepository;
-import com.example.backend.repository.OperationRepository;
-import com.example.backend.repository.PhaseRepository;
-import com.example.backend.repository.PuitRepository;
-import com.example.backend.repository.UtilisateurRepository;
+import com.example.backend.repository.DocumentSpecifications;
 
 @Service
 @Transactional
 public class DocumentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
+    
+    // Ranked ids per query, below Oracle's 1000-element IN list limit
+    private static final int SEARCH_CHUNK_SIZE = 500;
+    
     @Autowired
     private DocumentRepository documentRepository;
     
     @Autowired
-    private PuitRepository puitRepository;
+    private ReferenceResolver referenceResolver;
     
     @Autowired
-    private PhaseRepository phaseRepository;
+    private DocumentSearchIndex documentSearchIndex;
     
     @Autowired
-    private OperationRepository operationRepository;
+    private ContentStore contentStore;
     
     @Autowired
-    private UtilisateurRepository utilisateurRepository;
-
+    private PlatformTransactionManager transactionManager;
+    
+    // Unreferenced blobs younger than this are kept, see ContentStore
+    @Value("${documents.storage.gc-grace-ms:86400000}")
+    private long contentGraceMillis;
+    
     public List<Document> findAll() {
         return documentRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated listing in id order.
+     *
+     * @throws IllegalArgumentException on an invalid cursor or limit
+     */
+    public CursorPage<Document> findPage(String after, int limit, boolean includeTotal) {
+        long afterId = after != null ? KeysetCursor.decode(after).id() : Long.MIN_VALUE;
+        Slice<Document> slice = documentRepository.findByIdGreaterThan(afterId,
+            PageRequest.of(0, CursorPage.checkLimit(limit), Sort.by("id")));
+        return CursorPage.of(slice, item -> KeysetCursor.of(item.getId()), includeTotal ? documentRepository.count() : null);
+    }
+
     public Optional<Document> findById(Long id) {
         return documentRepository.findById(id);
     }
-    
-    public List<Document> findByPuit(Long puitId) {
-        return puitRepository.findById(puitId)
-                .map(puit -> documentRepository.findByPuit(puit))
-                .orElse(List.of());
-    }
-    
-    public List<Document> findByPhase(Long phaseId) {
-        return phaseRepository.findById(phaseId)
-                .map(phase -> documentRepository.findByPhase(phase))
-                .orElse(List.of());
-    }
-    
-    public List<Document> findByOperation(Long operationId) {
-        return operationRepository.findById(operationId)
-                .map(operation -> documentRepository.findByOperation(operation))
-                .orElse(List.of());
-    }
-    
-    public List<Document> findByUploadePar(Long utilisateurId) {
-        return utilisateurRepository.findById(utilisateurId)
-                .map(utilisateur -> documentRepository.findByUploadePar(utilisateur))
-                .orElse(List.of());
-    }
-    
-    public List<Document> findByEstPublic(Boolean estPublic) {
-        return documentRepository.findByEstPublic(estPublic);
+
+    /**
+     * Documents matching every criterion of the filter, in one query, by id.
+     */
+    public List<Document> search(DocumentFilter filter) {
+        return documentRepository.findAll(DocumentSpecifications.matching(filter), Sort.by("id"));
     }
-    
-    public List<Document> findByType(String type) {
-        return documentRepository.findByType(type);
+
+    /**
+     * Documents whose nom/description match every word of the query (see
+     * DocumentSearchIndex) and every criterion of the filter, best match
+     * first, at most limit of them.
+     *
+     * @throws IllegalArgumentException if limit is outside 1..CursorPage.MAX_LIMIT
+     */
+    public List<Document> search(String query, DocumentFilter filter, int limit) {
+        CursorPage.checkLimit(limit);
+        List<Long> rankedIds = documentSearchIndex.search(query);
+        Specification<Document> filterSpec = DocumentSpecifications.matching(filter);
+        
+        // Load in rank order, a chunk at a time, until enough pass the filter
+        List<Document> results = new ArrayList<>();
+        for (int from = 0; from < rankedIds.size() && results.size() < limit; from += SEARCH_CHUNK_SIZE) {
+            List<Long> chunk = rankedIds.subList(from, Math.min(from + SEARCH_CHUNK_SIZE, rankedIds.size()));
+            Map<Long, Document> loaded = new HashMap<>();
+            for (Document document : documentRepository.findAll(filterSpec.and(DocumentSpecifications.idIn(chunk)))) {
+                loaded.put(document.getId(), document);
+            }
+            for (Long id : chunk) {
+                Document document = loaded.get(id);
+                if (document != null && results.size() < limit) {
+                    results.add(document);
+                }
+            }
+        }
+        return results;
     }
 
     public Document create(Document document) {
@@ -84,29 +129,20 @@ public class DocumentService {
             document.setEstPublic(false);
         }
         
-        return documentRepository.save(document);
+        Document saved = documentRepository.save(document);
+        documentSearchIndex.index(saved);
+        return saved;
     }
 
     public Optional<Document> update(Long id, Document documentData) {
         return documentRepository.findById(id)
             .map(document -> {
-                // Handle Puit relationship
-                if (documentData.getPuit() != null && documentData.getPuit().getId() != null) {
-                    puitRepository.findById(documentData.getPuit().getId())
-                        .ifPresent(document::setPuit);
-                }
-                
-                // Handle Phase relationship
-                if (documentData.getPhase() != null && documentData.getPhase().getId() != null) {
-                    phaseRepository.findById(documentData.getPhase().getId())
-                        .ifPresent(document::setPhase);
-                }
-                
-                // Handle Operation relationship
-                if (documentData.getOperation() != null && documentData.getOperation().getId() != null) {
-                    operationRepository.findById(documentData.getOperation().getId())
-                        .ifPresent(document::setOperation);
-                }
+                // Relationships, as references checked in one query per type
+                referenceResolver.batch()
+                    .set(Puit.class, documentData.getPuit(), document.getPuit(), document::setPuit)
+                    .set(Phase.class, documentData.getPhase(), document.getPhase(), document::setPhase)
+                    .set(Operation.class, documentData.getOperation(), document.getOperation(), document::setOperation)
+                    .resolve();
                 
                 if (documentData.getNom() != null) {
                     document.setNom(documentData.getNom());
@@ -117,7 +153,8 @@ public class DocumentService {
                 if (documentData.getChemin() != null) {
                     document.setChemin(documentData.getChemin());
                 }
-                if (documentData.getTaille() != null) {
+                // Once content is stored, taille is the size of its bytes
+                if (documentData.getTaille() != null && document.getContentSha256() == null) {
                     document.setTaille(documentData.getTaille());
                 }
                 // Don't update upload date and uploader
@@ -128,7 +165,9 @@ public class DocumentService {
                     document.setEstPublic(documentData.getEstPublic());
                 }
                 
-                return documentRepository.save(document);
+                Document saved = documentRepository.save(document);
+                documentSearchIndex.index(saved);
+                return saved;
             });
     }
 
@@ -136,8 +175,49 @@ public class DocumentService {
         return documentRepository.findById(id)
             .map(document -> {
                 documentRepository.delete(document);
+                documentSearchIndex.remove(id);
                 return true;
             })
             .orElse(false);
     }
+
+    /**
+     * Streams the content of a document into the ContentStore, then records
+     * its hash, media type and size. The bytes are received outside any
+     * transaction, so a slow upload does not hold a database connection.
+     *
+     * @return the updated document, or empty if there is no document with this id
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Document> storeContent(Long id, InputStream content, String contentType) throws IOException {
+        if (!documentRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        ContentStore.StoredContent stored = contentStore.store(content);
+        logger.info("Stored {} bytes of content for document {}", stored.size(), id);
+        return new TransactionTemplate(transactionManager).execute(status -> documentRepository.findById(id)
+            .map(document -> {
+                document.setContentSha256(stored.sha256());
+                document.setContentType(contentType);
+                document.setTaille(stored.size());
+                return documentRepository.save(document);
+            }));
+    }
+
+    /**
+     * Deletes stored content that no document references any more, once it
+     * is older than the grace period.
+     */
+    @Scheduled(fixedDelayString = "${documents.storage.gc-interval-ms:3600000}")
+    @Transactional(readOnly = true)
+    public void collectUnreferencedContent() {
+        try {
+            int deleted = contentStore.collectGarbage(documentRepository::existsByContentSha256, contentGraceMillis);
+            if (deleted > 0) {
+                logger.info("Deleted {} unreferenced document content files", deleted);
+            }
+        } catch (IOException e) {
+            logger.warn("Document content garbage collection failed", e);
+        }
+    }
 }
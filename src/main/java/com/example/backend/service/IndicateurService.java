@@ -1,19 +1,27 @@
 package com.example.backend.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.dto.BatchItemResult;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.KeysetCursor;
+import com.example.backend.model.DailyReport;
 import com.example.backend.model.Indicateur;
 import com.example.backend.model.Operation;
 import com.example.backend.model.TypeIndicateur;
 import com.example.backend.repository.IndicateurRepository;
 import com.example.backend.repository.OperationRepository;
-import com.example.backend.repository.TypeIndicateurRepository;
 
 @Service
 @Transactional
@@ -26,12 +34,35 @@ public class IndicateurService {
     private OperationRepository operationRepository;
     
     @Autowired
-    private TypeIndicateurRepository typeIndicateurRepository;
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
 
     public List<Indicateur> findAll() {
         return indicateurRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated listing in id order.
+     *
+     * @throws IllegalArgumentException on an invalid cursor or limit
+     */
+    public CursorPage<Indicateur> findPage(String after, int limit, boolean includeTotal) {
+        long afterId = after != null ? KeysetCursor.decode(after).id() : Long.MIN_VALUE;
+        Slice<Indicateur> slice = indicateurRepository.findByIdGreaterThan(afterId,
+            PageRequest.of(0, CursorPage.checkLimit(limit), Sort.by("id")));
+        return CursorPage.of(slice, item -> KeysetCursor.of(item.getId()), includeTotal ? indicateurRepository.count() : null);
+    }
+
+    /**
+     * All rows in id order, read through a database cursor. Must be consumed
+     * and closed inside the caller's transaction.
+     */
+    public Stream<Indicateur> streamAll() {
+        return indicateurRepository.streamAll();
+    }
+
     public Optional<Indicateur> findById(Long id) {
         return indicateurRepository.findById(id);
     }
@@ -43,14 +74,14 @@ public class IndicateurService {
     }
     
     public List<Indicateur> findByTypeIndicateur(Long typeIndicateurId) {
-        return typeIndicateurRepository.findById(typeIndicateurId)
+        return referenceDataCache.getTypeIndicateur(typeIndicateurId)
                 .map(typeIndicateur -> indicateurRepository.findByTypeIndicateur(typeIndicateur))
                 .orElse(List.of());
     }
     
     public List<Indicateur> findByOperationAndTypeIndicateur(Long operationId, Long typeIndicateurId) {
         Optional<Operation> operationOpt = operationRepository.findById(operationId);
-        Optional<TypeIndicateur> typeIndicateurOpt = typeIndicateurRepository.findById(typeIndicateurId);
+        Optional<TypeIndicateur> typeIndicateurOpt = referenceDataCache.getTypeIndicateur(typeIndicateurId);
         
         if (operationOpt.isPresent() && typeIndicateurOpt.isPresent()) {
             return indicateurRepository.findByOperationAndTypeIndicateur(
@@ -66,20 +97,78 @@ public class IndicateurService {
         return indicateurRepository.save(indicateur);
     }
 
+    /**
+     * Creates a batch of indicators in one transaction, all or nothing.
+     *
+     * @return one result per indicator, with its id if the batch was saved
+     *         or its errors if it was not
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public List<BatchItemResult> createAll(List<Indicateur> indicateurs) {
+        BatchItemResult.checkSize(indicateurs);
+        List<BatchItemResult> results = validateAll(indicateurs, null);
+        if (!BatchItemResult.anyFailed(results)) {
+            saveAll(indicateurs, results);
+        }
+        return results;
+    }
+
+    /**
+     * Checks a batch of new indicators in memory and replaces their relation
+     * stubs by references, checked with one query per referenced type. The
+     * indicators are attached to dailyReport when it is given.
+     */
+    public List<BatchItemResult> validateAll(List<Indicateur> indicateurs, DailyReport dailyReport) {
+        List<BatchItemResult> results = new ArrayList<>(indicateurs.size());
+        ReferenceResolver.Batch references = referenceResolver.batch();
+        for (int i = 0; i < indicateurs.size(); i++) {
+            Indicateur indicateur = indicateurs.get(i);
+            BatchItemResult result = new BatchItemResult(i);
+            results.add(result);
+            if (indicateur == null) {
+                result.addError("Indicateur is missing");
+                continue;
+            }
+            if (indicateur.getId() != null) {
+                result.addError("id must not be set on a new indicateur");
+            }
+            references
+                .replace(Operation.class, indicateur.getOperation(), indicateur::setOperation,
+                    missingId -> result.addError("Unknown operation " + missingId))
+                .replace(TypeIndicateur.class, indicateur.getTypeIndicateur(), indicateur::setTypeIndicateur,
+                    missingId -> result.addError("Unknown typeIndicateur " + missingId));
+            if (dailyReport != null) {
+                indicateur.setDailyReport(dailyReport);
+            }
+        }
+        references.resolve();
+        return results;
+    }
+
+    /**
+     * Saves validated indicators, filling in the ids of their results.
+     */
+    public void saveAll(List<Indicateur> indicateurs, List<BatchItemResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Indicateur indicateur : indicateurs) {
+            if (indicateur.getDateMesure() == null) {
+                indicateur.setDateMesure(now);
+            }
+        }
+        List<Indicateur> saved = indicateurRepository.saveAll(indicateurs);
+        for (int i = 0; i < saved.size(); i++) {
+            results.get(i).setId(saved.get(i).getId());
+        }
+    }
+
     public Optional<Indicateur> update(Long id, Indicateur indicateurData) {
         return indicateurRepository.findById(id)
             .map(indicateur -> {
-                // Handle Operation relationship
-                if (indicateurData.getOperation() != null && indicateurData.getOperation().getId() != null) {
-                    operationRepository.findById(indicateurData.getOperation().getId())
-                        .ifPresent(indicateur::setOperation);
-                }
-                
-                // Handle TypeIndicateur relationship
-                if (indicateurData.getTypeIndicateur() != null && indicateurData.getTypeIndicateur().getId() != null) {
-                    typeIndicateurRepository.findById(indicateurData.getTypeIndicateur().getId())
-                        .ifPresent(indicateur::setTypeIndicateur);
-                }
+                // Relationships, as references checked in one query per type
+                referenceResolver.batch()
+                    .set(Operation.class, indicateurData.getOperation(), indicateur.getOperation(), indicateur::setOperation)
+                    .set(TypeIndicateur.class, indicateurData.getTypeIndicateur(), indicateur.getTypeIndicateur(), indicateur::setTypeIndicateur)
+                    .resolve();
                 
                 if (indicateurData.getValeurPrevue() != null) {
                     indicateur.setValeurPrevue(indicateurData.getValeurPrevue());
@@ -1,24 +1,40 @@
 package com.example.backend.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.dto.BatchItemResult;
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.KeysetCursor;
+import com.example.backend.model.DailyReport;
 import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.TypeOperation;
+import com.example.backend.model.Utilisateur;
 import com.example.backend.repository.DailyReportRepository;
 import com.example.backend.repository.OperationRepository;
 import com.example.backend.repository.PhaseRepository;
-import com.example.backend.repository.TypeOperationRepository;
 import com.example.backend.repository.UtilisateurRepository;
 
 @Service
 @Transactional
 public class OperationService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OperationService.class);
+
     @Autowired
     private OperationRepository operationRepository;
     
@@ -26,18 +42,47 @@ public class OperationService {
     private PhaseRepository phaseRepository;
     
     @Autowired
-    private TypeOperationRepository typeOperationRepository;
+    private ReferenceDataCache referenceDataCache;
     
     @Autowired
     private UtilisateurRepository utilisateurRepository;
     
     @Autowired
     private DailyReportRepository dailyReportRepository;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
+    @Autowired
+    private CostRollupService costRollupService;
+    
+    @Autowired
+    private DashboardCache dashboardCache;
 
     public List<Operation> findAll() {
         return operationRepository.findAll();
     }
 
+    /**
+     * Keyset-paginated listing in id order.
+     *
+     * @throws IllegalArgumentException on an invalid cursor or limit
+     */
+    public CursorPage<Operation> findPage(String after, int limit, boolean includeTotal) {
+        long afterId = after != null ? KeysetCursor.decode(after).id() : Long.MIN_VALUE;
+        Slice<Operation> slice = operationRepository.findByIdGreaterThan(afterId,
+            PageRequest.of(0, CursorPage.checkLimit(limit), Sort.by("id")));
+        return CursorPage.of(slice, item -> KeysetCursor.of(item.getId()), includeTotal ? operationRepository.count() : null);
+    }
+
+    /**
+     * All rows in id order, read through a database cursor. Must be consumed
+     * and closed inside the caller's transaction.
+     */
+    public Stream<Operation> streamAll() {
+        return operationRepository.streamAll();
+    }
+
     public Optional<Operation> findById(Long id) {
         return operationRepository.findById(id);
     }
@@ -49,7 +94,7 @@ public class OperationService {
     }
     
     public List<Operation> findByTypeOperation(String typeOperationCode) {
-        return typeOperationRepository.findById(typeOperationCode)
+        return referenceDataCache.getTypeOperation(typeOperationCode)
                 .map(typeOperation -> operationRepository.findByTypeOperation(typeOperation))
                 .orElse(List.of());
     }
@@ -83,10 +128,9 @@ public class OperationService {
         }
         
         // Validate and set type operation
-        if (operation.getTypeOperation() != null && operation.getTypeOperation().getCode() != null) {
-            typeOperationRepository.findById(operation.getTypeOperation().getCode())
-                    .ifPresent(operation::setTypeOperation);
-        }
+        referenceResolver.batch()
+                .set(TypeOperation.class, operation.getTypeOperation(), null, operation::setTypeOperation)
+                .resolve();
         
         // Validate and set created by
         if (operation.getCreatedBy() != null && operation.getCreatedBy().getId() != null) {
@@ -100,7 +144,22 @@ public class OperationService {
                     .ifPresent(operation::setDailyReport);
         }
         
-        // Set default values
+        applyDefaults(operation);
+
+        Operation saved = operationRepository.save(operation);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Created operation {} with coutPrev={} coutReel={}", saved.getId(), saved.getCoutPrev(), saved.getCoutReel());
+        }
+        costRollupService.recordCreated(saved);
+        dashboardCache.invalidate();
+        
+        return saved;
+    }
+
+    private static void applyDefaults(Operation operation) {
+        // A version sent with a new operation would make Spring Data merge it instead of persisting it
+        operation.setVersion(null);
+        
         if (operation.getCreatedAt() == null) {
             operation.setCreatedAt(LocalDateTime.now());
         }
@@ -112,43 +171,100 @@ public class OperationService {
         if (operation.getCoutReel() == null) {
             operation.setCoutReel(0.0);
         }
+    }
 
-        System.out.println("Creating operation with coutPrev: " + operation.getCoutPrev() + ", coutReel: " + operation.getCoutReel());
-        Operation saved = operationRepository.save(operation);
-        System.out.println("Saved operation with ID: " + saved.getId() + ", coutPrev: " + saved.getCoutPrev() + ", coutReel: " + saved.getCoutReel());
-        
-        return saved;
+    /**
+     * Creates a batch of operations in one transaction, all or nothing.
+     *
+     * @return one result per operation, with its id if the batch was saved
+     *         or its errors if it was not
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public List<BatchItemResult> createAll(List<Operation> operations) {
+        BatchItemResult.checkSize(operations);
+        List<BatchItemResult> results = validateAll(operations, null);
+        if (!BatchItemResult.anyFailed(results)) {
+            saveAll(operations, results);
+        }
+        return results;
     }
 
-    public Optional<Operation> update(Long id, Operation operationData) {
+    /**
+     * Checks a batch of new operations in memory and replaces their relation
+     * stubs by references, checked with one query per referenced type. The
+     * operations are attached to dailyReport when it is given.
+     */
+    public List<BatchItemResult> validateAll(List<Operation> operations, DailyReport dailyReport) {
+        List<BatchItemResult> results = new ArrayList<>(operations.size());
+        ReferenceResolver.Batch references = referenceResolver.batch();
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            BatchItemResult result = new BatchItemResult(i);
+            results.add(result);
+            if (operation == null) {
+                result.addError("Operation is missing");
+                continue;
+            }
+            if (operation.getId() != null) {
+                result.addError("id must not be set on a new operation");
+            }
+            if (operation.getCoutPrev() != null && operation.getCoutPrev() < 0) {
+                result.addError("coutPrev cannot be negative");
+            }
+            if (operation.getCoutReel() != null && operation.getCoutReel() < 0) {
+                result.addError("coutReel cannot be negative");
+            }
+            references
+                .replace(Phase.class, operation.getPhase(), operation::setPhase,
+                    missingId -> result.addError("Unknown phase " + missingId))
+                .replace(TypeOperation.class, operation.getTypeOperation(), operation::setTypeOperation,
+                    missingId -> result.addError("Unknown typeOperation " + missingId))
+                .replace(Utilisateur.class, operation.getCreatedBy(), operation::setCreatedBy,
+                    missingId -> result.addError("Unknown createdBy " + missingId));
+            if (dailyReport != null) {
+                operation.setDailyReport(dailyReport);
+            }
+        }
+        references.resolve();
+        return results;
+    }
+
+    /**
+     * Saves validated operations, then updates the cost rollups with their
+     * combined contribution and invalidates the dashboard once.
+     */
+    public void saveAll(List<Operation> operations, List<BatchItemResult> results) {
+        operations.forEach(OperationService::applyDefaults);
+        List<Operation> saved = operationRepository.saveAll(operations);
+        for (int i = 0; i < saved.size(); i++) {
+            results.get(i).setId(saved.get(i).getId());
+        }
+        costRollupService.recordAllCreated(saved);
+        dashboardCache.invalidate();
+        logger.info("Created {} operations in one batch", saved.size());
+    }
+
+    /**
+     * Applies the non-null fields of operationData. The update is flushed so
+     * the returned operation carries its new version.
+     *
+     * @param expectedVersion the version the change was made from, or null to skip the check
+     * @throws ObjectOptimisticLockingFailureException if the operation is no
+     *         longer at expectedVersion or was updated concurrently
+     */
+    public Optional<Operation> update(Long id, Long expectedVersion, Operation operationData) {
         return operationRepository.findById(id)
             .map(operation -> {
-                System.out.println("=== UPDATING OPERATION " + id + " ===");
-                System.out.println("Before update - coutPrev: " + operation.getCoutPrev() + ", coutReel: " + operation.getCoutReel());
+                OptimisticLocking.checkVersion(Operation.class, id, operation.getVersion(), expectedVersion);
+                CostRollupService.Contribution before = CostRollupService.Contribution.of(operation);
                 
-                // Handle Phase relationship
-                if (operationData.getPhase() != null && operationData.getPhase().getId() != null) {
-                    phaseRepository.findById(operationData.getPhase().getId())
-                            .ifPresent(operation::setPhase);
-                }
-                
-                // Handle TypeOperation relationship
-                if (operationData.getTypeOperation() != null && operationData.getTypeOperation().getCode() != null) {
-                    typeOperationRepository.findById(operationData.getTypeOperation().getCode())
-                            .ifPresent(operation::setTypeOperation);
-                }
-                
-                // Handle CreatedBy relationship
-                if (operationData.getCreatedBy() != null && operationData.getCreatedBy().getId() != null) {
-                    utilisateurRepository.findById(operationData.getCreatedBy().getId())
-                            .ifPresent(operation::setCreatedBy);
-                }
-                
-                // Handle DailyReport relationship
-                if (operationData.getDailyReport() != null && operationData.getDailyReport().getId() != null) {
-                    dailyReportRepository.findById(operationData.getDailyReport().getId())
-                            .ifPresent(operation::setDailyReport);
-                }
+                // Relationships, as references checked in one query per type
+                referenceResolver.batch()
+                        .set(Phase.class, operationData.getPhase(), operation.getPhase(), operation::setPhase)
+                        .set(TypeOperation.class, operationData.getTypeOperation(), operation.getTypeOperation(), operation::setTypeOperation)
+                        .set(Utilisateur.class, operationData.getCreatedBy(), operation.getCreatedBy(), operation::setCreatedBy)
+                        .set(DailyReport.class, operationData.getDailyReport(), operation.getDailyReport(), operation::setDailyReport)
+                        .resolve();
                 
                 if (operationData.getDescription() != null) {
                     operation.setDescription(operationData.getDescription());
@@ -161,12 +277,15 @@ public class OperationService {
                 }
                 if (operationData.getCoutReel() != null) {
                     operation.setCoutReel(operationData.getCoutReel());
-                    System.out.println("Updated coutReel to: " + operationData.getCoutReel());
                 }
                 
-                Operation saved = operationRepository.save(operation);
-                System.out.println("After update - coutPrev: " + saved.getCoutPrev() + ", coutReel: " + saved.getCoutReel());
-                System.out.println("=== OPERATION UPDATE COMPLETE ===");
+                Operation saved = operationRepository.saveAndFlush(operation);
+                costRollupService.recordUpdated(before, saved);
+                dashboardCache.invalidate();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Updated operation {}: coutPrev {} -> {}, coutReel {} -> {}", id,
+                        before.coutPrevu(), saved.getCoutPrev(), before.coutReel(), saved.getCoutReel());
+                }
                 
                 return saved;
             });
@@ -175,7 +294,9 @@ public class OperationService {
     public boolean delete(Long id) {
         return operationRepository.findById(id)
             .map(operation -> {
+                costRollupService.recordDeleted(operation);
                 operationRepository.delete(operation);
+                dashboardCache.invalidate();
                 return true;
             })
             .orElse(false);
@@ -0,0 +1,28 @@
+package com.example.backend.service;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * Version check of updates to @Version entities made from a version the
+ * client read earlier (If-Match, or the version in the request body).
+ *
+ * Hibernate only compares against the version it loaded when it flushes,
+ * which catches a concurrent transaction but not a client writing over
+ * changes it has never seen; that is checked here, before anything is
+ * modified. Both cases end in the same exception.
+ */
+final class OptimisticLocking {
+
+    private OptimisticLocking() {
+    }
+
+    /**
+     * @param expected the version the change was made from, or null to skip the check
+     * @throws ObjectOptimisticLockingFailureException if the entity is no longer at that version
+     */
+    static void checkVersion(Class<?> type, Object id, Long current, Long expected) {
+        if (expected != null && !expected.equals(current)) {
+            throw new ObjectOptimisticLockingFailureException(type, id);
+        }
+    }
+}
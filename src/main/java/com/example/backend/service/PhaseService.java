@@ -3,7 +3,10 @@ package com.example.backend.service;
 import java.util.List;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,11 +19,22 @@ import com.example.backend.repository.PhaseRepository;
 @Transactional
 public class PhaseService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PhaseService.class);
+
     @Autowired
     private PhaseRepository phaseRepository;
     
     @Autowired
     private ForageRepository forageRepository;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
+    @Autowired
+    private CostRollupService costRollupService;
+    
+    @Autowired
+    private DashboardCache dashboardCache;
 
     public List<Phase> findAll() {
         return phaseRepository.findAll();
@@ -38,149 +52,124 @@ public class PhaseService {
 
     public Phase create(Phase phase) {
         try {
-            System.out.println("=== PHASE SERVICE CREATE ===");
-            System.out.println("Input phase: " + phase);
-            
             // Validate required fields
             if (phase.getForage() == null || phase.getForage().getId() == null) {
-                System.err.println("ERROR: Forage is null or has null ID");
                 throw new IllegalArgumentException("Forage non spécifié ou ID manquant");
             }
 
             if (phase.getNumeroPhase() == null) {
-                System.err.println("ERROR: Phase number is null");
                 throw new IllegalArgumentException("Numéro de phase requis");
             }
 
             if (phase.getDiametre() == null) {
-                System.err.println("ERROR: Phase diametre is null");
                 throw new IllegalArgumentException("Diamètre de phase requis");
             }
 
-            System.out.println("Validating forage ID: " + phase.getForage().getId());
-            
             // Validate and set forage
             Forage forage = forageRepository.findById(phase.getForage().getId())
-                    .orElseThrow(() -> {
-                        System.err.println("ERROR: Forage not found with ID: " + phase.getForage().getId());
-                        return new IllegalArgumentException("Forage introuvable avec l'ID: " + phase.getForage().getId());
-                    });
+                    .orElseThrow(() -> new IllegalArgumentException("Forage introuvable avec l'ID: " + phase.getForage().getId()));
             
-            System.out.println("Found forage: " + forage.getId());
             phase.setForage(forage);
 
             // Check for duplicate phase number in the same forage
             List<Phase> existingPhases = phaseRepository.findByForageAndNumeroPhase(forage, phase.getNumeroPhase());
             if (!existingPhases.isEmpty()) {
-                System.err.println("ERROR: Phase number " + phase.getNumeroPhase() + " already exists for forage " + forage.getId());
                 throw new IllegalArgumentException("Une phase avec ce numéro existe déjà pour ce forage");
             }
 
-            System.out.println("Saving phase to database...");
+            phase.setVersion(null);
             Phase savedPhase = phaseRepository.save(phase);
-            System.out.println("Phase saved successfully with ID: " + savedPhase.getId());
-            System.out.println("=== PHASE SERVICE CREATE SUCCESS ===");
+            dashboardCache.invalidate();
+            logger.debug("Created phase {} for forage {}", savedPhase.getId(), forage.getId());
             
             return savedPhase;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Phase rejected: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
-            System.err.println("=== PHASE SERVICE CREATE ERROR ===");
-            System.err.println("Error in PhaseService.create(): " + e.getMessage());
-            System.err.println("Error class: " + e.getClass().getName());
-            e.printStackTrace();
+            logger.error("Error creating phase", e);
             throw e;
         }
     }
 
-    public Optional<Phase> update(Long id, Phase phaseData) {
+    /**
+     * Applies the non-null fields of phaseData, flushing so the returned
+     * phase carries its new version.
+     *
+     * @param expectedVersion the version the change was made from, or null to skip the check
+     * @throws ObjectOptimisticLockingFailureException if the phase is no
+     *         longer at expectedVersion or was updated concurrently
+     */
+    public Optional<Phase> update(Long id, Long expectedVersion, Phase phaseData) {
         try {
-            System.out.println("=== PHASE SERVICE UPDATE ===");
-            System.out.println("Updating phase ID: " + id);
-            System.out.println("Input phase data: " + phaseData);
-            
             return phaseRepository.findById(id)
                     .map(phase -> {
-                        System.out.println("Found existing phase: " + phase.getId());
-                        System.out.println("Before update:");
-                        System.out.println("  - profondeurReelle: " + phase.getProfondeurReelle());
-                        System.out.println("  - dateDebutReelle: " + phase.getDateDebutReelle());
-                        System.out.println("  - dateFinReelle: " + phase.getDateFinReelle());
+                        OptimisticLocking.checkVersion(Phase.class, id, phase.getVersion(), expectedVersion);
                         
-                        // Handle Forage relationship
-                        if (phaseData.getForage() != null && phaseData.getForage().getId() != null) {
-                            forageRepository.findById(phaseData.getForage().getId())
-                                    .ifPresent(forage -> {
-                                        System.out.println("Setting forage: " + forage.getId());
-                                        phase.setForage(forage);
-                                    });
-                        }
+                        // Handle Forage relationship; only called when the forage changes
+                        Forage previousForage = phase.getForage();
+                        referenceResolver.batch()
+                                .set(Forage.class, phaseData.getForage(), previousForage, forage -> {
+                                    phase.setForage(forage);
+                                    costRollupService.recordPhaseMoved(phase.getId(), previousForage, forage);
+                                })
+                                .resolve();
 
                         // Update basic fields
                         if (phaseData.getNumeroPhase() != null) {
-                            System.out.println("Setting phase number: " + phaseData.getNumeroPhase());
                             phase.setNumeroPhase(phaseData.getNumeroPhase());
                         }
 
                         if (phaseData.getDiametre() != null) {
-                            System.out.println("Setting diametre: " + phaseData.getDiametre());
                             phase.setDiametre(phaseData.getDiametre());
                         }
 
                         if (phaseData.getDescription() != null) {
-                            System.out.println("Setting description: " + phaseData.getDescription());
                             phase.setDescription(phaseData.getDescription());
                         }
 
                         // Update planned fields
                         if (phaseData.getProfondeurPrevue() != null) {
-                            System.out.println("Setting profondeurPrevue: " + phaseData.getProfondeurPrevue());
                             phase.setProfondeurPrevue(phaseData.getProfondeurPrevue());
                         }
 
                         if (phaseData.getDateDebutPrevue() != null) {
-                            System.out.println("Setting dateDebutPrevue: " + phaseData.getDateDebutPrevue());
                             phase.setDateDebutPrevue(phaseData.getDateDebutPrevue());
                         }
 
                         if (phaseData.getDateFinPrevue() != null) {
-                            System.out.println("Setting dateFinPrevue: " + phaseData.getDateFinPrevue());
                             phase.setDateFinPrevue(phaseData.getDateFinPrevue());
                         }
                         
                         // Update real fields - these are the critical ones for daily reports
                         if (phaseData.getProfondeurReelle() != null) {
-                            System.out.println("Setting profondeurReelle: " + phaseData.getProfondeurReelle() + " (was: " + phase.getProfondeurReelle() + ")");
                             phase.setProfondeurReelle(phaseData.getProfondeurReelle());
                         }
                         
                         if (phaseData.getDateDebutReelle() != null) {
-                            System.out.println("Setting dateDebutReelle: " + phaseData.getDateDebutReelle() + " (was: " + phase.getDateDebutReelle() + ")");
                             phase.setDateDebutReelle(phaseData.getDateDebutReelle());
                         }
                         
                         if (phaseData.getDateFinReelle() != null) {
-                            System.out.println("Setting dateFinReelle: " + phaseData.getDateFinReelle() + " (was: " + phase.getDateFinReelle() + ")");
                             phase.setDateFinReelle(phaseData.getDateFinReelle());
                         }
 
-                        System.out.println("About to save phase with:");
-                        System.out.println("  - profondeurReelle: " + phase.getProfondeurReelle());
-                        System.out.println("  - dateDebutReelle: " + phase.getDateDebutReelle());
-                        System.out.println("  - dateFinReelle: " + phase.getDateFinReelle());
-                        
-                        Phase savedPhase = phaseRepository.save(phase);
+                        Phase savedPhase = phaseRepository.saveAndFlush(phase);
+                        dashboardCache.invalidate();
                         
-                        System.out.println("Phase saved successfully with:");
-                        System.out.println("  - profondeurReelle: " + savedPhase.getProfondeurReelle());
-                        System.out.println("  - dateDebutReelle: " + savedPhase.getDateDebutReelle());
-                        System.out.println("  - dateFinReelle: " + savedPhase.getDateFinReelle());
-                        System.out.println("=== PHASE UPDATE SUCCESS ===");
+                        if (logger.isDebugEnabled()) {
+                            logger.debug("Updated phase {}: profondeurReelle={} dateDebutReelle={} dateFinReelle={}",
+                                savedPhase.getId(), savedPhase.getProfondeurReelle(),
+                                savedPhase.getDateDebutReelle(), savedPhase.getDateFinReelle());
+                        }
                         
                         return savedPhase;
                     });
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.debug("Update of phase {} rejected: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
-            System.err.println("=== PHASE SERVICE UPDATE ERROR ===");
-            System.err.println("Error updating phase: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error updating phase", e);
             throw e;
         }
     }
@@ -189,15 +178,14 @@ public class PhaseService {
         try {
             return phaseRepository.findById(id)
                 .map(phase -> {
-                    System.out.println("Deleting phase: " + id);
                     phaseRepository.delete(phase);
-                    System.out.println("Phase deleted successfully");
+                    dashboardCache.invalidate();
+                    logger.debug("Deleted phase {}", id);
                     return true;
                 })
                 .orElse(false);
         } catch (Exception e) {
-            System.err.println("Error deleting phase: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error deleting phase", e);
             throw e;
         }
     }
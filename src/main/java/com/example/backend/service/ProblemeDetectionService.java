@@ -2,24 +2,38 @@ package com.example.backend.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.backend.model.DailyReport;
+import com.example.backend.model.Indicateur;
 import com.example.backend.model.Operation;
 import com.example.backend.model.Phase;
 import com.example.backend.model.Probleme;
+import com.example.backend.model.Utilisateur;
+import com.example.backend.repository.IndicateurRepository;
 import com.example.backend.repository.OperationRepository;
 import com.example.backend.repository.ProblemeRepository;
 import com.example.backend.repository.UtilisateurRepository;
+import com.example.backend.service.detection.CompiledRule;
+import com.example.backend.service.detection.DetectionRuleEngine;
+import com.example.backend.service.detection.DetectionRuleSet;
 
 @Service
 @Transactional
 public class ProblemeDetectionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProblemeDetectionService.class);
+
     @Autowired
     private ProblemeRepository problemeRepository;
     
@@ -28,374 +42,352 @@ public class ProblemeDetectionService {
     
     @Autowired
     private OperationRepository operationRepository;
+    
+    @Autowired
+    private IndicateurRepository indicateurRepository;
+    
+    @Autowired
+    private DetectionRuleEngine detectionRuleEngine;
 
     /**
-     * Detect and create problems after a daily report is saved
+     * A rule that fired, before it is matched against the open problems.
+     * Problems are identified by their detection key: rule id plus the id of
+     * the operation, phase or indicateur concerned.
      */
-    public List<Probleme> detectAndCreateProblems(DailyReport dailyReport, List<Operation> updatedOperations) {
-        List<Probleme> createdProblems = new ArrayList<>();
-        
-        System.out.println("=== PROBLEM DETECTION SERVICE ===");
-        System.out.println("Checking " + updatedOperations.size() + " operations for problems");
+    private static final class Finding {
+        final String detectionKey;
+        final CompiledRule rule;
+        final Probleme.Gravite gravite;
+        final String description;
+        final Supplier<Operation> operation;
+        Double impactCout;
+        Integer impactDelai;
+        // Whether an already open problem takes the new gravite
+        boolean updatesGravite;
         
-        // Get system user for automatic problem detection (or use the report creator)
-        var systemUser = utilisateurRepository.findById(1L).orElse(null);
-        if (systemUser == null) {
-            System.err.println("System user not found, creating problems without user reference");
-        } else {
-            System.out.println("Using system user: " + systemUser.getNom());
+        Finding(String detectionKey, CompiledRule rule, Probleme.Gravite gravite, String description,
+                Supplier<Operation> operation) {
+            this.detectionKey = detectionKey;
+            this.rule = rule;
+            this.gravite = gravite;
+            this.description = description;
+            this.operation = operation;
         }
+    }
+
+    /**
+     * Detect and create problems after a daily report is saved.
+     *
+     * Thresholds come from the active DetectionRuleSet, read once for the whole
+     * run. Rules are evaluated in memory, the open problems matching the
+     * findings are loaded by detection key in one query, and every new or
+     * updated problem is written with a single saveAll so Hibernate can batch
+     * the statements.
+     */
+    public List<Probleme> detectAndCreateProblems(DailyReport dailyReport, List<Operation> updatedOperations) {
+        DetectionRuleSet rules = detectionRuleEngine.current();
+        List<Finding> findings = new ArrayList<>();
+        
+        logger.debug("Checking {} operations for problems", updatedOperations.size());
         
         // 1. Check for operation cost overruns
-        System.out.println("=== CHECKING COST OVERRUNS ===");
-        for (Operation operation : updatedOperations) {
-            System.out.println("Checking operation " + operation.getId() + ":");
-            System.out.println("  - Description: " + operation.getDescription());
-            System.out.println("  - CoutPrev: " + operation.getCoutPrev());
-            System.out.println("  - CoutReel: " + operation.getCoutReel());
-            
-            if (operation.getCoutReel() != null && operation.getCoutPrev() != null) {
-                if (operation.getCoutReel() > operation.getCoutPrev()) {
-                    System.out.println("  *** COST OVERRUN DETECTED ***");
-                    System.out.println("  Real cost (" + operation.getCoutReel() + ") > Planned cost (" + operation.getCoutPrev() + ")");
-                    
-                    Probleme costProblem = createCostOverrunProblem(operation, dailyReport, systemUser);
-                    if (costProblem != null) {
-                        createdProblems.add(costProblem);
-                        System.out.println("  Created cost overrun problem with ID: " + costProblem.getId());
-                    } else {
-                        System.err.println("  Failed to create cost overrun problem");
-                    }
-                } else {
-                    System.out.println("  No cost overrun (real <= planned)");
-                }
-            } else {
-                System.out.println("  Skipping cost check - missing cost data");
-                System.out.println("  CoutReel is null: " + (operation.getCoutReel() == null));
-                System.out.println("  CoutPrev is null: " + (operation.getCoutPrev() == null));
-            }
+        CompiledRule costRule = rules.getOperationCost();
+        if (costRule != null) {
+            checkCostOverruns(findings, costRule, updatedOperations);
         }
         
         // 2. Check for phase-related problems
-        System.out.println("=== CHECKING PHASE PROBLEMS ===");
         Phase currentPhase = dailyReport.getCurrentPhase();
         if (currentPhase != null) {
-            System.out.println("Checking phase " + currentPhase.getId() + " (Phase " + currentPhase.getNumeroPhase() + ")");
+            logger.debug("Checking phase {} (Phase {})", currentPhase.getId(), currentPhase.getNumeroPhase());
+            PhaseOperationLookup phaseOperation = new PhaseOperationLookup(currentPhase);
             
             // Check depth overrun
-            System.out.println("Checking depth overrun:");
-            System.out.println("  - ProfondeurPrevue: " + currentPhase.getProfondeurPrevue());
-            System.out.println("  - ProfondeurReelle: " + currentPhase.getProfondeurReelle());
-            
-            if (currentPhase.getProfondeurReelle() != null && currentPhase.getProfondeurPrevue() != null) {
-                if (currentPhase.getProfondeurReelle() > currentPhase.getProfondeurPrevue()) {
-                    System.out.println("  *** DEPTH OVERRUN DETECTED ***");
-                    Probleme depthProblem = createDepthOverrunProblem(currentPhase, dailyReport, systemUser);
-                    if (depthProblem != null) {
-                        createdProblems.add(depthProblem);
-                        System.out.println("  Created depth overrun problem with ID: " + depthProblem.getId());
-                    }
-                } else {
-                    System.out.println("  No depth overrun");
-                }
-            } else {
-                System.out.println("  Skipping depth check - missing depth data");
+            CompiledRule depthRule = rules.getPhaseDepth();
+            if (depthRule != null) {
+                checkDepthOverrun(findings, depthRule, currentPhase, phaseOperation);
             }
             
             // Check schedule delays
-            System.out.println("Checking schedule delays:");
-            List<Probleme> scheduleProblems = checkScheduleDelays(currentPhase, dailyReport, systemUser);
-            createdProblems.addAll(scheduleProblems);
-            System.out.println("  Found " + scheduleProblems.size() + " schedule problems");
+            CompiledRule scheduleRule = rules.getPhaseSchedule();
+            if (scheduleRule != null) {
+                checkScheduleDelays(findings, scheduleRule, currentPhase, dailyReport, phaseOperation);
+            }
         } else {
-            System.out.println("No current phase to check for phase problems");
+            logger.debug("No current phase to check for phase problems");
         }
         
-        System.out.println("=== DETECTION COMPLETE ===");
-        System.out.println("Total problems created: " + createdProblems.size());
-        
-        return createdProblems;
-    }
-
-    private Probleme createCostOverrunProblem(Operation operation, DailyReport dailyReport, com.example.backend.model.Utilisateur systemUser) {
-        System.out.println("=== CREATING COST OVERRUN PROBLEM ===");
-        
-        // Check if a similar problem already exists for this operation
-        List<Probleme> existingProblems = problemeRepository.findByOperationAndTypeAndStatutNot(
-            operation, Probleme.Type.COUT, Probleme.Statut.FERME);
-        
-        System.out.println("Found " + existingProblems.size() + " existing cost problems for this operation");
+        // 3. Check indicateur measures against their planned values
+        if (rules.hasIndicateurRules()) {
+            checkIndicateurDeviations(findings, rules, dailyReport);
+        }
         
-        if (!existingProblems.isEmpty()) {
-            // Update existing problem with new cost information
-            Probleme existingProblem = existingProblems.get(0);
-            double overrun = operation.getCoutReel() - operation.getCoutPrev();
-            existingProblem.setImpactCout(overrun);
-            existingProblem.setDescription(String.format(
-                "Dépassement de coût détecté pour l'opération '%s'. Coût prévu: %.2f DZD, Coût réel: %.2f DZD, Dépassement: %.2f DZD",
-                operation.getDescription(),
-                operation.getCoutPrev(),
-                operation.getCoutReel(),
-                overrun
-            ));
-            System.out.println("Updated existing problem: " + existingProblem.getId());
-            return problemeRepository.save(existingProblem);
+        logger.debug("Rules fired {} times", findings.size());
+        if (findings.isEmpty()) {
+            return List.of();
         }
         
-        // Create new cost overrun problem
-        double overrun = operation.getCoutReel() - operation.getCoutPrev();
-        System.out.println("Creating new cost overrun problem:");
-        System.out.println("  - Overrun amount: " + overrun);
+        // Get system user for automatic problem detection (or use the report creator)
+        var systemUser = utilisateurRepository.findById(1L).orElse(null);
+        if (systemUser == null) {
+            logger.warn("System user not found, creating problems without user reference");
+        }
         
-        Probleme probleme = new Probleme();
-        probleme.setOperation(operation);
-        probleme.setType(Probleme.Type.COUT);
-        probleme.setDescription(String.format(
-            "Dépassement de coût détecté pour l'opération '%s'. Coût prévu: %.2f DZD, Coût réel: %.2f DZD, Dépassement: %.2f DZD",
-            operation.getDescription(),
-            operation.getCoutPrev(),
-            operation.getCoutReel(),
-            overrun
-        ));
-        probleme.setDateDetection(LocalDate.now());
-        probleme.setSignalePar(systemUser);
-        probleme.setImpactCout(overrun);
+        List<Probleme> savedProblems = problemeRepository.saveAll(toProblemes(findings, systemUser));
         
-        // Determine severity based on overrun percentage
-        double overrunPercentage = (overrun / operation.getCoutPrev()) * 100;
-        System.out.println("  - Overrun percentage: " + overrunPercentage + "%");
+        logger.debug("Problems created or updated: {}", savedProblems.size());
         
-        if (overrunPercentage > 50) {
-            probleme.setGravite(Probleme.Gravite.CRITIQUE);
-        } else if (overrunPercentage > 20) {
-            probleme.setGravite(Probleme.Gravite.MODEREE);
-        } else {
-            probleme.setGravite(Probleme.Gravite.FAIBLE);
+        return savedProblems;
+    }
+
+    /**
+     * Updates the open problem of each finding's detection key, or creates
+     * one. All open problems are looked up in a single query on detection_key.
+     */
+    private List<Probleme> toProblemes(List<Finding> findings, Utilisateur systemUser) {
+        // The same key can fire twice in a run (e.g. an operation listed twice); the last one wins
+        Map<String, Finding> findingsByKey = new LinkedHashMap<>();
+        for (Finding finding : findings) {
+            findingsByKey.put(finding.detectionKey, finding);
         }
         
-        probleme.setStatut(Probleme.Statut.OUVERT);
-        probleme.setSolutionPropose("Analyser les causes du dépassement et ajuster les estimations futures.");
-        
-        System.out.println("  - Severity: " + probleme.getGravite());
-        System.out.println("  - Status: " + probleme.getStatut());
+        Map<String, Probleme> openProblems = new HashMap<>();
+        for (Probleme probleme : problemeRepository.findByDetectionKeyInAndStatutNot(
+                findingsByKey.keySet(), Probleme.Statut.FERME)) {
+            openProblems.put(probleme.getDetectionKey(), probleme);
+        }
         
-        try {
-            Probleme saved = problemeRepository.save(probleme);
-            System.out.println("Successfully saved cost overrun problem with ID: " + saved.getId());
-            return saved;
-        } catch (Exception e) {
-            System.err.println("Error saving cost overrun problem: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+        List<Probleme> problems = new ArrayList<>(findingsByKey.size());
+        for (Finding finding : findingsByKey.values()) {
+            Probleme existingProblem = openProblems.get(finding.detectionKey);
+            if (existingProblem != null) {
+                // Update existing problem with the new measures
+                existingProblem.setDescription(finding.description);
+                if (finding.impactCout != null) {
+                    existingProblem.setImpactCout(finding.impactCout);
+                }
+                if (finding.impactDelai != null) {
+                    existingProblem.setImpactDelai(finding.impactDelai);
+                }
+                if (finding.updatesGravite) {
+                    existingProblem.setGravite(finding.gravite);
+                }
+                problems.add(existingProblem);
+                continue;
+            }
+            
+            Probleme probleme = new Probleme();
+            probleme.setDetectionKey(finding.detectionKey);
+            probleme.setOperation(finding.operation.get());
+            probleme.setType(finding.rule.getProblemType());
+            probleme.setDescription(finding.description);
+            probleme.setDateDetection(LocalDate.now());
+            probleme.setSignalePar(systemUser);
+            probleme.setGravite(finding.gravite);
+            probleme.setStatut(Probleme.Statut.OUVERT);
+            probleme.setSolutionPropose(finding.rule.getSolution());
+            probleme.setImpactCout(finding.impactCout);
+            probleme.setImpactDelai(finding.impactDelai);
+            problems.add(probleme);
         }
+        return problems;
     }
 
-    private Probleme createDepthOverrunProblem(Phase phase, DailyReport dailyReport, com.example.backend.model.Utilisateur systemUser) {
-        try {
-            // Check if a similar problem already exists for this phase
-            String depthDescription = String.format("Phase %d - Dépassement de profondeur", phase.getNumeroPhase());
-            List<Probleme> existingProblems = problemeRepository.findByDescriptionContainingAndStatutNot(
-                depthDescription, Probleme.Statut.FERME);
-            
-            if (!existingProblems.isEmpty()) {
-                // Update existing problem
-                Probleme existingProblem = existingProblems.get(0);
-                double depthOverrun = phase.getProfondeurReelle() - phase.getProfondeurPrevue();
-                existingProblem.setDescription(String.format(
-                    "Phase %d - Dépassement de profondeur détecté. Profondeur prévue: %.2f m, Profondeur réelle: %.2f m, Dépassement: %.2f m",
-                    phase.getNumeroPhase(),
-                    phase.getProfondeurPrevue(),
-                    phase.getProfondeurReelle(),
-                    depthOverrun
-                ));
-                return problemeRepository.save(existingProblem);
+    private void checkCostOverruns(List<Finding> findings, CompiledRule rule, List<Operation> operations) {
+        int overruns = 0;
+        for (Operation operation : operations) {
+            if (operation.getCoutReel() == null || operation.getCoutPrev() == null
+                    || operation.getCoutReel() <= operation.getCoutPrev()) {
+                continue;
             }
-            
-            // Create new depth overrun problem
-            double depthOverrun = phase.getProfondeurReelle() - phase.getProfondeurPrevue();
-            
-            Probleme probleme = new Probleme();
-            
-            // Find an operation from the current phase to attach to the problem
-            Operation attachedOperation = findOperationForPhase(phase);
-            if (attachedOperation != null) {
-                probleme.setOperation(attachedOperation);
-                System.out.println("Attached operation " + attachedOperation.getId() + " to depth overrun problem for phase " + phase.getNumeroPhase());
-            } else {
-                System.out.println("No operation found to attach to depth overrun problem for phase " + phase.getNumeroPhase());
+            double overrun = operation.getCoutReel() - operation.getCoutPrev();
+            Probleme.Gravite gravite = rule.classify((overrun / operation.getCoutPrev()) * 100);
+            if (gravite == null) {
+                continue;
             }
             
-            probleme.setType(Probleme.Type.TECHNIQUE);
-            probleme.setDescription(String.format(
+            Finding finding = new Finding(
+                rule.getId() + ":operation:" + operation.getId(),
+                rule,
+                gravite,
+                String.format(
+                    "Dépassement de coût détecté pour l'opération '%s'. Coût prévu: %.2f DZD, Coût réel: %.2f DZD, Dépassement: %.2f DZD",
+                    operation.getDescription(),
+                    operation.getCoutPrev(),
+                    operation.getCoutReel(),
+                    overrun
+                ),
+                () -> operation);
+            finding.impactCout = overrun;
+            findings.add(finding);
+            overruns++;
+        }
+        logger.debug("Found {} operations with a cost overrun", overruns);
+    }
+
+    private void checkDepthOverrun(List<Finding> findings, CompiledRule rule, Phase phase, PhaseOperationLookup phaseOperation) {
+        if (phase.getProfondeurReelle() == null || phase.getProfondeurPrevue() == null) {
+            return;
+        }
+        double depthOverrun = phase.getProfondeurReelle() - phase.getProfondeurPrevue();
+        Probleme.Gravite gravite = depthOverrun > 0 ? rule.classify((depthOverrun / phase.getProfondeurPrevue()) * 100) : null;
+        if (gravite == null) {
+            return;
+        }
+        
+        logger.debug("Depth overrun of {} m on phase {}", depthOverrun, phase.getId());
+        findings.add(new Finding(
+            rule.getId() + ":phase:" + phase.getId(),
+            rule,
+            gravite,
+            String.format(
                 "Phase %d - Dépassement de profondeur détecté. Profondeur prévue: %.2f m, Profondeur réelle: %.2f m, Dépassement: %.2f m",
                 phase.getNumeroPhase(),
                 phase.getProfondeurPrevue(),
                 phase.getProfondeurReelle(),
                 depthOverrun
-            ));
-            probleme.setDateDetection(LocalDate.now());
-            probleme.setSignalePar(systemUser);
-            
-            // Determine severity based on depth overrun percentage
-            double overrunPercentage = (depthOverrun / phase.getProfondeurPrevue()) * 100;
-            if (overrunPercentage > 30) {
-                probleme.setGravite(Probleme.Gravite.CRITIQUE);
-            } else if (overrunPercentage > 10) {
-                probleme.setGravite(Probleme.Gravite.MODEREE);
-            } else {
-                probleme.setGravite(Probleme.Gravite.FAIBLE);
-            }
-            
-            probleme.setStatut(Probleme.Statut.OUVERT);
-            probleme.setSolutionPropose("Réviser les paramètres de forage et les prévisions géologiques.");
-            
-            return problemeRepository.save(probleme);
-        } catch (Exception e) {
-            System.err.println("Error creating depth overrun problem: " + e.getMessage());
-            e.printStackTrace();
-            return null;
-        }
+            ),
+            phaseOperation));
     }
 
-    private List<Probleme> checkScheduleDelays(Phase phase, DailyReport dailyReport, com.example.backend.model.Utilisateur systemUser) {
-        List<Probleme> scheduleProblems = new ArrayList<>();
+    private void checkScheduleDelays(List<Finding> findings, CompiledRule rule, Phase phase, DailyReport dailyReport,
+                                     PhaseOperationLookup phaseOperation) {
         LocalDate reportDate = dailyReport.getReportDate();
         
         // Check if start date is delayed
         if (phase.getDateDebutPrevue() != null && phase.getDateDebutReelle() != null) {
-            if (phase.getDateDebutReelle().isAfter(phase.getDateDebutPrevue())) {
-                Probleme startDelayProblem = createScheduleDelayProblem(
-                    phase, "début", phase.getDateDebutPrevue(), phase.getDateDebutReelle(), 
-                    dailyReport, systemUser);
-                if (startDelayProblem != null) {
-                    scheduleProblems.add(startDelayProblem);
-                }
-            }
+            addScheduleDelay(findings, rule, phase, "début", "debut",
+                phase.getDateDebutPrevue(), phase.getDateDebutReelle(), phaseOperation);
         }
         
         // Check if current phase is behind schedule (if end date is planned but we're past it)
-        if (phase.getDateFinPrevue() != null && phase.getDateFinReelle() == null) {
-            if (reportDate.isAfter(phase.getDateFinPrevue())) {
-                Probleme endDelayProblem = createScheduleDelayProblem(
-                    phase, "fin", phase.getDateFinPrevue(), reportDate, 
-                    dailyReport, systemUser);
-                if (endDelayProblem != null) {
-                    scheduleProblems.add(endDelayProblem);
-                }
-            }
+        if (phase.getDateFinPrevue() != null && phase.getDateFinReelle() == null && reportDate != null) {
+            addScheduleDelay(findings, rule, phase, "fin", "fin",
+                phase.getDateFinPrevue(), reportDate, phaseOperation);
         }
         
         // Check if end date is delayed (if phase is completed but late)
         if (phase.getDateFinPrevue() != null && phase.getDateFinReelle() != null) {
-            if (phase.getDateFinReelle().isAfter(phase.getDateFinPrevue())) {
-                Probleme endDelayProblem = createScheduleDelayProblem(
-                    phase, "fin", phase.getDateFinPrevue(), phase.getDateFinReelle(), 
-                    dailyReport, systemUser);
-                if (endDelayProblem != null) {
-                    scheduleProblems.add(endDelayProblem);
-                }
-            }
+            addScheduleDelay(findings, rule, phase, "fin", "fin",
+                phase.getDateFinPrevue(), phase.getDateFinReelle(), phaseOperation);
         }
-        
-        return scheduleProblems;
     }
 
-    private Probleme createScheduleDelayProblem(Phase phase, String delayType, LocalDate plannedDate, 
-                                               LocalDate actualDate, DailyReport dailyReport, com.example.backend.model.Utilisateur systemUser) {
-        try {
-            // Check if a similar problem already exists
-            String delayDescription = String.format("Phase %d - Retard de %s", phase.getNumeroPhase(), delayType);
-            List<Probleme> existingProblems = problemeRepository.findByDescriptionContainingAndStatutNot(
-                delayDescription, Probleme.Statut.FERME);
-            
-            if (!existingProblems.isEmpty()) {
-                // Update existing problem
-                Probleme existingProblem = existingProblems.get(0);
-                long delayDays = java.time.temporal.ChronoUnit.DAYS.between(plannedDate, actualDate);
-                existingProblem.setImpactDelai((int) delayDays);
-                existingProblem.setDescription(String.format(
-                    "Phase %d - Retard de %s détecté. Date prévue: %s, Date réelle: %s, Retard: %d jours",
-                    phase.getNumeroPhase(),
-                    delayType,
-                    plannedDate.toString(),
-                    actualDate.toString(),
-                    delayDays
-                ));
-                return problemeRepository.save(existingProblem);
-            }
-            
-            // Create new schedule delay problem
-            long delayDays = java.time.temporal.ChronoUnit.DAYS.between(plannedDate, actualDate);
-            
-            Probleme probleme = new Probleme();
-            
-            // Find an operation from the current phase to attach to the problem
-            Operation attachedOperation = findOperationForPhase(phase);
-            if (attachedOperation != null) {
-                probleme.setOperation(attachedOperation);
-                System.out.println("Attached operation " + attachedOperation.getId() + " to schedule delay problem for phase " + phase.getNumeroPhase());
-            } else {
-                System.out.println("No operation found to attach to schedule delay problem for phase " + phase.getNumeroPhase());
-            }
-            
-            probleme.setType(Probleme.Type.DELAI);
-            probleme.setDescription(String.format(
+    private void addScheduleDelay(List<Finding> findings, CompiledRule rule, Phase phase, String delayType, String keySuffix,
+                                  LocalDate plannedDate, LocalDate actualDate, PhaseOperationLookup phaseOperation) {
+        long delayDays = java.time.temporal.ChronoUnit.DAYS.between(plannedDate, actualDate);
+        Probleme.Gravite gravite = delayDays > 0 ? rule.classify(delayDays) : null;
+        if (gravite == null) {
+            return;
+        }
+        
+        Finding finding = new Finding(
+            rule.getId() + ":phase:" + phase.getId() + ":" + keySuffix,
+            rule,
+            gravite,
+            String.format(
                 "Phase %d - Retard de %s détecté. Date prévue: %s, Date réelle: %s, Retard: %d jours",
                 phase.getNumeroPhase(),
                 delayType,
                 plannedDate.toString(),
                 actualDate.toString(),
                 delayDays
-            ));
-            probleme.setDateDetection(LocalDate.now());
-            probleme.setSignalePar(systemUser);
-            probleme.setImpactDelai((int) delayDays);
-            
-            // Determine severity based on delay duration
-            if (delayDays > 14) {
-                probleme.setGravite(Probleme.Gravite.CRITIQUE);
-            } else if (delayDays > 7) {
-                probleme.setGravite(Probleme.Gravite.MODEREE);
-            } else {
-                probleme.setGravite(Probleme.Gravite.FAIBLE);
+            ),
+            phaseOperation);
+        finding.impactDelai = (int) delayDays;
+        findings.add(finding);
+    }
+
+    /**
+     * Compares every indicateur of the report with its planned value using the
+     * rule of its type d'indicateur.
+     */
+    private void checkIndicateurDeviations(List<Finding> findings, DetectionRuleSet rules, DailyReport dailyReport) {
+        int deviations = 0;
+        for (Indicateur indicateur : indicateurRepository.findByDailyReport(dailyReport)) {
+            if (indicateur.getValeurPrevue() == null || indicateur.getValeurReelle() == null
+                    || indicateur.getValeurPrevue() == 0.0) {
+                continue;
+            }
+            Long typeId = indicateur.getTypeIndicateur() != null ? indicateur.getTypeIndicateur().getId() : null;
+            CompiledRule rule = rules.indicateurRuleFor(typeId);
+            if (rule == null) {
+                continue;
+            }
+            Probleme.Gravite gravite = rule.classify(
+                rule.deviationPercent(indicateur.getValeurPrevue(), indicateur.getValeurReelle()));
+            if (gravite == null) {
+                continue;
             }
             
-            probleme.setStatut(Probleme.Statut.OUVERT);
-            probleme.setSolutionPropose("Analyser les causes du retard et ajuster la planification.");
+            String nom = indicateur.getTypeIndicateur() != null ? indicateur.getTypeIndicateur().getNom() : "";
+            String unite = indicateur.getTypeIndicateur() != null && indicateur.getTypeIndicateur().getUnite() != null
+                ? " " + indicateur.getTypeIndicateur().getUnite() : "";
+            double deviation = (indicateur.getValeurReelle() - indicateur.getValeurPrevue())
+                / Math.abs(indicateur.getValeurPrevue()) * 100;
+            Operation operation = indicateur.getOperation();
             
-            return problemeRepository.save(probleme);
-        } catch (Exception e) {
-            System.err.println("Error creating schedule delay problem: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+            Finding finding = new Finding(
+                rule.getId() + ":indicateur:" + indicateur.getId(),
+                rule,
+                gravite,
+                String.format(
+                    "Indicateur %d - Écart de mesure détecté pour '%s'. Valeur prévue: %.2f%s, Valeur réelle: %.2f%s, Écart: %.1f %%",
+                    indicateur.getId(),
+                    nom,
+                    indicateur.getValeurPrevue(),
+                    unite,
+                    indicateur.getValeurReelle(),
+                    unite,
+                    deviation
+                ),
+                () -> operation);
+            finding.updatesGravite = true;
+            findings.add(finding);
+            deviations++;
         }
+        logger.debug("Found {} indicateurs deviating from their planned value", deviations);
     }
 
     /**
-     * Find an operation from the given phase to attach to a problem
-     * This provides access to forage and puit data through the operation's phase relationship
+     * Finds, at most once per detection run, an operation of the phase to
+     * attach phase-level problems to. This provides access to forage and puit
+     * data through the operation's phase relationship.
      */
+    private final class PhaseOperationLookup implements Supplier<Operation> {
+        private final Phase phase;
+        private boolean resolved;
+        private Operation operation;
+        
+        PhaseOperationLookup(Phase phase) {
+            this.phase = phase;
+        }
+        
+        @Override
+        public Operation get() {
+            if (!resolved) {
+                operation = findOperationForPhase(phase);
+                resolved = true;
+            }
+            return operation;
+        }
+    }
+
     private Operation findOperationForPhase(Phase phase) {
-        try {
-            // First, try to find operations from updated operations list for this phase
-            List<Operation> phaseOperations = operationRepository.findByPhase(phase);
-            
-            if (!phaseOperations.isEmpty()) {
-                // Prefer operations that have cost data (more likely to be relevant)
-                for (Operation operation : phaseOperations) {
-                    if (operation.getCoutReel() != null && operation.getCoutReel() > 0) {
-                        return operation;
-                    }
+        List<Operation> phaseOperations = operationRepository.findByPhase(phase);
+        
+        if (!phaseOperations.isEmpty()) {
+            // Prefer operations that have cost data (more likely to be relevant)
+            for (Operation operation : phaseOperations) {
+                if (operation.getCoutReel() != null && operation.getCoutReel() > 0) {
+                    return operation;
                 }
-                // If no operations with real cost, return the first available operation
-                return phaseOperations.get(0);
             }
-            
-            System.out.println("No operations found for phase " + phase.getNumeroPhase());
-            return null;
-        } catch (Exception e) {
-            System.err.println("Error finding operation for phase " + phase.getNumeroPhase() + ": " + e.getMessage());
-            return null;
+            // If no operations with real cost, return the first available operation
+            return phaseOperations.get(0);
         }
+        
+        logger.debug("No operations found for phase {}", phase.getNumeroPhase());
+        return null;
     }
 }
@@ -2,24 +2,46 @@ package com.example.backend.service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.backend.dto.CursorPage;
+import com.example.backend.dto.KeysetCursor;
+import com.example.backend.dto.ProblemeFilter;
+import com.example.backend.dto.ProblemeSummary;
 import com.example.backend.model.DailyReport;
 import com.example.backend.model.Operation;
 import com.example.backend.model.Probleme;
+import com.example.backend.model.Utilisateur;
 import com.example.backend.repository.OperationRepository;
 import com.example.backend.repository.ProblemeRepository;
+import com.example.backend.repository.ProblemeSpecifications;
 import com.example.backend.repository.UtilisateurRepository;
 
 @Service
 @Transactional
 public class ProblemeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ProblemeService.class);
+
     @Autowired
     private ProblemeRepository problemeRepository;
     
@@ -29,65 +51,105 @@ public class ProblemeService {
     @Autowired
     private UtilisateurRepository utilisateurRepository;
     
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
     @Autowired
     private ProblemeDetectionService problemeDetectionService;
     
     @Autowired
     private DailyReportService dailyReportService;
 
-    public List<Probleme> findAll() {
-        return problemeRepository.findAll();
+    /**
+     * Summaries of the problems matching every criterion of the filter, in
+     * one query, by id, with the related objects named in expand.
+     */
+    @Transactional(readOnly = true)
+    public List<ProblemeSummary> findSummaries(ProblemeFilter filter, Set<String> expand) {
+        Specification<Probleme> specification = filter.isEmpty() ? null : ProblemeSpecifications.matching(filter);
+        return expand(problemeRepository.findSummaries(specification, Pageable.unpaged()).getContent(), expand);
     }
 
-    public Optional<Probleme> findById(Long id) {
-        return problemeRepository.findById(id);
-    }
-    
-    public List<Probleme> findByOperation(Long operationId) {
-        return operationRepository.findById(operationId)
-                .map(operation -> problemeRepository.findByOperation(operation))
-                .orElse(List.of());
+    /**
+     * Keyset-paginated summaries of the problems matching the filter, in
+     * id order; the total, when asked for, counts the matching problems.
+     *
+     * @throws IllegalArgumentException on an invalid cursor or limit
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProblemeSummary> findSummaryPage(ProblemeFilter filter, String after, int limit,
+                                                       boolean includeTotal, Set<String> expand) {
+        long afterId = after != null ? KeysetCursor.decode(after).id() : Long.MIN_VALUE;
+        Specification<Probleme> matching = filter.isEmpty() ? null : ProblemeSpecifications.matching(filter);
+        Slice<ProblemeSummary> slice = problemeRepository.findSummaries(
+            Specification.where(matching).and(ProblemeSpecifications.idGreaterThan(afterId)),
+            PageRequest.of(0, CursorPage.checkLimit(limit)));
+        List<ProblemeSummary> items = expand(slice.getContent(), expand);
+        String nextCursor = slice.hasNext() && !items.isEmpty()
+            ? KeysetCursor.of(items.get(items.size() - 1).id()).encode() : null;
+        return new CursorPage<>(items, slice.getSize(), slice.hasNext(), nextCursor,
+            includeTotal ? problemeRepository.count(matching) : null);
     }
-    
-    public List<Probleme> findByType(String typeLabel) {
-        try {
-            Probleme.Type type = Probleme.Type.fromLabel(typeLabel);
-            return problemeRepository.findByType(type);
-        } catch (IllegalArgumentException e) {
-            return List.of();
+
+    /**
+     * Fills in the related objects named in expand, loading each kind with
+     * one query for all the distinct ids of the list.
+     */
+    private List<ProblemeSummary> expand(List<ProblemeSummary> summaries, Set<String> expand) {
+        if (expand.isEmpty() || summaries.isEmpty()) {
+            return summaries;
         }
-    }
-    
-    public List<Probleme> findBySignalePar(Long utilisateurId) {
-        return utilisateurRepository.findById(utilisateurId)
-                .map(utilisateur -> problemeRepository.findBySignalePar(utilisateur))
-                .orElse(List.of());
-    }
-    
-    public List<Probleme> findByResoluPar(Long utilisateurId) {
-        return utilisateurRepository.findById(utilisateurId)
-                .map(utilisateur -> problemeRepository.findByResoluPar(utilisateur))
-                .orElse(List.of());
-    }
-    
-    public List<Probleme> findByGravite(String graviteLabel) {
-        try {
-            Probleme.Gravite gravite = Probleme.Gravite.fromLabel(graviteLabel);
-            return problemeRepository.findByGravite(gravite);
-        } catch (IllegalArgumentException e) {
-            return List.of();
+        Map<Long, Operation> operations = new HashMap<>();
+        if (expand.contains(ProblemeSummary.EXPAND_OPERATION)) {
+            Set<Long> ids = idsOf(summaries, ProblemeSummary::operationId);
+            operationRepository.findAllById(ids).forEach(operation -> operations.put(operation.getId(), operation));
+        }
+        Map<Long, Utilisateur> utilisateurs = new HashMap<>();
+        Set<Long> utilisateurIds = new HashSet<>();
+        if (expand.contains(ProblemeSummary.EXPAND_SIGNALE_PAR)) {
+            utilisateurIds.addAll(idsOf(summaries, ProblemeSummary::signaleParId));
         }
+        if (expand.contains(ProblemeSummary.EXPAND_RESOLU_PAR)) {
+            utilisateurIds.addAll(idsOf(summaries, ProblemeSummary::resoluParId));
+        }
+        if (!utilisateurIds.isEmpty()) {
+            utilisateurRepository.findAllById(utilisateurIds)
+                .forEach(utilisateur -> utilisateurs.put(utilisateur.getId(), utilisateur));
+        }
+
+        List<ProblemeSummary> expanded = new ArrayList<>(summaries.size());
+        for (ProblemeSummary summary : summaries) {
+            expanded.add(summary.expanded(
+                operations.get(summary.operationId()),
+                expand.contains(ProblemeSummary.EXPAND_SIGNALE_PAR) ? utilisateurs.get(summary.signaleParId()) : null,
+                expand.contains(ProblemeSummary.EXPAND_RESOLU_PAR) ? utilisateurs.get(summary.resoluParId()) : null));
+        }
+        return expanded;
     }
-    
-    public List<Probleme> findByStatut(String statutLabel) {
-        try {
-            Probleme.Statut statut = Probleme.Statut.fromLabel(statutLabel);
-            return problemeRepository.findByStatut(statut);
-        } catch (IllegalArgumentException e) {
-            return List.of();
+
+    private static Set<Long> idsOf(List<ProblemeSummary> summaries, Function<ProblemeSummary, Long> id) {
+        Set<Long> ids = new HashSet<>();
+        for (ProblemeSummary summary : summaries) {
+            Long value = id.apply(summary);
+            if (value != null) {
+                ids.add(value);
+            }
         }
+        return ids;
+    }
+
+    /**
+     * All rows in id order, read through a database cursor. Must be consumed
+     * and closed inside the caller's transaction.
+     */
+    public Stream<Probleme> streamAll() {
+        return problemeRepository.streamAll();
     }
 
+    public Optional<Probleme> findById(Long id) {
+        return problemeRepository.findById(id);
+    }
+    
     public Probleme create(Probleme probleme) {
         try {
             if (probleme.getDateDetection() == null) {
@@ -99,46 +161,44 @@ public class ProblemeService {
                 probleme.setStatut(Probleme.Statut.OUVERT);
             }
             
-            System.out.println("Creating problem: " + probleme.getDescription());
-            System.out.println("Problem type: " + probleme.getType());
-            System.out.println("Problem gravity: " + probleme.getGravite());
-            System.out.println("Problem status: " + probleme.getStatut());
-            
+            probleme.setVersion(null);
             Probleme saved = problemeRepository.save(probleme);
-            System.out.println("Successfully created problem with ID: " + saved.getId());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Created problem {} ({}, {}, {})", saved.getId(), saved.getType(), saved.getGravite(), saved.getStatut());
+            }
             return saved;
         } catch (Exception e) {
-            System.err.println("Error creating problem: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Error creating problem", e);
             throw e;
         }
     }
 
-    public Optional<Probleme> update(Long id, Probleme problemeData) {
+    /**
+     * Applies the non-null fields of problemeData. Detection runs update open
+     * problems too, so a client editing one should send the version it read.
+     * The update is flushed so the returned problem carries its new version.
+     *
+     * @param expectedVersion the version the change was made from, or null to skip the check
+     * @throws ObjectOptimisticLockingFailureException if the problem is no
+     *         longer at expectedVersion or was updated concurrently
+     */
+    public Optional<Probleme> update(Long id, Long expectedVersion, Probleme problemeData) {
         return problemeRepository.findById(id)
             .map(probleme -> {
-                // Handle Operation relationship
-                if (problemeData.getOperation() != null && problemeData.getOperation().getId() != null) {
-                    operationRepository.findById(problemeData.getOperation().getId())
-                        .ifPresent(probleme::setOperation);
-                }
+                OptimisticLocking.checkVersion(Probleme.class, id, probleme.getVersion(), expectedVersion);
+                
+                // Relationships, as references checked in one query per type
+                // (signalePar and resoluPar share a single Utilisateur query)
+                referenceResolver.batch()
+                    .set(Operation.class, problemeData.getOperation(), probleme.getOperation(), probleme::setOperation)
+                    .set(Utilisateur.class, problemeData.getSignalePar(), probleme.getSignalePar(), probleme::setSignalePar)
+                    .set(Utilisateur.class, problemeData.getResoluPar(), probleme.getResoluPar(), probleme::setResoluPar)
+                    .resolve();
                 
                 if (problemeData.getType() != null) {
                     probleme.setType(problemeData.getType());
                 }
                 
-                // Handle SignalePar relationship
-                if (problemeData.getSignalePar() != null && problemeData.getSignalePar().getId() != null) {
-                    utilisateurRepository.findById(problemeData.getSignalePar().getId())
-                        .ifPresent(probleme::setSignalePar);
-                }
-                
-                // Handle ResoluPar relationship
-                if (problemeData.getResoluPar() != null && problemeData.getResoluPar().getId() != null) {
-                    utilisateurRepository.findById(problemeData.getResoluPar().getId())
-                        .ifPresent(probleme::setResoluPar);
-                }
-                
                 if (problemeData.getDescription() != null) {
                     probleme.setDescription(problemeData.getDescription());
                 }
@@ -172,7 +232,7 @@ public class ProblemeService {
                     probleme.setImpactCout(problemeData.getImpactCout());
                 }
                 
-                return problemeRepository.save(probleme);
+                return problemeRepository.saveAndFlush(probleme);
             });
     }
 
@@ -186,58 +246,53 @@ public class ProblemeService {
     }
 
     /**
-     * Detect problems from a daily report and updated operations
+     * Detects problems from a daily report and its updated operations, and
+     * creates or updates them. Failures propagate: once a query has failed
+     * the transaction can only roll back, so there is no partial result to
+     * return. Background detection jobs record and retry them.
+     *
+     * @throws IllegalArgumentException if the daily report does not exist
      */
-    public List<Probleme> detectProblemsFromDailyReport(Long dailyReportId, List<Long> updatedOperationIds) {
-        try {
-            System.out.println("=== PROBLEM DETECTION SERVICE ===");
-            System.out.println("Daily Report ID: " + dailyReportId);
-            System.out.println("Updated Operation IDs: " + updatedOperationIds);
-            
-            // Get the daily report
-            Optional<DailyReport> dailyReportOpt = dailyReportService.findById(dailyReportId);
-            if (!dailyReportOpt.isPresent()) {
-                System.err.println("Daily report not found: " + dailyReportId);
-                return List.of();
+    public List<Probleme> runDetection(Long dailyReportId, List<Long> updatedOperationIds) {
+        logger.debug("Detecting problems for daily report {}, operations {}", dailyReportId, updatedOperationIds);
+        
+        // Get the daily report
+        Optional<DailyReport> dailyReportOpt = dailyReportService.findForDetection(dailyReportId);
+        if (!dailyReportOpt.isPresent()) {
+            throw new IllegalArgumentException("Daily report not found: " + dailyReportId);
+        }
+        
+        DailyReport dailyReport = dailyReportOpt.get();
+        
+        // Get the updated operations in one query, keeping the requested order
+        List<Operation> updatedOperations = new ArrayList<>();
+        if (updatedOperationIds != null && !updatedOperationIds.isEmpty()) {
+            Map<Long, Operation> operationsById = new HashMap<>();
+            for (Operation operation : operationRepository.findAllById(new LinkedHashSet<>(updatedOperationIds))) {
+                operationsById.put(operation.getId(), operation);
             }
-            
-            DailyReport dailyReport = dailyReportOpt.get();
-            System.out.println("Found daily report: " + dailyReport.getReportName());
-            System.out.println("Daily report current phase: " + (dailyReport.getCurrentPhase() != null ? dailyReport.getCurrentPhase().getId() : "null"));
-            
-            // Get the updated operations
-            List<Operation> updatedOperations = new ArrayList<>();
-            if (updatedOperationIds != null && !updatedOperationIds.isEmpty()) {
-                System.out.println("Fetching updated operations...");
-                for (Long operationId : updatedOperationIds) {
-                    Optional<Operation> operationOpt = operationRepository.findById(operationId);
-                    if (operationOpt.isPresent()) {
-                        Operation operation = operationOpt.get();
-                        System.out.println("Operation " + operationId + " - coutPrev: " + operation.getCoutPrev() + ", coutReel: " + operation.getCoutReel());
-                        updatedOperations.add(operation);
-                    } else {
-                        System.err.println("Operation not found: " + operationId);
-                    }
+            for (Long operationId : new LinkedHashSet<>(updatedOperationIds)) {
+                Operation operation = operationsById.get(operationId);
+                if (operation != null) {
+                    updatedOperations.add(operation);
+                } else {
+                    logger.warn("Operation not found: {}", operationId);
                 }
             }
-            System.out.println("Found " + updatedOperations.size() + " updated operations");
-            
-            // Use the detection service to find problems
-            List<Probleme> detectedProblems = problemeDetectionService.detectAndCreateProblems(dailyReport, updatedOperations);
-            
-            System.out.println("Detection completed. Found " + detectedProblems.size() + " problems");
+        }
+        logger.debug("Found {} updated operations", updatedOperations.size());
+        
+        // Use the detection service to find problems
+        List<Probleme> detectedProblems = problemeDetectionService.detectAndCreateProblems(dailyReport, updatedOperations);
+        
+        logger.debug("Detection completed. Found {} problems", detectedProblems.size());
+        if (logger.isTraceEnabled()) {
             for (Probleme problem : detectedProblems) {
-                System.out.println("Problem: " + problem.getType() + " - " + problem.getDescription());
-                System.out.println("Impact Cost: " + problem.getImpactCout());
-                System.out.println("Severity: " + problem.getGravite());
-                System.out.println("Status: " + problem.getStatut());
+                logger.trace("Problem {}: {} {} {} - {}", problem.getId(), problem.getType(), problem.getGravite(),
+                    problem.getStatut(), problem.getDescription());
             }
-            
-            return detectedProblems;
-        } catch (Exception e) {
-            System.err.println("Error in detectProblemsFromDailyReport: " + e.getMessage());
-            e.printStackTrace();
-            return List.of();
         }
+        
+        return detectedProblems;
     }
-}
+}
\ No newline at end of file
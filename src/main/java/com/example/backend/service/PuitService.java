@@ -9,19 +9,28 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.backend.model.Puit;
+import com.example.backend.model.Region;
 import com.example.backend.repository.PuitRepository;
-import com.example.backend.repository.RegionRepository;
 
 @Service
 @Transactional
 public class PuitService {
 
+    // Name of the puits in CollectionVersions
+    public static final String VERSION_NAME = "puits";
+
     @Autowired
     private PuitRepository puitRepository;
     
     @Autowired
-    private RegionRepository regionRepository;
-
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
+    @Autowired
+    private CollectionVersions collectionVersions;
+    
     public List<Puit> findAll() {
         return puitRepository.findAll();
     }
@@ -31,7 +40,7 @@ public class PuitService {
     }
     
     public List<Puit> findByRegion(Long regionId) {
-        return regionRepository.findById(regionId)
+        return referenceDataCache.getRegion(regionId)
                 .map(region -> puitRepository.findByRegion(region))
                 .orElse(List.of());
     }
@@ -41,6 +50,7 @@ public class PuitService {
         if (puit.getCreated_at() == null) {
             puit.setCreated_at(LocalDateTime.now());
         }
+        collectionVersions.bump(VERSION_NAME);
         return puitRepository.save(puit);
     }
 
@@ -51,15 +61,15 @@ public class PuitService {
                 puit.setType(puitData.getType());
                 
                 // Handle Region relationship
-                if (puitData.getRegion() != null && puitData.getRegion().getId() != null) {
-                    regionRepository.findById(puitData.getRegion().getId())
-                        .ifPresent(puit::setRegion);
-                }
+                referenceResolver.batch()
+                    .set(Region.class, puitData.getRegion(), puit.getRegion(), puit::setRegion)
+                    .resolve();
                 
                 puit.setCoord_x(puitData.getCoord_x());
                 puit.setCoord_y(puitData.getCoord_y());
                 puit.setStatut(puitData.getStatut());
                 // Don't update created_by and created_at
+                collectionVersions.bump(VERSION_NAME);
                 return puitRepository.save(puit);
             });
     }
@@ -68,6 +78,7 @@ public class PuitService {
         return puitRepository.findById(id)
             .map(puit -> {
                 puitRepository.delete(puit);
+                collectionVersions.bump(VERSION_NAME);
                 return true;
             })
             .orElse(false);
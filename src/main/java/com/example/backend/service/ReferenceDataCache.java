@@ -0,0 +1,328 @@
+package com.example.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.model.Region;
+import com.example.backend.model.TypeIndicateur;
+import com.example.backend.model.TypeOperation;
+import com.example.backend.repository.RegionRepository;
+import com.example.backend.repository.TypeIndicateurRepository;
+import com.example.backend.repository.TypeOperationRepository;
+
+/**
+ * Read-through cache of the reference tables: types d'opération, types
+ * d'indicateur and regions.
+ *
+ * These tables are small and rarely change, so each one is loaded whole on
+ * first use and then served from memory, including lookups of ids that do
+ * not exist. A table is reloaded after ttl-ms, or on next use after a write
+ * to it has committed (see invalidate()).
+ *
+ * The version of a table is a digest of its rows, so a reload that finds
+ * the same rows keeps the ETag and Last-Modified that clients hold.
+ *
+ * The entities are loaded in their own read-only transaction and are
+ * detached and shared between threads: callers must not modify them. To
+ * point a managed entity at one, use EntityManager.getReference() with its
+ * id, as ReferenceResolver does.
+ */
+@Component
+public class ReferenceDataCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+    // Names of the tables in CollectionVersions and in getStats()
+    public static final String TYPE_OPERATIONS = "typeOperations";
+    public static final String TYPE_INDICATEURS = "typeIndicateurs";
+    public static final String REGIONS = "regions";
+
+    private final long ttlMillis;
+    private final CachedTable<String, TypeOperation> typeOperations;
+    private final CachedTable<Long, TypeIndicateur> typeIndicateurs;
+    private final CachedTable<Long, Region> regions;
+
+    public ReferenceDataCache(TypeOperationRepository typeOperationRepository,
+                              TypeIndicateurRepository typeIndicateurRepository,
+                              RegionRepository regionRepository,
+                              PlatformTransactionManager transactionManager,
+                              CollectionVersions collectionVersions,
+                              @Value("${reference-data.cache.ttl-ms:600000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        // A separate transaction, so the entities are not managed by the caller's
+        TransactionTemplate loadTransaction = new TransactionTemplate(transactionManager);
+        loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        loadTransaction.setReadOnly(true);
+
+        this.typeOperations = new CachedTable<>(TYPE_OPERATIONS, TypeOperation::getCode,
+            ReferenceDataCache::typeOperationContent,
+            () -> loadTransaction.execute(status -> typeOperationRepository.findAll(Sort.by("code"))));
+        this.typeIndicateurs = new CachedTable<>(TYPE_INDICATEURS, TypeIndicateur::getId,
+            ReferenceDataCache::typeIndicateurContent,
+            () -> loadTransaction.execute(status -> typeIndicateurRepository.findAll(Sort.by("id"))));
+        this.regions = new CachedTable<>(REGIONS, Region::getId,
+            ReferenceDataCache::regionContent,
+            () -> loadTransaction.execute(status -> regionRepository.findAll(Sort.by("id"))));
+
+        collectionVersions.register(typeOperations.name, typeOperations::version);
+        collectionVersions.register(typeIndicateurs.name, typeIndicateurs::version);
+        collectionVersions.register(regions.name, regions::version);
+    }
+
+    public List<TypeOperation> getTypeOperations() {
+        return typeOperations.all();
+    }
+
+    public Optional<TypeOperation> getTypeOperation(String code) {
+        return typeOperations.get(code);
+    }
+
+    public List<TypeIndicateur> getTypeIndicateurs() {
+        return typeIndicateurs.all();
+    }
+
+    public Optional<TypeIndicateur> getTypeIndicateur(Long id) {
+        return typeIndicateurs.get(id);
+    }
+
+    public List<Region> getRegions() {
+        return regions.all();
+    }
+
+    public Optional<Region> getRegion(Long id) {
+        return regions.get(id);
+    }
+
+    // The fields each row is served with, embedded rows included
+    private static List<Object> typeOperationContent(TypeOperation type) {
+        return Arrays.asList(type.getCode(), type.getNom(), type.getDescription());
+    }
+
+    private static List<Object> typeIndicateurContent(TypeIndicateur type) {
+        TypeOperation typeOperation = type.getTypeOperation();
+        return Arrays.asList(type.getId(), type.getNom(), type.getUnite(), type.getEstObligatoire(),
+            typeOperation != null ? typeOperationContent(typeOperation) : null);
+    }
+
+    private static List<Object> regionContent(Region region) {
+        return Arrays.asList(region.getId(), region.getNom(), region.getCode(), region.getLocalisation(),
+            region.getResponsable(), region.getCreated_at());
+    }
+
+    public boolean caches(Class<?> type) {
+        return tableOf(type) != null;
+    }
+
+    /**
+     * Whether the cached table of the entity type holds the id. Rows created
+     * by a transaction not yet committed are not seen.
+     */
+    public boolean contains(Class<?> type, Object id) {
+        CachedTable<?, ?> table = tableOf(type);
+        return table != null && id != null && table.contains(id);
+    }
+
+    /**
+     * The cached table of an entity type, or null if the type is not cached.
+     */
+    private CachedTable<?, ?> tableOf(Class<?> type) {
+        if (type == TypeOperation.class) {
+            return typeOperations;
+        }
+        if (type == TypeIndicateur.class) {
+            return typeIndicateurs;
+        }
+        if (type == Region.class) {
+            return regions;
+        }
+        return null;
+    }
+
+    /**
+     * Marks the table of the entity type stale. Inside a transaction this is
+     * deferred until commit so a concurrent reload cannot cache pre-commit
+     * data. Types d'indicateur embed their type d'opération, so they are
+     * reloaded along with it.
+     */
+    public void invalidate(Class<?> type) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(type);
+                }
+            });
+        } else {
+            invalidateNow(type);
+        }
+    }
+
+    private void invalidateNow(Class<?> type) {
+        CachedTable<?, ?> table = tableOf(type);
+        if (table != null) {
+            table.invalidate();
+        }
+        if (type == TypeOperation.class) {
+            typeIndicateurs.invalidate();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ttlMs", ttlMillis);
+        stats.put(typeOperations.name, typeOperations.stats());
+        stats.put(typeIndicateurs.name, typeIndicateurs.stats());
+        stats.put(regions.name, regions.stats());
+        return stats;
+    }
+
+    /**
+     * One reference table, held as an immutable snapshot replaced on reload.
+     */
+    private final class CachedTable<K, E> {
+
+        private final String name;
+        private final Function<E, K> idOf;
+        private final Function<E, List<Object>> contentOf;
+        private final Supplier<List<E>> loader;
+
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Snapshot<K, E> current;
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+
+        // changedAt is when rows with this digest were first loaded
+        private record Snapshot<K, E>(Map<K, E> byId, List<E> all, long loadedAt, long generation,
+                                      String digest, long changedAt) {}
+
+        CachedTable(String name, Function<E, K> idOf, Function<E, List<Object>> contentOf,
+                    Supplier<List<E>> loader) {
+            this.name = name;
+            this.idOf = idOf;
+            this.contentOf = contentOf;
+            this.loader = loader;
+        }
+
+        List<E> all() {
+            return snapshot(true).all();
+        }
+
+        Optional<E> get(K id) {
+            return id == null ? Optional.empty() : Optional.ofNullable(snapshot(true).byId().get(id));
+        }
+
+        boolean contains(Object id) {
+            return snapshot(true).byId().containsKey(id);
+        }
+
+        private Snapshot<K, E> snapshot(boolean countHit) {
+            Snapshot<K, E> snapshot = current;
+            if (isFresh(snapshot)) {
+                if (countHit) {
+                    hits.incrementAndGet();
+                }
+                return snapshot;
+            }
+            synchronized (this) {
+                snapshot = current;
+                if (isFresh(snapshot)) {
+                    if (countHit) {
+                        hits.incrementAndGet();
+                    }
+                    return snapshot;
+                }
+                misses.incrementAndGet();
+                long loadGeneration = generation.get();
+                long start = System.currentTimeMillis();
+                List<E> rows = loader.get();
+                Map<K, E> byId = new LinkedHashMap<>();
+                MessageDigest digest = sha256();
+                for (E row : rows) {
+                    byId.put(idOf.apply(row), row);
+                    digest.update(contentOf.apply(row).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+                String rowsDigest = HexFormat.of().formatHex(digest.digest(), 0, 12);
+                long loadedAt = System.currentTimeMillis();
+                Snapshot<K, E> previous = snapshot;
+                long changedAt = previous != null && previous.digest().equals(rowsDigest)
+                    ? previous.changedAt() : loadedAt;
+                snapshot = new Snapshot<>(Collections.unmodifiableMap(byId), List.copyOf(rows),
+                    loadedAt, loadGeneration, rowsDigest, changedAt);
+                current = snapshot;
+                logger.debug("Loaded {} {} in {} ms", rows.size(), name, System.currentTimeMillis() - start);
+                return snapshot;
+            }
+        }
+
+        /**
+         * Version of the snapshot being served, for CollectionVersions. Other
+         * endpoints embed these rows, so a stale table is reloaded here
+         * rather than leaving them without validators. Reading it is not
+         * counted as a hit.
+         */
+        CollectionVersions.Version version() {
+            Snapshot<K, E> snapshot = snapshot(false);
+            return new CollectionVersions.Version(snapshot.digest(), snapshot.changedAt());
+        }
+
+        private boolean isFresh(Snapshot<K, E> snapshot) {
+            return snapshot != null
+                && snapshot.generation() == generation.get()
+                && System.currentTimeMillis() - snapshot.loadedAt() < ttlMillis;
+        }
+
+        void invalidate() {
+            generation.incrementAndGet();
+            invalidations.incrementAndGet();
+        }
+
+        Map<String, Object> stats() {
+            long hitCount = hits.get();
+            long missCount = misses.get();
+            long requests = hitCount + missCount;
+            Snapshot<K, E> snapshot = current;
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("size", snapshot != null ? snapshot.all().size() : 0);
+            stats.put("requests", requests);
+            stats.put("hits", hitCount);
+            stats.put("misses", missCount);
+            stats.put("hitRatio", requests > 0 ? (double) hitCount / requests : 0.0);
+            stats.put("invalidations", invalidations.get());
+            return stats;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.backend.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Sets the relations of an entity being updated from the id-only stubs of
+ * the request body, without loading the referenced entities.
+ *
+ * The relations of one update are collected in a Batch and resolved
+ * together: each becomes an EntityManager.getReference() proxy, and their
+ * existence is checked with one id-only IN query per entity type. A
+ * relation that already points at the requested id, or whose target is
+ * already loaded, or whose id is in the ReferenceDataCache, costs no query
+ * at all. References to missing ids are ignored, leaving the relation
+ * unchanged, unless an ifMissing callback is given. A Batch may span many
+ * entities, e.g. a whole create batch.
+ *
+ * Must be used inside the update's transaction.
+ */
+@Component
+public class ReferenceResolver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceResolver.class);
+
+    // Ids per query, below Oracle's 1000-element IN list limit
+    private static final int IN_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    public Batch batch() {
+        return new Batch();
+    }
+
+    public final class Batch {
+
+        private final List<Assignment<?>> assignments = new ArrayList<>();
+
+        private Batch() {
+        }
+
+        /**
+         * Queues setting a relation to the entity identified by requested, if
+         * requested carries an id different from the current one.
+         */
+        public <E> Batch set(Class<E> type, E requested, E current, Consumer<? super E> setter) {
+            return set(type, requested, current, setter, null);
+        }
+
+        /**
+         * As set(), passing the requested id to ifMissing instead of calling
+         * the setter if there is no entity with that id.
+         */
+        public <E> Batch set(Class<E> type, E requested, E current, Consumer<? super E> setter, Consumer<Object> ifMissing) {
+            Object id = requested != null ? identifier(requested) : null;
+            if (id != null && (current == null || !id.equals(identifier(current)))) {
+                assignments.add(new Assignment<>(type, id, setter, ifMissing));
+            }
+            return this;
+        }
+
+        /**
+         * For a new entity, whose relation still holds the stub deserialized
+         * from the request: clears the relation, then queues setting it to
+         * the referenced entity. A stub without an id leaves it null.
+         */
+        public <E> Batch replace(Class<E> type, E stub, Consumer<? super E> setter, Consumer<Object> ifMissing) {
+            setter.accept(null);
+            return set(type, stub, null, setter, ifMissing);
+        }
+
+        /**
+         * Checks the queued ids and applies the setters of the existing ones.
+         */
+        public void resolve() {
+            Map<Class<?>, Set<Object>> unverified = new LinkedHashMap<>();
+            for (Assignment<?> assignment : assignments) {
+                assignment.lookUp();
+                // Already in the persistence context or cached, so known to exist
+                assignment.verified = Hibernate.isInitialized(assignment.reference)
+                        || referenceDataCache.contains(assignment.type, assignment.id);
+                if (!assignment.verified) {
+                    unverified.computeIfAbsent(assignment.type, type -> new HashSet<>()).add(assignment.id);
+                }
+            }
+
+            Map<Class<?>, Set<Object>> existing = new HashMap<>();
+            unverified.forEach((type, ids) -> existing.put(type, existingIds(type, ids)));
+
+            for (Assignment<?> assignment : assignments) {
+                // Only the ids that were queried are looked up in the results
+                if (assignment.verified || existing.get(assignment.type).contains(assignment.id)) {
+                    assignment.apply();
+                } else if (assignment.ifMissing != null) {
+                    assignment.ifMissing.accept(assignment.id);
+                } else {
+                    logger.debug("Ignoring reference to missing {} {}", assignment.type.getSimpleName(), assignment.id);
+                }
+            }
+            assignments.clear();
+        }
+    }
+
+    private final class Assignment<E> {
+
+        private final Class<E> type;
+        private final Object id;
+        private final Consumer<? super E> setter;
+        private final Consumer<Object> ifMissing;
+        private E reference;
+        private boolean verified;
+
+        Assignment(Class<E> type, Object id, Consumer<? super E> setter, Consumer<Object> ifMissing) {
+            this.type = type;
+            this.id = id;
+            this.setter = setter;
+            this.ifMissing = ifMissing;
+        }
+
+        void lookUp() {
+            reference = entityManager.getReference(type, id);
+        }
+
+        void apply() {
+            setter.accept(reference);
+        }
+    }
+
+    private Object identifier(Object entity) {
+        return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    private Set<Object> existingIds(Class<?> type, Collection<Object> ids) {
+        EntityType<?> entity = entityManager.getMetamodel().entity(type);
+        String idName = entity.getId(entity.getIdType().getJavaType()).getName();
+        String query = "SELECT e." + idName + " FROM " + entity.getName() + " e WHERE e." + idName + " IN :ids";
+
+        List<Object> pending = new ArrayList<>(ids);
+        Set<Object> found = new HashSet<>();
+        for (int from = 0; from < pending.size(); from += IN_CHUNK_SIZE) {
+            found.addAll(entityManager.createQuery(query)
+                .setParameter("ids", pending.subList(from, Math.min(from + IN_CHUNK_SIZE, pending.size())))
+                .getResultList());
+        }
+        return found;
+    }
+}
@@ -18,12 +18,15 @@ public class RegionService {
     @Autowired
     private RegionRepository regionRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<Region> findAll() {
-        return regionRepository.findAll();
+        return referenceDataCache.getRegions();
     }
 
     public Optional<Region> findById(Long id) {
-        return regionRepository.findById(id);
+        return referenceDataCache.getRegion(id);
     }
 
     public Region create(Region region) {
@@ -31,6 +34,7 @@ public class RegionService {
         if (region.getCreated_at() == null) {
             region.setCreated_at(LocalDateTime.now());
         }
+        referenceDataCache.invalidate(Region.class);
         return regionRepository.save(region);
     }
 
@@ -42,6 +46,7 @@ public class RegionService {
                 region.setLocalisation(regionData.getLocalisation());
                 region.setResponsable(regionData.getResponsable());
                 // Don't update created_at
+                referenceDataCache.invalidate(Region.class);
                 return regionRepository.save(region);
             });
     }
@@ -50,6 +55,7 @@ public class RegionService {
         return regionRepository.findById(id)
             .map(region -> {
                 regionRepository.delete(region);
+                referenceDataCache.invalidate(Region.class);
                 return true;
             })
             .orElse(false);
@@ -0,0 +1,175 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.backend.config.NormalizedJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes a whole table as an ApiResponse-shaped JSON document while it is
+ * being read, instead of loading it into a List first.
+ *
+ * The rows come from a repository Stream in a read-only transaction that
+ * lasts as long as the response. They are read in chunks of clear-every
+ * rows; after each chunk is written the output is flushed and the
+ * persistence context cleared, so memory stays flat whatever the size of
+ * the table.
+ */
+@Service
+public class StreamingExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingExportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int clearEvery;
+
+    public StreamingExportService(ObjectMapper objectMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${export.clear-every:500}") int clearEvery) {
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.clearEvery = clearEvery;
+    }
+
+    /**
+     * Returns the response body for the rows of {@code query}, written as
+     * {"success":true,"data":[...],"message":...}. The query runs when
+     * Jersey writes the response, not when this method is called.
+     */
+    public <T> Export export(String name, Supplier<Stream<T>> query, String message) {
+        return new Export(name, query, null, message, objectMapper, false);
+    }
+
+    /**
+     * As export(), calling prepare on each chunk of rows before it is
+     * written, e.g. to initialize lazy collections of the whole chunk at
+     * once: unloaded relations are written as null or as an id reference.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Export export(String name, Supplier<Stream<T>> query, Consumer<List<T>> prepare, String message) {
+        return new Export(name, query, rows -> prepare.accept((List<T>) rows), message, objectMapper, false);
+    }
+
+    /**
+     * A streaming export body. normalized() gives the same export in the
+     * normalized format of NormalizedJson, with the entities referenced by
+     * the rows written once, after them. encodedWith() writes it with another
+     * mapper, e.g. a binary one.
+     */
+    public final class Export implements StreamingOutput {
+
+        private final String name;
+        private final Supplier<? extends Stream<?>> query;
+        private final Consumer<List<Object>> prepare;
+        private final String message;
+        private final ObjectMapper mapper;
+        private final boolean normalized;
+
+        private Export(String name, Supplier<? extends Stream<?>> query, Consumer<List<Object>> prepare,
+                       String message, ObjectMapper mapper, boolean normalized) {
+            this.name = name;
+            this.query = query;
+            this.prepare = prepare;
+            this.message = message;
+            this.mapper = mapper;
+            this.normalized = normalized;
+        }
+
+        public Export normalized() {
+            return new Export(name, query, prepare, message, mapper, true);
+        }
+
+        public Export encodedWith(ObjectMapper mapper) {
+            return new Export(name, query, prepare, message, mapper, normalized);
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            long start = System.currentTimeMillis();
+            long rows;
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(output)) {
+                // The container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                rows = writeRows(generator, mapper, query, prepare, message, normalized);
+            }
+            logger.info("Exported {} {}{} in {} ms", rows, name, normalized ? " (normalized)" : "",
+                System.currentTimeMillis() - start);
+        }
+    }
+
+    private long writeRows(JsonGenerator generator, ObjectMapper mapper, Supplier<? extends Stream<?>> query,
+                           Consumer<List<Object>> prepare, String message, boolean normalized) {
+        NormalizedJson.Included included = normalized ? new NormalizedJson.Included() : null;
+        ObjectWriter writer = normalized ? NormalizedJson.writer(mapper, included) : null;
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<?> stream = query.get()) {
+                generator.writeStartObject();
+                generator.writeBooleanField("success", true);
+                generator.writeArrayFieldStart("data");
+
+                long count = 0;
+                List<Object> chunk = new ArrayList<>(clearEvery);
+                Iterator<?> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == clearEvery || !iterator.hasNext()) {
+                        if (prepare != null) {
+                            prepare.accept(chunk);
+                        }
+                        for (Object row : chunk) {
+                            if (normalized) {
+                                writer.writeValue(generator, row);
+                                // While the referenced entities are still attached
+                                included.serializePending(writer);
+                            } else {
+                                generator.writeObject(row);
+                            }
+                        }
+                        count += chunk.size();
+                        chunk.clear();
+                        generator.flush();
+                        entityManager.clear();
+                    }
+                }
+
+                generator.writeEndArray();
+                generator.writeStringField("message", message);
+                if (normalized) {
+                    included.writeTo(generator);
+                }
+                generator.writeEndObject();
+                generator.flush();
+                return count;
+            } catch (IOException e) {
+                // Client went away or the write failed; the status line is already sent
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
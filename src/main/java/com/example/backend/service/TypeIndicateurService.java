@@ -8,8 +8,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.backend.model.TypeIndicateur;
+import com.example.backend.model.TypeOperation;
 import com.example.backend.repository.TypeIndicateurRepository;
-import com.example.backend.repository.TypeOperationRepository;
 
 @Service
 @Transactional
@@ -19,27 +19,38 @@ public class TypeIndicateurService {
     private TypeIndicateurRepository typeIndicateurRepository;
     
     @Autowired
-    private TypeOperationRepository typeOperationRepository;
-
+    private ReferenceDataCache referenceDataCache;
+    
+    @Autowired
+    private ReferenceResolver referenceResolver;
+    
     public List<TypeIndicateur> findAll() {
-        return typeIndicateurRepository.findAll();
+        return referenceDataCache.getTypeIndicateurs();
     }
 
     public Optional<TypeIndicateur> findById(Long id) {
-        return typeIndicateurRepository.findById(id);
+        return referenceDataCache.getTypeIndicateur(id);
     }
     
     public List<TypeIndicateur> findByTypeOperation(String typeOperationCode) {
-        return typeOperationRepository.findById(typeOperationCode)
-                .map(typeOperation -> typeIndicateurRepository.findByTypeOperation(typeOperation))
-                .orElse(List.of());
+        return referenceDataCache.getTypeIndicateurs().stream()
+                .filter(typeIndicateur -> typeIndicateur.getTypeOperation() != null
+                    && typeIndicateur.getTypeOperation().getCode().equals(typeOperationCode))
+                .toList();
     }
     
     public List<TypeIndicateur> findByEstObligatoire(Boolean estObligatoire) {
-        return typeIndicateurRepository.findByEstObligatoire(estObligatoire);
+        return referenceDataCache.getTypeIndicateurs().stream()
+                .filter(typeIndicateur -> estObligatoire.equals(typeIndicateur.getEstObligatoire()))
+                .toList();
     }
 
     public TypeIndicateur create(TypeIndicateur typeIndicateur) {
+        referenceResolver.batch()
+            .replace(TypeOperation.class, typeIndicateur.getTypeOperation(), typeIndicateur::setTypeOperation,
+                code -> { throw new IllegalArgumentException("Type d'opération non trouvé: " + code); })
+            .resolve();
+        referenceDataCache.invalidate(TypeIndicateur.class);
         return typeIndicateurRepository.save(typeIndicateur);
     }
 
@@ -54,16 +65,16 @@ public class TypeIndicateurService {
                 }
                 
                 // Handle TypeOperation relationship
-                if (typeIndicateurData.getTypeOperation() != null && 
-                    typeIndicateurData.getTypeOperation().getCode() != null) {
-                    typeOperationRepository.findById(typeIndicateurData.getTypeOperation().getCode())
-                        .ifPresent(typeIndicateur::setTypeOperation);
-                }
+                referenceResolver.batch()
+                    .set(TypeOperation.class, typeIndicateurData.getTypeOperation(),
+                        typeIndicateur.getTypeOperation(), typeIndicateur::setTypeOperation)
+                    .resolve();
                 
                 if (typeIndicateurData.getEstObligatoire() != null) {
                     typeIndicateur.setEstObligatoire(typeIndicateurData.getEstObligatoire());
                 }
                 
+                referenceDataCache.invalidate(TypeIndicateur.class);
                 return typeIndicateurRepository.save(typeIndicateur);
             });
     }
@@ -72,6 +83,7 @@ public class TypeIndicateurService {
         return typeIndicateurRepository.findById(id)
             .map(typeIndicateur -> {
                 typeIndicateurRepository.delete(typeIndicateur);
+                referenceDataCache.invalidate(TypeIndicateur.class);
                 return true;
             })
             .orElse(false);
@@ -17,12 +17,15 @@ public class TypeOperationService {
     @Autowired
     private TypeOperationRepository typeOperationRepository;
 
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
     public List<TypeOperation> findAll() {
-        return typeOperationRepository.findAll();
+        return referenceDataCache.getTypeOperations();
     }
 
     public Optional<TypeOperation> findById(String code) {
-        return typeOperationRepository.findById(code);
+        return referenceDataCache.getTypeOperation(code);
     }
 
     public TypeOperation create(TypeOperation typeOperation) {
@@ -35,6 +38,7 @@ public class TypeOperationService {
         if (typeOperationRepository.existsById(typeOperation.getCode()))
             throw new IllegalArgumentException("Type d'opération avec ce code existe déjà");
 
+        referenceDataCache.invalidate(TypeOperation.class);
         return typeOperationRepository.save(typeOperation);
     }
 
@@ -47,6 +51,7 @@ public class TypeOperationService {
                     if (typeOperationData.getDescription() != null) {
                         typeOperation.setDescription(typeOperationData.getDescription());
                     }
+                    referenceDataCache.invalidate(TypeOperation.class);
                     return typeOperationRepository.save(typeOperation);
                 });
     }
@@ -55,6 +60,7 @@ public class TypeOperationService {
         return typeOperationRepository.findById(code)
             .map(typeOperation -> {
                 typeOperationRepository.delete(typeOperation);
+                referenceDataCache.invalidate(TypeOperation.class);
                 return true;
             })
             .orElse(false);
@@ -0,0 +1,97 @@
+package com.example.backend.service.detection;
+
+import com.example.backend.model.Probleme;
+
+/**
+ * A validated, immutable rule with its thresholds unboxed, so classifying a
+ * measure is three comparisons and no allocation.
+ */
+public final class CompiledRule {
+
+    private final String id;
+    private final DetectionRuleKind kind;
+    private final Probleme.Type problemType;
+    private final double faibleAbove;
+    private final double modereeAbove;
+    private final double critiqueAbove;
+    private final String solution;
+    private final Long typeIndicateurId;
+    private final DetectionRulesConfig.Direction direction;
+
+    CompiledRule(String id, DetectionRuleKind kind, Probleme.Type problemType,
+                 double faibleAbove, double modereeAbove, double critiqueAbove,
+                 String solution, Long typeIndicateurId, DetectionRulesConfig.Direction direction) {
+        this.id = id;
+        this.kind = kind;
+        this.problemType = problemType;
+        this.faibleAbove = faibleAbove;
+        this.modereeAbove = modereeAbove;
+        this.critiqueAbove = critiqueAbove;
+        this.solution = solution;
+        this.typeIndicateurId = typeIndicateurId;
+        this.direction = direction;
+    }
+
+    /**
+     * Gravite for a measure, or null when the measure is not above the FAIBLE
+     * threshold and no problem should be raised.
+     */
+    public Probleme.Gravite classify(double measure) {
+        if (measure > critiqueAbove) {
+            return Probleme.Gravite.CRITIQUE;
+        }
+        if (measure > modereeAbove) {
+            return Probleme.Gravite.MODEREE;
+        }
+        if (measure > faibleAbove) {
+            return Probleme.Gravite.FAIBLE;
+        }
+        return null;
+    }
+
+    /**
+     * Signed gap between an actual and a planned value in percent of the
+     * planned value, folded according to the rule direction: a gap the rule
+     * does not watch comes back negative.
+     */
+    public double deviationPercent(double planned, double actual) {
+        double deviation = (actual - planned) / Math.abs(planned) * 100;
+        switch (direction) {
+            case BELOW:
+                return -deviation;
+            case BOTH:
+                return Math.abs(deviation);
+            default:
+                return deviation;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public DetectionRuleKind getKind() {
+        return kind;
+    }
+
+    public Probleme.Type getProblemType() {
+        return problemType;
+    }
+
+    public String getSolution() {
+        return solution;
+    }
+
+    public Long getTypeIndicateurId() {
+        return typeIndicateurId;
+    }
+
+    public DetectionRulesConfig.Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s, %s, >%s/%s/%s]", id, kind, problemType, faibleAbove, modereeAbove, critiqueAbove);
+    }
+}
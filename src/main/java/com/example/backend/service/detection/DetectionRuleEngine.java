@@ -0,0 +1,96 @@
+package com.example.backend.service.detection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the active DetectionRuleSet.
+ *
+ * Rules are read from detection.rules.location (detection-rules.json on the
+ * classpath by default) and compiled once at startup. When the location is a
+ * file, its modification time is polled and a changed file is recompiled and
+ * swapped in atomically; a file that fails to parse or validate is logged and
+ * the previous rules stay active.
+ */
+@Component
+public class DetectionRuleEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DetectionRuleEngine.class);
+
+    private final ResourceLoader resourceLoader;
+    private final ObjectMapper objectMapper;
+    private final String location;
+
+    private final AtomicReference<DetectionRuleSet> current = new AtomicReference<>();
+    private volatile long lastModified = -1;
+
+    public DetectionRuleEngine(ResourceLoader resourceLoader, ObjectMapper objectMapper,
+                               @Value("${detection.rules.location:classpath:detection-rules.json}") String location) {
+        this.resourceLoader = resourceLoader;
+        this.objectMapper = objectMapper;
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void load() {
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            // Fail startup rather than run detection without rules
+            throw new IllegalStateException("Cannot load detection rules from " + location + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rules to evaluate. Callers should read this once per detection run and
+     * keep the returned instance for the whole run.
+     */
+    public DetectionRuleSet current() {
+        return current.get();
+    }
+
+    /**
+     * Reads, compiles and activates the rules, whether or not they changed.
+     */
+    public synchronized DetectionRuleSet reload() throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        long modified = resource.isFile() ? resource.lastModified() : -1;
+
+        DetectionRulesConfig config;
+        try (InputStream in = resource.getInputStream()) {
+            config = objectMapper.readValue(in, DetectionRulesConfig.class);
+        }
+        DetectionRuleSet ruleSet = DetectionRuleSet.compile(config, location);
+
+        current.set(ruleSet);
+        lastModified = modified;
+        logger.info("Loaded {} detection rules from {}: {}", ruleSet.getRules().size(), location, ruleSet.getRules());
+        return ruleSet;
+    }
+
+    @Scheduled(fixedDelayString = "${detection.rules.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        Resource resource = resourceLoader.getResource(location);
+        try {
+            if (!resource.isFile() || resource.lastModified() == lastModified) {
+                return;
+            }
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Detection rules in {} were not reloaded, keeping the previous rules: {}", location, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.backend.service.detection;
+
+/**
+ * What a detection rule looks at. OPERATION_COST, PHASE_DEPTH and
+ * PHASE_SCHEDULE may be declared once each; INDICATEUR_DEVIATION may be
+ * declared once per type d'indicateur plus once as a catch-all.
+ */
+public enum DetectionRuleKind {
+    // (coutReel - coutPrevu) / coutPrevu, in percent
+    OPERATION_COST,
+    // (profondeurReelle - profondeurPrevue) / profondeurPrevue, in percent
+    PHASE_DEPTH,
+    // Days between the planned and the actual (or report) date
+    PHASE_SCHEDULE,
+    // Gap between valeurReelle and valeurPrevue of an indicateur, in percent of valeurPrevue
+    INDICATEUR_DEVIATION
+}
@@ -0,0 +1,156 @@
+package com.example.backend.service.detection;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.backend.model.Probleme;
+
+/**
+ * Immutable result of compiling a DetectionRulesConfig. A new instance is
+ * built on every reload and swapped in whole, so a detection run sees one
+ * consistent set of rules from start to end.
+ */
+public final class DetectionRuleSet {
+
+    private final CompiledRule operationCost;
+    private final CompiledRule phaseDepth;
+    private final CompiledRule phaseSchedule;
+    private final Map<Long, CompiledRule> indicateurRulesByType;
+    private final CompiledRule indicateurDefault;
+    private final List<CompiledRule> rules;
+    private final String source;
+    private final LocalDateTime loadedAt;
+
+    private DetectionRuleSet(Map<DetectionRuleKind, CompiledRule> singleRules, Map<Long, CompiledRule> indicateurRulesByType,
+                             CompiledRule indicateurDefault, List<CompiledRule> rules, String source) {
+        this.operationCost = singleRules.get(DetectionRuleKind.OPERATION_COST);
+        this.phaseDepth = singleRules.get(DetectionRuleKind.PHASE_DEPTH);
+        this.phaseSchedule = singleRules.get(DetectionRuleKind.PHASE_SCHEDULE);
+        this.indicateurRulesByType = indicateurRulesByType;
+        this.indicateurDefault = indicateurDefault;
+        this.rules = rules;
+        this.source = source;
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Validates and compiles the declared rules. Disabled rules are dropped.
+     *
+     * @throws IllegalArgumentException if a rule is incomplete, its thresholds
+     *         are not in increasing order or a kind is declared twice
+     */
+    public static DetectionRuleSet compile(DetectionRulesConfig config, String source) {
+        if (config == null || config.rules() == null) {
+            throw new IllegalArgumentException("No rules declared in " + source);
+        }
+
+        Map<DetectionRuleKind, CompiledRule> singleRules = new EnumMap<>(DetectionRuleKind.class);
+        Map<Long, CompiledRule> indicateurRulesByType = new HashMap<>();
+        CompiledRule indicateurDefault = null;
+        List<CompiledRule> rules = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+
+        for (DetectionRulesConfig.Rule rule : config.rules()) {
+            if (rule.id() == null || rule.id().isBlank()) {
+                throw new IllegalArgumentException("Every rule needs an id");
+            }
+            if (!ids.add(rule.id())) {
+                throw new IllegalArgumentException("Duplicate rule id: " + rule.id());
+            }
+            if (Boolean.FALSE.equals(rule.enabled())) {
+                continue;
+            }
+
+            CompiledRule compiled = compileRule(rule);
+            if (compiled.getKind() == DetectionRuleKind.INDICATEUR_DEVIATION) {
+                if (compiled.getTypeIndicateurId() == null) {
+                    if (indicateurDefault != null) {
+                        throw new IllegalArgumentException("Only one INDICATEUR_DEVIATION rule may omit typeIndicateurId: " + rule.id());
+                    }
+                    indicateurDefault = compiled;
+                } else if (indicateurRulesByType.putIfAbsent(compiled.getTypeIndicateurId(), compiled) != null) {
+                    throw new IllegalArgumentException("Type d'indicateur " + compiled.getTypeIndicateurId()
+                        + " has more than one rule: " + rule.id());
+                }
+            } else if (singleRules.putIfAbsent(compiled.getKind(), compiled) != null) {
+                throw new IllegalArgumentException(compiled.getKind() + " is declared more than once: " + rule.id());
+            }
+            rules.add(compiled);
+        }
+
+        return new DetectionRuleSet(singleRules, Collections.unmodifiableMap(indicateurRulesByType),
+            indicateurDefault, Collections.unmodifiableList(rules), source);
+    }
+
+    private static CompiledRule compileRule(DetectionRulesConfig.Rule rule) {
+        if (rule.kind() == null) {
+            throw new IllegalArgumentException("Rule " + rule.id() + " has no kind");
+        }
+        if (rule.problemType() == null) {
+            throw new IllegalArgumentException("Rule " + rule.id() + " has no problemType");
+        }
+        Map<Probleme.Gravite, Double> severity = rule.severity();
+        if (severity == null || severity.get(Probleme.Gravite.FAIBLE) == null
+                || severity.get(Probleme.Gravite.MODEREE) == null || severity.get(Probleme.Gravite.CRITIQUE) == null) {
+            throw new IllegalArgumentException("Rule " + rule.id() + " must give FAIBLE, MODEREE and CRITIQUE thresholds");
+        }
+        double faible = severity.get(Probleme.Gravite.FAIBLE);
+        double moderee = severity.get(Probleme.Gravite.MODEREE);
+        double critique = severity.get(Probleme.Gravite.CRITIQUE);
+        if (faible > moderee || moderee > critique) {
+            throw new IllegalArgumentException("Rule " + rule.id() + " thresholds must be FAIBLE <= MODEREE <= CRITIQUE");
+        }
+        if (rule.kind() != DetectionRuleKind.INDICATEUR_DEVIATION
+                && (rule.typeIndicateurId() != null || rule.direction() != null)) {
+            throw new IllegalArgumentException("Rule " + rule.id() + ": typeIndicateurId and direction only apply to INDICATEUR_DEVIATION");
+        }
+
+        return new CompiledRule(rule.id(), rule.kind(), rule.problemType(), faible, moderee, critique,
+            rule.solution(), rule.typeIndicateurId(),
+            rule.direction() != null ? rule.direction() : DetectionRulesConfig.Direction.ABOVE);
+    }
+
+    /** Rule for operation cost overruns, or null when disabled. */
+    public CompiledRule getOperationCost() {
+        return operationCost;
+    }
+
+    /** Rule for phase depth overruns, or null when disabled. */
+    public CompiledRule getPhaseDepth() {
+        return phaseDepth;
+    }
+
+    /** Rule for phase schedule delays, or null when disabled. */
+    public CompiledRule getPhaseSchedule() {
+        return phaseSchedule;
+    }
+
+    public boolean hasIndicateurRules() {
+        return indicateurDefault != null || !indicateurRulesByType.isEmpty();
+    }
+
+    /** Rule applying to indicateurs of the given type, or null if none does. */
+    public CompiledRule indicateurRuleFor(Long typeIndicateurId) {
+        CompiledRule rule = typeIndicateurId != null ? indicateurRulesByType.get(typeIndicateurId) : null;
+        return rule != null ? rule : indicateurDefault;
+    }
+
+    public List<CompiledRule> getRules() {
+        return rules;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.backend.service.detection;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.backend.model.Probleme;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Shape of detection-rules.json as declared by users. It is only read while
+ * compiling a DetectionRuleSet, never on the detection path.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record DetectionRulesConfig(List<Rule> rules) {
+
+    public enum Direction {
+        ABOVE, BELOW, BOTH
+    }
+
+    /**
+     * One rule. {@code severity} maps each gravite to the value the measure
+     * must exceed for it; measures not above FAIBLE raise no problem.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Rule(
+            String id,
+            DetectionRuleKind kind,
+            Boolean enabled,
+            Probleme.Type problemType,
+            Map<Probleme.Gravite, Double> severity,
+            String solution,
+            Long typeIndicateurId,
+            Direction direction) {
+    }
+}
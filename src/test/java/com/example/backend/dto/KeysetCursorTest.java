@@ -0,0 +1,49 @@
+package com.example.backend.dto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void idCursorRoundTrips() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.of(42).encode());
+
+        assertThat(cursor.id()).isEqualTo(42);
+        assertThat(cursor.date()).isNull();
+    }
+
+    @Test
+    void dateCursorRoundTrips() {
+        LocalDate date = LocalDate.of(2024, 2, 29);
+
+        assertThat(KeysetCursor.decode(KeysetCursor.of(date, 42).encode())).isEqualTo(KeysetCursor.of(date, 42));
+    }
+
+    @Test
+    void encodingIsUrlSafe() {
+        assertThat(KeysetCursor.of(LocalDate.of(2024, 12, 31), Long.MAX_VALUE).encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsCursorsItDidNotProduce() {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode("not a cursor!"));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(encode("abc")));
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.decode(encode("2024-13-01|5")));
+    }
+
+    @Test
+    void requireDateRejectsIdOnlyCursors() {
+        assertThatIllegalArgumentException().isThrownBy(() -> KeysetCursor.of(42).requireDate());
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.backend.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+class ByteRangeTest {
+
+    @Test
+    void parsesAClosedRange() {
+        ByteRange range = ByteRange.parse("bytes=10-19", 100);
+
+        assertThat(range).isEqualTo(new ByteRange(10, 19));
+        assertThat(range.length()).isEqualTo(10);
+    }
+
+    @Test
+    void openRangeRunsToTheEnd() {
+        assertThat(ByteRange.parse("bytes=90-", 100)).isEqualTo(new ByteRange(90, 99));
+    }
+
+    @Test
+    void suffixRangeIsTheLastBytes() {
+        assertThat(ByteRange.parse("bytes=-10", 100)).isEqualTo(new ByteRange(90, 99));
+        assertThat(ByteRange.parse("bytes=-500", 100)).isEqualTo(new ByteRange(0, 99));
+    }
+
+    @Test
+    void endIsClampedToTheContent() {
+        assertThat(ByteRange.parse("bytes=50-500", 100)).isEqualTo(new ByteRange(50, 99));
+    }
+
+    @Test
+    void toleratesCaseAndSpaces() {
+        assertThat(ByteRange.parse("Bytes = 0 - 0", 100)).isEqualTo(new ByteRange(0, 0));
+    }
+
+    @Test
+    void wholeContentWhenNoUsableRange() {
+        assertThat(ByteRange.parse(null, 100)).isNull();
+        assertThat(ByteRange.parse("bytes=-", 100)).isNull();
+        assertThat(ByteRange.parse("bytes=20-10", 100)).isNull();
+        assertThat(ByteRange.parse("bytes=0-9,20-29", 100)).isNull();
+        assertThat(ByteRange.parse("items=0-9", 100)).isNull();
+    }
+
+    @Test
+    void rejectsRangesOutsideTheContent() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ByteRange.parse("bytes=100-", 100));
+        assertThatIllegalArgumentException().isThrownBy(() -> ByteRange.parse("bytes=-0", 100));
+        assertThatIllegalArgumentException().isThrownBy(() -> ByteRange.parse("bytes=-10", 0));
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.backend.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.example.backend.config.NormalizedJson;
+import com.example.backend.config.NormalizedJsonFilter;
+import com.example.backend.service.CollectionVersions;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * The filter ConditionalGetFeature registers for an annotated method, run
+ * against mocked request and response contexts.
+ */
+class ConditionalGetFeatureTest {
+
+    static class Resource {
+
+        @ConditionalGet({"puits", "forages"})
+        public String list() {
+            return "[]";
+        }
+
+        public String uncached() {
+            return "[]";
+        }
+    }
+
+    private final Map<String, CollectionVersions.Version> versions = new HashMap<>();
+    private final Map<String, Object> properties = new HashMap<>();
+    private CollectionVersions collectionVersions;
+    private ConditionalGetFeature feature;
+    private ContainerRequestContext requestContext;
+    private Request request;
+
+    @BeforeEach
+    void setUp() {
+        collectionVersions = new CollectionVersions();
+        collectionVersions.register("puits", () -> versions.get("puits"));
+        collectionVersions.register("forages", () -> versions.get("forages"));
+        versions.put("puits", new CollectionVersions.Version("p1", 1_000_000L));
+        versions.put("forages", new CollectionVersions.Version("f4", 2_000_000L));
+        feature = new ConditionalGetFeature(collectionVersions);
+
+        request = mock(Request.class);
+        requestContext = mock(ContainerRequestContext.class);
+        when(requestContext.getMethod()).thenReturn(HttpMethod.GET);
+        when(requestContext.getRequest()).thenReturn(request);
+        when(requestContext.getProperty(any())).thenAnswer(invocation -> properties.get(invocation.getArgument(0)));
+        doAnswer(invocation -> properties.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(requestContext).setProperty(any(), any());
+    }
+
+    @Test
+    void unannotatedMethodsGetNoFilter() throws Exception {
+        FeatureContext context = mock(FeatureContext.class);
+
+        feature.configure(resourceInfo("uncached"), context);
+
+        verify(context, never()).register(any(Object.class));
+    }
+
+    @Test
+    void tagIsWeakAndJoinsTheVersionsAndTheRepresentation() throws Exception {
+        filter().filter(requestContext);
+
+        ArgumentCaptor<EntityTag> tag = ArgumentCaptor.forClass(EntityTag.class);
+        verify(request).evaluatePreconditions(any(Date.class), tag.capture());
+        assertThat(tag.getValue().isWeak()).isTrue();
+        assertThat(tag.getValue().getValue()).isEqualTo("p1-f4-json");
+        verify(requestContext, never()).abortWith(any());
+    }
+
+    @Test
+    void normalizedRepresentationHasItsOwnTag() throws Exception {
+        when(requestContext.getAcceptableMediaTypes()).thenReturn(List.of(NormalizedJson.MEDIA_TYPE_TYPE));
+        when(requestContext.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+        new NormalizedJsonFilter().filter(requestContext);
+
+        filter().filter(requestContext);
+
+        ArgumentCaptor<EntityTag> tag = ArgumentCaptor.forClass(EntityTag.class);
+        verify(request).evaluatePreconditions(any(Date.class), tag.capture());
+        assertThat(tag.getValue().getValue()).isEqualTo("p1-f4-normalized");
+    }
+
+    @Test
+    void upToDateRequestIsAnsweredNotModifiedWithoutRunningTheMethod() throws Exception {
+        when(request.evaluatePreconditions(any(Date.class), any(EntityTag.class)))
+            .thenReturn(Response.notModified());
+
+        filter().filter(requestContext);
+
+        ArgumentCaptor<Response> aborted = ArgumentCaptor.forClass(Response.class);
+        verify(requestContext).abortWith(aborted.capture());
+        Response response = aborted.getValue();
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getEntityTag()).isEqualTo(new EntityTag("p1-f4-json", true));
+        assertThat(response.getLastModified()).isEqualTo(new Date(2_000_000L));
+        assertThat(response.getHeaderString(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void okResponseCarriesTheValidators() throws Exception {
+        Filter filter = filter();
+        filter.filter(requestContext);
+        ContainerResponseContext responseContext = responseContext(200);
+
+        filter.filter(requestContext, responseContext);
+
+        MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+        assertThat(headers.getFirst(HttpHeaders.ETAG)).isEqualTo(new EntityTag("p1-f4-json", true));
+        assertThat(headers.getFirst(HttpHeaders.LAST_MODIFIED)).isEqualTo(new Date(2_000_000L));
+        CacheControl cacheControl = (CacheControl) headers.getFirst(HttpHeaders.CACHE_CONTROL);
+        assertThat(cacheControl.isPrivate()).isTrue();
+        assertThat(cacheControl.isNoCache()).isTrue();
+        assertThat(cacheControl.isNoTransform()).isFalse();
+        assertThat(headers.get(HttpHeaders.VARY)).containsExactly(HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void varyAcceptIsNotRepeated() throws Exception {
+        Filter filter = filter();
+        filter.filter(requestContext);
+        ContainerResponseContext responseContext = responseContext(200);
+        responseContext.getHeaders().add(HttpHeaders.VARY, "accept");
+
+        filter.filter(requestContext, responseContext);
+
+        assertThat(responseContext.getHeaders().get(HttpHeaders.VARY)).containsExactly("accept");
+    }
+
+    @Test
+    void unknownVersionSendsNoValidators() throws Exception {
+        versions.remove("forages");
+        Filter filter = filter();
+        ContainerResponseContext responseContext = responseContext(200);
+
+        filter.filter(requestContext);
+        filter.filter(requestContext, responseContext);
+
+        verify(request, never()).evaluatePreconditions(any(Date.class), any(EntityTag.class));
+        assertThat(responseContext.getHeaders()).isEmpty();
+    }
+
+    @Test
+    void errorResponseCarriesNoValidators() throws Exception {
+        Filter filter = filter();
+        filter.filter(requestContext);
+        ContainerResponseContext responseContext = responseContext(404);
+
+        filter.filter(requestContext, responseContext);
+
+        assertThat(responseContext.getHeaders()).isEmpty();
+    }
+
+    @Test
+    void otherMethodsAreLeftAlone() throws Exception {
+        when(requestContext.getMethod()).thenReturn(HttpMethod.POST);
+
+        filter().filter(requestContext);
+
+        verify(request, never()).evaluatePreconditions(any(Date.class), any(EntityTag.class));
+    }
+
+    private interface Filter extends ContainerRequestFilter, ContainerResponseFilter {}
+
+    // The filter registered for Resource.list(), seen through both filter interfaces
+    private Filter filter() throws Exception {
+        FeatureContext context = mock(FeatureContext.class);
+        feature.configure(resourceInfo("list"), context);
+        ArgumentCaptor<Object> registered = ArgumentCaptor.forClass(Object.class);
+        verify(context).register(registered.capture());
+        Object filter = registered.getValue();
+        return new Filter() {
+            @Override
+            public void filter(ContainerRequestContext requestContext) throws IOException {
+                ((ContainerRequestFilter) filter).filter(requestContext);
+            }
+
+            @Override
+            public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+                    throws IOException {
+                ((ContainerResponseFilter) filter).filter(requestContext, responseContext);
+            }
+        };
+    }
+
+    private static ResourceInfo resourceInfo(String methodName) throws Exception {
+        Method method = Resource.class.getMethod(methodName);
+        ResourceInfo resourceInfo = mock(ResourceInfo.class);
+        when(resourceInfo.getResourceMethod()).thenReturn(method);
+        return resourceInfo;
+    }
+
+    private static ContainerResponseContext responseContext(int status) {
+        MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        ContainerResponseContext responseContext = mock(ContainerResponseContext.class);
+        when(responseContext.getStatus()).thenReturn(status);
+        when(responseContext.getHeaders()).thenReturn(headers);
+        when(responseContext.getStringHeaders()).thenAnswer(invocation -> {
+            MultivaluedMap<String, String> strings = new MultivaluedHashMap<>();
+            headers.forEach((name, values) -> values.forEach(value -> strings.add(name, String.valueOf(value))));
+            return strings;
+        });
+        return responseContext;
+    }
+}
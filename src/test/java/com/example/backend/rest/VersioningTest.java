@@ -0,0 +1,37 @@
+package com.example.backend.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+class VersioningTest {
+
+    @Test
+    void ifMatchTakesPrecedenceOverTheBody() {
+        assertThat(Versioning.expectedVersion("\"3\"", 7L)).isEqualTo(3L);
+    }
+
+    @Test
+    void rejectsWeakTags() {
+        assertThatIllegalArgumentException().isThrownBy(() -> Versioning.expectedVersion("W/\"3\"", 7L));
+    }
+
+    @Test
+    void fallsBackToTheBodyVersion() {
+        assertThat(Versioning.expectedVersion(null, 7L)).isEqualTo(7L);
+        assertThat(Versioning.expectedVersion("  ", 7L)).isEqualTo(7L);
+        assertThat(Versioning.expectedVersion(null, null)).isNull();
+    }
+
+    @Test
+    void wildcardSkipsTheCheck() {
+        assertThat(Versioning.expectedVersion(" * ", 7L)).isNull();
+    }
+
+    @Test
+    void rejectsTagsThatAreNotVersions() {
+        assertThatIllegalArgumentException().isThrownBy(() -> Versioning.expectedVersion("\"abc\"", 7L));
+        assertThatIllegalArgumentException().isThrownBy(() -> Versioning.expectedVersion("\"\"", 7L));
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.backend.dto.CostTotals;
+import com.example.backend.model.CostRollup;
+import com.example.backend.model.Forage;
+import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.Puit;
+import com.example.backend.model.TypeOperation;
+import com.example.backend.repository.CostRollupRepository;
+import com.example.backend.repository.OperationRepository;
+
+/**
+ * Deltas and rebuild of CostRollupService against a mocked JdbcTemplate,
+ * which records the MERGE of each rollup row as "SCOPE:key" ->
+ * {coutPrevu, coutReel, operationCount}.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CostRollupServiceTest {
+
+    @Mock
+    private CostRollupRepository costRollupRepository;
+
+    @Mock
+    private OperationRepository operationRepository;
+
+    @Mock
+    private DashboardCache dashboardCache;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private CostRollupService costRollupService;
+
+    private final Map<String, double[]> merges = new LinkedHashMap<>();
+    private int mergeCalls;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            mergeCalls++;
+            Object[] args = invocation.getArguments();
+            merges.put(args[1] + ":" + args[2], new double[] {
+                (Double) args[3], (Double) args[4], ((Long) args[5]).doubleValue() });
+            return 1;
+        }).when(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void recordCreatedAddsTheOperationToEachOfItsRows() {
+        costRollupService.recordCreated(operation(10L, "CIM", 100.0, 120.0));
+
+        assertThat(merges).containsOnlyKeys("PHASE:10", "FORAGE:20", "PUIT:30", "TYPE_OPERATION:CIM");
+        assertThat(merges.get("PUIT:30")).containsExactly(100.0, 120.0, 1.0);
+    }
+
+    @Test
+    void recordAllCreatedMergesEachRowOnce() {
+        costRollupService.recordAllCreated(List.of(
+            operation(10L, "CIM", 100.0, 120.0),
+            operation(10L, "LOG", 50.0, 40.0)));
+
+        assertThat(mergeCalls).isEqualTo(5);
+        assertThat(merges.get("PHASE:10")).containsExactly(150.0, 160.0, 2.0);
+        assertThat(merges.get("TYPE_OPERATION:LOG")).containsExactly(50.0, 40.0, 1.0);
+    }
+
+    @Test
+    void recordUpdatedOnlyTouchesTheRowsThatChange() {
+        Operation operation = operation(10L, "CIM", 100.0, 120.0);
+        CostRollupService.Contribution before = CostRollupService.Contribution.of(operation);
+        TypeOperation other = new TypeOperation();
+        other.setCode("LOG");
+        operation.setTypeOperation(other);
+
+        costRollupService.recordUpdated(before, operation);
+
+        assertThat(merges).containsOnlyKeys("TYPE_OPERATION:CIM", "TYPE_OPERATION:LOG");
+        assertThat(merges.get("TYPE_OPERATION:CIM")).containsExactly(-100.0, -120.0, -1.0);
+        assertThat(merges.get("TYPE_OPERATION:LOG")).containsExactly(100.0, 120.0, 1.0);
+    }
+
+    @Test
+    void recordUpdatedOfACostKeepsTheOperationCounts() {
+        Operation operation = operation(10L, "CIM", 100.0, 120.0);
+        CostRollupService.Contribution before = CostRollupService.Contribution.of(operation);
+        operation.setCoutReel(150.0);
+
+        costRollupService.recordUpdated(before, operation);
+
+        assertThat(merges).hasSize(4);
+        assertThat(merges.values()).allSatisfy(delta -> assertThat(delta).containsExactly(0.0, 30.0, 0.0));
+    }
+
+    @Test
+    void mergeIsRetriedOnceWhenAConcurrentInsertWins() {
+        doThrow(new DuplicateKeyException("cost_rollups_scope_key_uk"))
+            .doAnswer(invocation -> {
+                mergeCalls++;
+                return 1;
+            })
+            .when(jdbcTemplate).update(anyString(), any(Object[].class));
+        Operation operation = new Operation();
+        TypeOperation type = new TypeOperation();
+        type.setCode("CIM");
+        operation.setTypeOperation(type);
+        operation.setCoutPrev(100.0);
+
+        costRollupService.recordCreated(operation);
+
+        assertThat(mergeCalls).isEqualTo(1);
+    }
+
+    @Test
+    void rebuildLocksTheTableBeforeReadingAndCorrectsDrift() {
+        CostRollup drifted = rollup(CostRollup.Scope.PHASE, "10", 90.0, 120.0, 1L);
+        CostRollup orphan = rollup(CostRollup.Scope.FORAGE, "99", 5.0, 5.0, 1L);
+        when(costRollupRepository.findAll()).thenReturn(List.of(drifted, orphan));
+        when(operationRepository.sumCostsByPhase()).thenReturn(List.of(new CostTotals("10", 100.0, 120.0, 1L)));
+        when(operationRepository.sumCostsByPuit()).thenReturn(List.of(new CostTotals("30", 100.0, 120.0, 1L)));
+
+        Map<String, Object> report = costRollupService.rebuild();
+
+        InOrder inOrder = inOrder(jdbcTemplate, operationRepository);
+        inOrder.verify(jdbcTemplate).execute("LOCK TABLE cost_rollups IN EXCLUSIVE MODE");
+        inOrder.verify(operationRepository).sumCostsByPhase();
+        assertThat(report).containsEntry("driftedRows", 2).containsEntry("createdRows", 1)
+            .containsEntry("removedRows", 1);
+        assertThat(drifted.getCoutPrevu()).isEqualTo(100.0);
+        verify(costRollupRepository).delete(orphan);
+        verify(costRollupRepository).save(any(CostRollup.class));
+        verify(dashboardCache).invalidate();
+    }
+
+    @Test
+    void rebuildWithoutChangesKeepsTheDashboardCache() {
+        when(costRollupRepository.findAll())
+            .thenReturn(List.of(rollup(CostRollup.Scope.PHASE, "10", 100.0, 120.0, 1L)));
+        when(operationRepository.sumCostsByPhase()).thenReturn(List.of(new CostTotals("10", 100.0, 120.0, 1L)));
+
+        Map<String, Object> report = costRollupService.rebuild();
+
+        assertThat(report).containsEntry("driftedRows", 0);
+        verify(dashboardCache, never()).invalidate();
+    }
+
+    // An operation of phase phaseId, in forage 20 of puit 30
+    private static Operation operation(Long phaseId, String typeCode, double coutPrevu, double coutReel) {
+        Puit puit = new Puit();
+        puit.setId(30L);
+        Forage forage = new Forage();
+        forage.setId(20L);
+        forage.setPuits(puit);
+        Phase phase = new Phase();
+        phase.setId(phaseId);
+        phase.setForage(forage);
+        TypeOperation type = new TypeOperation();
+        type.setCode(typeCode);
+
+        Operation operation = new Operation();
+        operation.setPhase(phase);
+        operation.setTypeOperation(type);
+        operation.setCoutPrev(coutPrevu);
+        operation.setCoutReel(coutReel);
+        return operation;
+    }
+
+    private static CostRollup rollup(CostRollup.Scope scope, String key, double coutPrevu, double coutReel,
+                                     long operationCount) {
+        CostRollup rollup = new CostRollup(scope, key);
+        rollup.setCoutPrevu(coutPrevu);
+        rollup.setCoutReel(coutReel);
+        rollup.setOperationCount(operationCount);
+        return rollup;
+    }
+}
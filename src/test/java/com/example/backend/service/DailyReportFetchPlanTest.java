@@ -0,0 +1,154 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.example.backend.model.DailyReport;
+import com.example.backend.model.Indicateur;
+import com.example.backend.model.Operation;
+import com.example.backend.model.Phase;
+import com.example.backend.model.Puit;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Statements run by each read path of DailyReportService, counted with
+ * Hibernate statistics. The counts must not depend on the number of
+ * reports: REPORTS stays below the @BatchSize of the collections (50), so
+ * each collection is loaded with a single statement for all the reports.
+ */
+@DataJpaTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:daily-reports;MODE=Oracle;INIT=CREATE SCHEMA IF NOT EXISTS MYAPP",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DailyReportService.class)
+class DailyReportFetchPlanTest {
+
+    private static final int REPORTS = 40;
+
+    @Autowired
+    private DailyReportService dailyReportService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Only used by the write paths
+    @MockBean
+    private ReferenceResolver referenceResolver;
+
+    @MockBean
+    private OperationService operationService;
+
+    @MockBean
+    private IndicateurService indicateurService;
+
+    private Statistics statistics;
+    private Puit puit;
+    private DailyReport lastReport;
+
+    @BeforeEach
+    void setUp() {
+        puit = new Puit();
+        puit.setNom("Puit A");
+        testEntityManager.persist(puit);
+        Phase phase = new Phase();
+        phase.setNumeroPhase(1);
+        testEntityManager.persist(phase);
+
+        LocalDate firstDate = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < REPORTS; i++) {
+            DailyReport report = new DailyReport();
+            report.setReportName("Report " + i);
+            report.setReportDate(firstDate.plusDays(i));
+            report.setConcernedWell(puit);
+            report.setCurrentPhase(phase);
+            testEntityManager.persist(report);
+            for (int j = 0; j < 2; j++) {
+                Operation operation = new Operation();
+                operation.setDescription("Operation " + j);
+                operation.setDailyReport(report);
+                testEntityManager.persist(operation);
+                Indicateur indicateur = new Indicateur();
+                indicateur.setValeurPrevue(10.0 * j);
+                indicateur.setDailyReport(report);
+                testEntityManager.persist(indicateur);
+            }
+            lastReport = report;
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findAllLoadsReportsThenEachCollectionOnce() {
+        assertThat(dailyReportService.findAll()).hasSize(REPORTS);
+
+        // Reports with well and phase, then operations and indicators batch loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findByPuitLoadsReportsThenEachCollectionOnce() {
+        assertThat(dailyReportService.findByPuit(puit.getId())).hasSize(REPORTS);
+
+        // The well, its reports, then the two collections
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void findPageLoadsOnePageThenEachCollectionOnce() {
+        assertThat(dailyReportService.findPage(null, null, null, 20, false).getItems()).hasSize(20);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findPageCountsOnlyWhenTheTotalIsAsked() {
+        assertThat(dailyReportService.findPage(puit.getId(), null, null, 20, true).getTotal())
+            .isEqualTo(REPORTS);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void findByIdFetchesOperationsWithTheReportAndIndicatorsAfter() {
+        DailyReport report = dailyReportService.findById(lastReport.getId()).orElseThrow();
+
+        assertThat(report.getOperationsPerformed()).hasSize(2);
+        assertThat(report.getIndicators()).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findForDetectionLoadsTheReportAndPhaseOnly() {
+        DailyReport report = dailyReportService.findForDetection(lastReport.getId()).orElseThrow();
+
+        assertThat(report.getCurrentPhase().getNumeroPhase()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
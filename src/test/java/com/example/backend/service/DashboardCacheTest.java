@@ -0,0 +1,178 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class DashboardCacheTest {
+
+    private static final int MAX_TOP = 5;
+
+    private DashboardService dashboardService;
+    private CollectionVersions collectionVersions;
+    private DashboardCache cache;
+    private final AtomicInteger computations = new AtomicInteger();
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = mock(DashboardService.class);
+        when(dashboardService.getDashboardData(anyInt())).thenAnswer(invocation -> payload(computations.incrementAndGet()));
+        collectionVersions = new CollectionVersions();
+        cache = new DashboardCache(dashboardService, collectionVersions, 60_000, MAX_TOP);
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void servesTheCachedPayloadWithinTheTtl() {
+        Map<String, Object> first = cache.get(MAX_TOP);
+
+        assertThat(cache.get(MAX_TOP)).isSameAs(first);
+        verify(dashboardService, times(1)).getDashboardData(MAX_TOP);
+        assertThat(cache.getStats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void trimsTheCostlyOperationsPerRequest() {
+        assertThat((List<?>) cache.get(2).get("costlyOperations")).hasSize(2);
+        assertThat((List<?>) cache.get(MAX_TOP).get("costlyOperations")).hasSize(MAX_TOP);
+        verify(dashboardService, times(1)).getDashboardData(MAX_TOP);
+    }
+
+    @Test
+    void coldCacheIsComputedOnceForConcurrentCallers() throws Exception {
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            computing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return payload(computations.incrementAndGet());
+        }).when(dashboardService).getDashboardData(anyInt());
+
+        List<Future<Map<String, Object>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> cache.get(MAX_TOP)));
+        }
+        assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+        // Give the other callers time to queue up behind the computing thread
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<Map<String, Object>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsEntry("computation", 1);
+        }
+        assertThat(computations).hasValue(1);
+    }
+
+    @Test
+    void stalePayloadIsServedWhileAnotherThreadRecomputes() throws Exception {
+        cache.get(MAX_TOP);
+        cache.invalidate();
+
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            computing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return payload(computations.incrementAndGet());
+        }).when(dashboardService).getDashboardData(anyInt());
+        Future<Map<String, Object>> recomputed = executor.submit(() -> cache.get(MAX_TOP));
+        assertThat(computing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Does not wait for the recompute in progress
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 1);
+        release.countDown();
+
+        assertThat(recomputed.get(5, TimeUnit.SECONDS)).containsEntry("computation", 2);
+        assertThat(cache.getStats()).containsEntry("staleHits", 1L);
+    }
+
+    @Test
+    void invalidateOutsideATransactionTakesEffectAtOnce() {
+        cache.get(MAX_TOP);
+
+        cache.invalidate();
+
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 2);
+    }
+
+    @Test
+    void invalidateInsideATransactionWaitsForTheCommit() {
+        cache.get(MAX_TOP);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate();
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 1);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 2);
+    }
+
+    @Test
+    void payloadComputedAcrossAnInvalidationIsNotServedAsFresh() {
+        doAnswer(invocation -> {
+            int computation = computations.incrementAndGet();
+            if (computation == 1) {
+                // A write commits while the payload is being computed
+                cache.invalidate();
+            }
+            return payload(computation);
+        }).when(dashboardService).getDashboardData(anyInt());
+
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 1);
+        assertThat(collectionVersions.current(DashboardCache.VERSION_NAME)).isNull();
+        assertThat(cache.get(MAX_TOP)).containsEntry("computation", 2);
+    }
+
+    @Test
+    void versionFollowsTheServedPayload() {
+        assertThat(collectionVersions.current(DashboardCache.VERSION_NAME)).isNull();
+
+        cache.get(MAX_TOP);
+        CollectionVersions.Version first = collectionVersions.current(DashboardCache.VERSION_NAME);
+        assertThat(first).isNotNull();
+        assertThat(collectionVersions.current(DashboardCache.VERSION_NAME)).isEqualTo(first);
+
+        cache.invalidate();
+        assertThat(collectionVersions.current(DashboardCache.VERSION_NAME)).isNull();
+    }
+
+    private static Map<String, Object> payload(int computation) {
+        List<Map<String, Object>> costlyOperations = new ArrayList<>();
+        for (int i = 0; i < MAX_TOP; i++) {
+            costlyOperations.add(Map.of("rank", i));
+        }
+        return Map.of("computation", computation, "costlyOperations", costlyOperations);
+    }
+}
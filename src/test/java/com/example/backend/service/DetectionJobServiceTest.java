@@ -0,0 +1,236 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.backend.model.DetectionJob;
+import com.example.backend.repository.DailyReportRepository;
+import com.example.backend.repository.DetectionJobRepository;
+
+/**
+ * Claim, retry and heartbeat of DetectionJobService against mocked
+ * repositories. The conditional UPDATE of claim() is played on a single
+ * DetectionJob, so a job that is not PENDING cannot be claimed.
+ */
+class DetectionJobServiceTest {
+
+    private static final long JOB_ID = 7L;
+    private static final long REPORT_ID = 42L;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long STALE_AFTER_MILLIS = 60_000;
+
+    private DetectionJobRepository detectionJobRepository;
+    private DailyReportRepository dailyReportRepository;
+    private ProblemeService problemeService;
+    private DetectionJobService detectionJobService;
+    private DetectionJob job;
+
+    @BeforeEach
+    void setUp() {
+        detectionJobRepository = mock(DetectionJobRepository.class);
+        dailyReportRepository = mock(DailyReportRepository.class);
+        problemeService = mock(ProblemeService.class);
+        detectionJobService = new DetectionJobService(detectionJobRepository, dailyReportRepository,
+            problemeService, mock(PlatformTransactionManager.class), 1, 10, MAX_ATTEMPTS, 10, 40,
+            STALE_AFTER_MILLIS);
+
+        job = new DetectionJob(REPORT_ID);
+        when(dailyReportRepository.existsById(REPORT_ID)).thenReturn(true);
+        when(detectionJobRepository.lockByDailyReportId(REPORT_ID))
+            .thenAnswer(invocation -> job.getId() == null ? Optional.empty() : Optional.of(job));
+        when(detectionJobRepository.saveAndFlush(any(DetectionJob.class))).thenAnswer(invocation -> {
+            DetectionJob saved = invocation.getArgument(0);
+            saved.setId(JOB_ID);
+            job = saved;
+            return saved;
+        });
+        when(detectionJobRepository.claim(eq(JOB_ID), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            synchronized (this) {
+                if (job.getStatus() != DetectionJob.Status.PENDING) {
+                    return 0;
+                }
+                job.setStatus(DetectionJob.Status.RUNNING);
+                job.setAttempts(job.getAttempts() + 1);
+                return 1;
+            }
+        });
+        when(detectionJobRepository.findById(JOB_ID)).thenAnswer(invocation -> Optional.of(job));
+        when(detectionJobRepository.lockById(JOB_ID)).thenAnswer(invocation -> Optional.of(job));
+        when(detectionJobRepository.findDueJobIds(any(LocalDateTime.class))).thenReturn(List.of());
+        when(problemeService.runDetection(anyLong(), anyList())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        detectionJobService.shutdown();
+    }
+
+    @Test
+    void submittedJobRunsAndIsMarkedDone() {
+        DetectionJob submitted = detectionJobService.submit(REPORT_ID, List.of(1L, 2L));
+
+        assertThat(submitted.getId()).isEqualTo(JOB_ID);
+        awaitStatus(DetectionJob.Status.DONE);
+        verify(problemeService).runDetection(REPORT_ID, List.of(1L, 2L));
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getProblemCount()).isZero();
+    }
+
+    @Test
+    void submitOfAMissingReportIsRejected() {
+        when(dailyReportRepository.existsById(REPORT_ID)).thenReturn(false);
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> detectionJobService.submit(REPORT_ID, List.of(1L)));
+        verify(detectionJobRepository, never()).saveAndFlush(any(DetectionJob.class));
+    }
+
+    @Test
+    void jobClaimedByAnotherWorkerIsNotRun() {
+        when(detectionJobRepository.claim(eq(JOB_ID), any(LocalDateTime.class))).thenReturn(0);
+
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+
+        verify(detectionJobRepository, timeout(2000)).claim(eq(JOB_ID), any(LocalDateTime.class));
+        verify(problemeService, never()).runDetection(anyLong(), anyList());
+        assertThat(job.getStatus()).isEqualTo(DetectionJob.Status.PENDING);
+    }
+
+    @Test
+    void failedRunIsRetriedAfterABackoff() {
+        AtomicInteger runs = new AtomicInteger();
+        when(problemeService.runDetection(anyLong(), anyList())).thenAnswer(invocation -> {
+            if (runs.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection reset");
+            }
+            return List.of();
+        });
+
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+
+        awaitStatus(DetectionJob.Status.DONE);
+        assertThat(runs).hasValue(2);
+        assertThat(job.getAttempts()).isEqualTo(2);
+        assertThat(job.getLastError()).isNull();
+    }
+
+    @Test
+    void jobFailsOnceItRunsOutOfAttempts() {
+        when(problemeService.runDetection(anyLong(), anyList()))
+            .thenThrow(new IllegalStateException("connection reset"));
+
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+
+        awaitStatus(DetectionJob.Status.FAILED);
+        verify(problemeService, times(MAX_ATTEMPTS)).runDetection(anyLong(), anyList());
+        assertThat(job.getLastError()).isEqualTo("IllegalStateException: connection reset");
+        assertThat(job.getFinishedAt()).isNotNull();
+    }
+
+    @Test
+    void badInputIsNotRetried() {
+        when(problemeService.runDetection(anyLong(), anyList()))
+            .thenThrow(new IllegalArgumentException("Operation not found: 1"));
+
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+
+        awaitStatus(DetectionJob.Status.FAILED);
+        verify(problemeService, times(1)).runDetection(anyLong(), anyList());
+    }
+
+    @Test
+    void submissionDuringARunRunsTheJobAgainWithTheMergedOperations() {
+        AtomicInteger runs = new AtomicInteger();
+        when(problemeService.runDetection(anyLong(), anyList())).thenAnswer(invocation -> {
+            if (runs.incrementAndGet() == 1) {
+                // Submitted again while this run is in progress
+                detectionJobService.submit(REPORT_ID, List.of(2L));
+            }
+            return List.of();
+        });
+
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+
+        verify(problemeService, timeout(2000)).runDetection(REPORT_ID, List.of(1L, 2L));
+        awaitStatus(DetectionJob.Status.DONE);
+        assertThat(runs).hasValue(2);
+    }
+
+    @Test
+    void sweepTouchesTheRunningJobsAndRequeuesStaleOnes() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(problemeService.runDetection(anyLong(), anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        detectionJobService.submit(REPORT_ID, List.of(1L));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        when(detectionJobRepository.findDueJobIds(any(LocalDateTime.class))).thenReturn(List.of(JOB_ID));
+
+        LocalDateTime before = LocalDateTime.now();
+        detectionJobService.sweep();
+        release.countDown();
+
+        ArgumentCaptor<LocalDateTime> now = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(detectionJobRepository).touchRunning(eq(List.of(JOB_ID)), now.capture());
+        verify(detectionJobRepository).requeueStale(staleBefore.capture(), eq(now.getValue()));
+        assertThat(now.getValue()).isAfterOrEqualTo(before);
+        assertThat(Duration.between(staleBefore.getValue(), now.getValue()).toMillis()).isEqualTo(STALE_AFTER_MILLIS);
+
+        awaitStatus(DetectionJob.Status.DONE);
+        // The due job was already in flight here, so the sweep did not queue it twice
+        verify(problemeService, times(1)).runDetection(anyLong(), anyList());
+    }
+
+    @Test
+    void sweepQueuesDueJobs() {
+        job.setId(JOB_ID);
+        when(detectionJobRepository.findDueJobIds(any(LocalDateTime.class))).thenReturn(List.of(JOB_ID));
+
+        detectionJobService.sweep();
+
+        awaitStatus(DetectionJob.Status.DONE);
+        verify(detectionJobRepository, never()).touchRunning(anyList(), any(LocalDateTime.class));
+        verify(problemeService).runDetection(eq(REPORT_ID), anyList());
+    }
+
+    private void awaitStatus(DetectionJob.Status status) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getStatus() != status && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertThat(job.getStatus()).isEqualTo(status);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.dto.DocumentText;
+import com.example.backend.model.Document;
+import com.example.backend.repository.DocumentRepository;
+
+class DocumentSearchIndexTest {
+
+    private DocumentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        DocumentRepository documentRepository = mock(DocumentRepository.class);
+        when(documentRepository.findAllTexts()).thenReturn(List.of(
+            new DocumentText(1L, "Rapport de forage", "Synthèse de la phase 12\""),
+            new DocumentText(2L, "Programme", "Forage du puit HMD-12"),
+            new DocumentText(3L, "Bilan Été", null)));
+        index = new DocumentSearchIndex(documentRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void tokenizeFoldsCaseAndAccents() {
+        assertThat(DocumentSearchIndex.tokenize("Forage  Été/HMD-12")).containsExactly("forage", "ete", "hmd", "12");
+        assertThat(DocumentSearchIndex.tokenize(" ")).isEmpty();
+        assertThat(DocumentSearchIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void matchesInNomRankAboveMatchesInDescription() {
+        assertThat(index.search("forage")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertThat(index.search("forage programme")).containsExactly(2L);
+        assertThat(index.search("forage bilan")).isEmpty();
+    }
+
+    @Test
+    void wordsMatchAsPrefixesAndWithoutAccents() {
+        assertThat(index.search("synth")).containsExactly(1L);
+        assertThat(index.search("ÉTÉ")).containsExactly(3L);
+    }
+
+    @Test
+    void indexAndRemoveKeepTheIndexCurrent() {
+        Document document = new Document();
+        document.setId(3L);
+        document.setNom("Bilan hiver");
+        index.index(document);
+
+        assertThat(index.search("ete")).isEmpty();
+        assertThat(index.search("hiver")).containsExactly(3L);
+
+        index.remove(3L);
+
+        assertThat(index.search("bilan")).isEmpty();
+    }
+
+    @Test
+    void blankQueryMatchesNothing() {
+        assertThat(index.search("  ")).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.backend.model.Region;
+import com.example.backend.repository.RegionRepository;
+import com.example.backend.repository.TypeIndicateurRepository;
+import com.example.backend.repository.TypeOperationRepository;
+
+/**
+ * Versions of the cached reference tables, over mocked repositories.
+ */
+class ReferenceDataCacheTest {
+
+    private RegionRepository regionRepository;
+    private CollectionVersions collectionVersions;
+
+    @BeforeEach
+    void setUp() {
+        regionRepository = mock(RegionRepository.class);
+        when(regionRepository.findAll(any(Sort.class))).thenReturn(List.of(region(1L, "Hassi Messaoud")));
+        collectionVersions = new CollectionVersions();
+    }
+
+    @Test
+    void reloadOfTheSameRowsKeepsTheVersion() {
+        ReferenceDataCache cache = cache(0);
+        CollectionVersions.Version first = collectionVersions.current(ReferenceDataCache.REGIONS);
+
+        cache.invalidate(Region.class);
+
+        assertThat(collectionVersions.current(ReferenceDataCache.REGIONS)).isEqualTo(first);
+        assertThat(stats(cache).get("misses")).isEqualTo(2L);
+    }
+
+    @Test
+    void reloadOfChangedRowsMovesTheVersion() throws Exception {
+        ReferenceDataCache cache = cache(0);
+        CollectionVersions.Version first = collectionVersions.current(ReferenceDataCache.REGIONS);
+        when(regionRepository.findAll(any(Sort.class))).thenReturn(List.of(region(1L, "Hassi R'Mel")));
+        Thread.sleep(5);
+
+        CollectionVersions.Version second = collectionVersions.current(ReferenceDataCache.REGIONS);
+
+        assertThat(second.tag()).isNotEqualTo(first.tag());
+        assertThat(second.lastModified()).isGreaterThan(first.lastModified());
+        assertThat(cache.getRegion(1L)).get().extracting(Region::getNom).isEqualTo("Hassi R'Mel");
+    }
+
+    @Test
+    void readingTheVersionIsNotCountedAsAHit() {
+        ReferenceDataCache cache = cache(60_000);
+        cache.getRegions();
+
+        collectionVersions.current(ReferenceDataCache.REGIONS);
+        collectionVersions.current(ReferenceDataCache.REGIONS);
+
+        assertThat(stats(cache)).containsEntry("hits", 0L).containsEntry("misses", 1L);
+    }
+
+    private ReferenceDataCache cache(long ttlMillis) {
+        return new ReferenceDataCache(mock(TypeOperationRepository.class), mock(TypeIndicateurRepository.class),
+            regionRepository, mock(PlatformTransactionManager.class), collectionVersions, ttlMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> stats(ReferenceDataCache cache) {
+        return (Map<String, Object>) cache.getStats().get(ReferenceDataCache.REGIONS);
+    }
+
+    private static Region region(Long id, String nom) {
+        Region region = new Region();
+        region.setId(id);
+        region.setNom(nom);
+        return region;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.collection.spi.LazyInitializable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.example.backend.model.Puit;
+import com.example.backend.model.Region;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+
+/**
+ * Existence checks of ReferenceResolver batches against a mocked
+ * EntityManager: getReference() hands out uninitialized proxies unless a
+ * test says otherwise, and the id queries answer from existingPuits.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReferenceResolverTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    @InjectMocks
+    private ReferenceResolver referenceResolver;
+
+    private final Set<Object> existingPuits = new HashSet<>();
+    private final List<Collection<?>> queriedIds = new ArrayList<>();
+
+    private final List<Object> assigned = new ArrayList<>();
+    private final List<Object> missing = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+        when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+        when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+        when(persistenceUnitUtil.getIdentifier(any())).thenAnswer(invocation -> {
+            Object entity = invocation.getArgument(0);
+            return entity instanceof Puit puit ? puit.getId() : ((Region) entity).getId();
+        });
+
+        when(entityManager.getReference(eq(Puit.class), any())).thenAnswer(invocation -> uninitialized(Puit.class));
+        when(entityManager.getReference(eq(Region.class), any())).thenAnswer(invocation -> uninitialized(Region.class));
+
+        Metamodel metamodel = mock(Metamodel.class);
+        EntityType<?> puitType = mock(EntityType.class);
+        Type<?> idType = mock(Type.class);
+        SingularAttribute<?, ?> idAttribute = mock(SingularAttribute.class);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+        doReturn(puitType).when(metamodel).entity(Puit.class);
+        doReturn(idType).when(puitType).getIdType();
+        doReturn(Long.class).when(idType).getJavaType();
+        doReturn(idAttribute).when(puitType).getId(Long.class);
+        when(idAttribute.getName()).thenReturn("id");
+        when(puitType.getName()).thenReturn("Puit");
+
+        Query query = mock(Query.class);
+        when(entityManager.createQuery(anyString())).thenReturn(query);
+        when(query.setParameter(eq("ids"), any())).thenAnswer(invocation -> {
+            queriedIds.add(invocation.getArgument(1));
+            return query;
+        });
+        when(query.getResultList()).thenAnswer(invocation -> queriedIds.get(queriedIds.size() - 1).stream()
+            .filter(existingPuits::contains).toList());
+    }
+
+    @Test
+    void checksTheIdsOfATypeWithOneQuery() {
+        existingPuits.addAll(List.of(1L, 3L));
+
+        referenceResolver.batch()
+            .set(Puit.class, puit(1L), null, assigned::add, missing::add)
+            .set(Puit.class, puit(2L), null, assigned::add, missing::add)
+            .set(Puit.class, puit(3L), null, assigned::add, missing::add)
+            .resolve();
+
+        verify(entityManager, times(1)).createQuery(anyString());
+        assertThat(queriedIds).hasSize(1);
+        assertThat(queriedIds.get(0)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(assigned).hasSize(2);
+        assertThat(missing).containsExactly(2L);
+    }
+
+    @Test
+    void loadedOrCachedReferencesCostNoQuery() {
+        when(entityManager.getReference(Puit.class, 1L)).thenReturn(puit(1L));
+        when(referenceDataCache.contains(Region.class, 5L)).thenReturn(true);
+
+        referenceResolver.batch()
+            .set(Puit.class, puit(1L), null, assigned::add, missing::add)
+            .set(Region.class, region(5L), null, assigned::add, missing::add)
+            .resolve();
+
+        verify(entityManager, never()).createQuery(anyString());
+        assertThat(assigned).hasSize(2);
+        assertThat(missing).isEmpty();
+    }
+
+    @Test
+    void verifiedReferencesAreAppliedWhenOthersOfTheirTypeAreQueried() {
+        when(entityManager.getReference(Puit.class, 1L)).thenReturn(puit(1L));
+
+        referenceResolver.batch()
+            .set(Puit.class, puit(1L), null, assigned::add, missing::add)
+            .set(Puit.class, puit(2L), null, assigned::add, missing::add)
+            .resolve();
+
+        assertThat(queriedIds).hasSize(1);
+        assertThat(queriedIds.get(0)).containsExactly(2L);
+        assertThat(assigned).hasSize(1);
+        assertThat(missing).containsExactly(2L);
+    }
+
+    @Test
+    void unchangedReferencesAreSkipped() {
+        referenceResolver.batch()
+            .set(Puit.class, puit(4L), puit(4L), assigned::add, missing::add)
+            .set(Puit.class, new Puit(), null, assigned::add, missing::add)
+            .resolve();
+
+        verify(entityManager, never()).getReference(eq(Puit.class), any());
+        verify(entityManager, never()).createQuery(anyString());
+        assertThat(assigned).isEmpty();
+    }
+
+    @Test
+    void queriesIdsInChunksBelowTheInListLimit() {
+        ReferenceResolver.Batch batch = referenceResolver.batch();
+        for (long id = 1; id <= 1200; id++) {
+            existingPuits.add(id);
+            batch.set(Puit.class, puit(id), null, assigned::add, missing::add);
+        }
+        batch.resolve();
+
+        assertThat(queriedIds).extracting(Collection::size).containsExactly(500, 500, 200);
+        assertThat(assigned).hasSize(1200);
+        assertThat(missing).isEmpty();
+    }
+
+    private static <E> E uninitialized(Class<E> type) {
+        // Hibernate.isInitialized() asks LazyInitializable.wasInitialized(), false on a mock
+        return mock(type, withSettings().extraInterfaces(LazyInitializable.class));
+    }
+
+    private static Puit puit(Long id) {
+        Puit puit = new Puit();
+        puit.setId(id);
+        return puit;
+    }
+
+    private static Region region(Long id) {
+        Region region = new Region();
+        region.setId(id);
+        return region;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.backend.service.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.backend.model.Probleme;
+
+class DetectionRuleSetTest {
+
+    @Test
+    void compilesOneRulePerKindAndIndicateurRulesPerType() {
+        DetectionRuleSet ruleSet = compile(
+            rule("cost", DetectionRuleKind.OPERATION_COST, null, null),
+            rule("depth", DetectionRuleKind.PHASE_DEPTH, null, null),
+            rule("indicateur", DetectionRuleKind.INDICATEUR_DEVIATION, null, null),
+            rule("indicateur-7", DetectionRuleKind.INDICATEUR_DEVIATION, 7L, DetectionRulesConfig.Direction.BELOW));
+
+        assertThat(ruleSet.getOperationCost().getId()).isEqualTo("cost");
+        assertThat(ruleSet.getPhaseDepth().getId()).isEqualTo("depth");
+        assertThat(ruleSet.getPhaseSchedule()).isNull();
+        assertThat(ruleSet.hasIndicateurRules()).isTrue();
+        assertThat(ruleSet.indicateurRuleFor(7L).getId()).isEqualTo("indicateur-7");
+        assertThat(ruleSet.indicateurRuleFor(8L).getId()).isEqualTo("indicateur");
+        assertThat(ruleSet.indicateurRuleFor(null).getId()).isEqualTo("indicateur");
+        assertThat(ruleSet.getRules()).hasSize(4);
+        assertThat(ruleSet.getSource()).isEqualTo("test");
+    }
+
+    @Test
+    void dropsDisabledRules() {
+        DetectionRulesConfig.Rule cost = rule("cost", DetectionRuleKind.OPERATION_COST, null, null);
+        DetectionRulesConfig.Rule disabled = new DetectionRulesConfig.Rule(cost.id(), cost.kind(), false,
+            cost.problemType(), cost.severity(), cost.solution(), null, null);
+
+        DetectionRuleSet ruleSet = compile(disabled);
+
+        assertThat(ruleSet.getOperationCost()).isNull();
+        assertThat(ruleSet.getRules()).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidConfigs() {
+        assertThatIllegalArgumentException().isThrownBy(() -> DetectionRuleSet.compile(null, "test"));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            rule("cost", DetectionRuleKind.OPERATION_COST, null, null),
+            rule("cost", DetectionRuleKind.PHASE_DEPTH, null, null)));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            rule("cost", DetectionRuleKind.OPERATION_COST, null, null),
+            rule("cost-again", DetectionRuleKind.OPERATION_COST, null, null)));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            rule("indicateur", DetectionRuleKind.INDICATEUR_DEVIATION, null, null),
+            rule("indicateur-again", DetectionRuleKind.INDICATEUR_DEVIATION, null, null)));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            rule("depth", DetectionRuleKind.PHASE_DEPTH, 7L, null)));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            new DetectionRulesConfig.Rule("cost", DetectionRuleKind.OPERATION_COST, null, Probleme.Type.COUT,
+                Map.of(Probleme.Gravite.FAIBLE, 50.0, Probleme.Gravite.MODEREE, 20.0, Probleme.Gravite.CRITIQUE, 80.0),
+                null, null, null)));
+        assertThatIllegalArgumentException().isThrownBy(() -> compile(
+            new DetectionRulesConfig.Rule("cost", DetectionRuleKind.OPERATION_COST, null, Probleme.Type.COUT,
+                Map.of(Probleme.Gravite.FAIBLE, 0.0), null, null, null)));
+    }
+
+    @Test
+    void classifiesMeasuresStrictlyAboveEachThreshold() {
+        CompiledRule rule = compile(rule("cost", DetectionRuleKind.OPERATION_COST, null, null)).getOperationCost();
+
+        assertThat(rule.classify(0)).isNull();
+        assertThat(rule.classify(0.5)).isEqualTo(Probleme.Gravite.FAIBLE);
+        assertThat(rule.classify(20)).isEqualTo(Probleme.Gravite.FAIBLE);
+        assertThat(rule.classify(20.5)).isEqualTo(Probleme.Gravite.MODEREE);
+        assertThat(rule.classify(50.5)).isEqualTo(Probleme.Gravite.CRITIQUE);
+    }
+
+    @Test
+    void foldsDeviationsByDirection() {
+        DetectionRuleSet ruleSet = compile(
+            rule("above", DetectionRuleKind.INDICATEUR_DEVIATION, 1L, null),
+            rule("below", DetectionRuleKind.INDICATEUR_DEVIATION, 2L, DetectionRulesConfig.Direction.BELOW),
+            rule("both", DetectionRuleKind.INDICATEUR_DEVIATION, 3L, DetectionRulesConfig.Direction.BOTH));
+
+        assertThat(ruleSet.indicateurRuleFor(1L).deviationPercent(100, 80)).isCloseTo(-20, within(1e-9));
+        assertThat(ruleSet.indicateurRuleFor(2L).deviationPercent(100, 80)).isCloseTo(20, within(1e-9));
+        assertThat(ruleSet.indicateurRuleFor(3L).deviationPercent(100, 80)).isCloseTo(20, within(1e-9));
+        assertThat(ruleSet.indicateurRuleFor(3L).deviationPercent(-100, -120)).isCloseTo(20, within(1e-9));
+    }
+
+    private static DetectionRuleSet compile(DetectionRulesConfig.Rule... rules) {
+        return DetectionRuleSet.compile(new DetectionRulesConfig(List.of(rules)), "test");
+    }
+
+    private static DetectionRulesConfig.Rule rule(String id, DetectionRuleKind kind, Long typeIndicateurId,
+                                                  DetectionRulesConfig.Direction direction) {
+        return new DetectionRulesConfig.Rule(id, kind, null, Probleme.Type.TECHNIQUE,
+            Map.of(Probleme.Gravite.FAIBLE, 0.0, Probleme.Gravite.MODEREE, 20.0, Probleme.Gravite.CRITIQUE, 50.0),
+            null, typeIndicateurId, direction);
+    }
+}